@@ -27,6 +27,7 @@ import com.openrsc.server.model.struct.EquipRequest.RequestType;
 import com.openrsc.server.model.struct.UnequipRequest;
 import com.openrsc.server.model.world.region.TileValue;
 import com.openrsc.server.net.rsc.ActionSender;
+import com.openrsc.server.plugins.PluginProfiler;
 import com.openrsc.server.plugins.triggers.CommandTrigger;
 import com.openrsc.server.util.rsc.DataConversions;
 import com.openrsc.server.util.rsc.Formulae;
@@ -63,8 +64,8 @@ public final class Admins implements CommandTrigger {
 
 		TileValue value = player.getWorld().getTile(location.getX(), location.getY());
 
-		if (value.diagWallVal != 0 || value.horizontalWallVal != 0 || value.verticalWallVal != 0
-			|| value.overlay != 0) {
+		if (value.getDiagWallVal() != 0 || value.getHorizontalWallVal() != 0 || value.getVerticalWallVal() != 0
+			|| value.getOverlay() != 0) {
 			return getRandomLocation(player);
 		}
 		return location;
@@ -85,6 +86,10 @@ public final class Admins implements CommandTrigger {
 
 		if (command.equalsIgnoreCase("saveall")) {
 			saveAll(player);
+		} else if (command.equalsIgnoreCase("reloadplugins")) {
+			reloadPlugins(player);
+		} else if (command.equalsIgnoreCase("pluginstats") || command.equalsIgnoreCase("slowscripts")) {
+			pluginStats(player, command, args);
 		} else if (command.equalsIgnoreCase("holidaydrop")) {
 			startHolidayDrop(player, command, args);
 		} else if (command.equalsIgnoreCase("stopholidaydrop") || command.equalsIgnoreCase("cancelholidaydrop")) {
@@ -205,6 +210,37 @@ public final class Admins implements CommandTrigger {
 		player.message(messagePrefix + "Saved " + count + " players on server!");
 	}
 
+	private void reloadPlugins(Player player) {
+		if (player.getWorld().getServer().getPluginHandler().reload()) {
+			player.message(messagePrefix + "Reloading plugins, they will be swapped in once loaded");
+		} else {
+			player.message(messagePrefix + "Plugins are already being reloaded");
+		}
+	}
+
+	private void pluginStats(Player player, String command, String[] args) {
+		final PluginProfiler profiler = player.getWorld().getServer().getPluginHandler().getProfiler();
+		if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+			profiler.reset();
+			player.message(messagePrefix + "Plugin timings have been reset");
+			return;
+		}
+
+		int count = 10;
+		if (args.length > 0) {
+			try {
+				count = Integer.parseInt(args[0]);
+			} catch (NumberFormatException ex) {
+				player.message(badSyntaxPrefix + command.toUpperCase() + " [count|reset]");
+				return;
+			}
+		}
+
+		final String slowScripts = profiler.buildSlowScripts(count, "%");
+		ActionSender.sendBox(player, "Plugin, runs, slice mean/p99/max, tick time, pauses mean/max, lifetime%"
+			+ (slowScripts.isEmpty() ? "No plugin scripts have run yet" : slowScripts), true);
+	}
+
 	private void startHolidayDrop(Player player, String command, String[] args) {
 		if (args.length < 3) {
 			player.message(badSyntaxPrefix + command.toUpperCase() + " [hours] [minute] [item_id] ...");
@@ -243,8 +279,8 @@ public final class Admins implements CommandTrigger {
 			items.add(itemId);
 		}
 
-		HashMap<String, GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
-		for (GameTickEvent event : events.values()) {
+		List<GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
+		for (GameTickEvent event : events) {
 			if (!(event instanceof HolidayDropEvent)) continue;
 
 			player.message(messagePrefix + "There is already a holiday drop running!");
@@ -257,8 +293,8 @@ public final class Admins implements CommandTrigger {
 	}
 
 	private void stopHolidayDrop(Player player) {
-		HashMap<String, GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
-		for (GameTickEvent event : events.values()) {
+		List<GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
+		for (GameTickEvent event : events) {
 			if (!(event instanceof HolidayDropEvent)) continue;
 
 			event.stop();
@@ -269,8 +305,8 @@ public final class Admins implements CommandTrigger {
 	}
 
 	private void checkHolidayDrop(Player player) {
-		HashMap<String, GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
-		for (GameTickEvent event : events.values()) {
+		List<GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
+		for (GameTickEvent event : events) {
 			if (!(event instanceof HolidayDropEvent)) continue;
 
 			HolidayDropEvent holidayEvent = (HolidayDropEvent) event;
@@ -410,7 +446,7 @@ public final class Admins implements CommandTrigger {
 		}
 
 		Point itemLocation = new Point(x, y);
-		if ((player.getWorld().getTile(itemLocation).traversalMask & 64) != 0) {
+		if ((player.getWorld().getTile(itemLocation).getTraversalMask() & 64) != 0) {
 			player.message(messagePrefix + "Can not place a ground item here");
 			return;
 		}
@@ -1079,7 +1115,7 @@ public final class Admins implements CommandTrigger {
 					}
 
 					if (player.getWorld().withinWorld(baseX + x, baseY + y)) {
-						if ((player.getWorld().getTile(new Point(baseX + x, baseY + y)).traversalMask & 64) == 0) {
+						if ((player.getWorld().getTile(new Point(baseX + x, baseY + y)).getTraversalMask() & 64) == 0) {
 							player.getWorld().registerItem(new GroundItem(player.getWorld(), id, baseX + x, baseY + y, amount, (Player) null));
 						}
 					}
@@ -1176,7 +1212,7 @@ public final class Admins implements CommandTrigger {
 						}
 					}
 					if (player.getWorld().withinWorld(baseX + x, baseY + y)) {
-						if ((player.getWorld().getTile(new Point(baseX + x, baseY + y)).traversalMask & 64) == 0) {
+						if ((player.getWorld().getTile(new Point(baseX + x, baseY + y)).getTraversalMask() & 64) == 0) {
 							final Npc n = new Npc(player.getWorld(), id, baseX + x, baseY + y, baseX + x - 20, baseX + x + 20, baseY + y - 20, baseY + y + 20);
 							n.setShouldRespawn(false);
 							player.getWorld().registerNpc(n);
@@ -1395,8 +1431,8 @@ public final class Admins implements CommandTrigger {
 			npcLifeTime = 10;
 		}
 
-		HashMap<String, GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
-		for (GameTickEvent event : events.values()) {
+		List<GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
+		for (GameTickEvent event : events) {
 			if (!(event instanceof HourlyNpcLootEvent)) continue;
 
 			player.message(messagePrefix + "Hourly NPC Loot Event is already running");
@@ -1408,8 +1444,8 @@ public final class Admins implements CommandTrigger {
 	}
 
 	private void stopNpcEvent(Player player) {
-		HashMap<String, GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
-		for (GameTickEvent event : events.values()) {
+		List<GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
+		for (GameTickEvent event : events) {
 			if (!(event instanceof HourlyNpcLootEvent)) continue;
 
 			event.stop();
@@ -1419,8 +1455,8 @@ public final class Admins implements CommandTrigger {
 	}
 
 	private void checkNpcEvent(Player player) {
-		HashMap<String, GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
-		for (GameTickEvent event : events.values()) {
+		List<GameTickEvent> events = player.getWorld().getServer().getGameEventHandler().getEvents();
+		for (GameTickEvent event : events) {
 			if (!(event instanceof HourlyNpcLootEvent)) continue;
 
 			HourlyNpcLootEvent lootEvent = (HourlyNpcLootEvent) event;
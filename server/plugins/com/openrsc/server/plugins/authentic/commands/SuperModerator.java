@@ -50,7 +50,7 @@ public final class SuperModerator implements CommandTrigger {
 		} else if (command.equalsIgnoreCase("quest") || command.equalsIgnoreCase("getquest") || command.equalsIgnoreCase("checkquest")) {
 			checkQuest(player, command, args);
 		} else if (command.equalsIgnoreCase("reloadworld") || command.equalsIgnoreCase("reloadland")) {
-			player.getWorld().getWorldLoader().loadWorld();
+			player.getWorld().getWorldLoader().loadWorld(player.getWorld().getRegionManager());
 			player.message(messagePrefix + "World Reloaded");
 		} else if (command.equalsIgnoreCase("summonall")) {
 			summonAllPlayers(player, command, args);
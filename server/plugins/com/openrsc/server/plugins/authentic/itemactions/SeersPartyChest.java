@@ -44,7 +44,7 @@ public class SeersPartyChest implements UseLocTrigger {
 						new Point(rand.nextInt(11) + 490, rand.nextInt(8) + 1408) :
 						new Point(rand.nextInt(11) + 490, rand.nextInt(8) + 464);
 
-					if ((player.getWorld().getTile(location).traversalMask & 64) != 0) {
+					if ((player.getWorld().getTile(location).getTraversalMask() & 64) != 0) {
 						continue;
 					}
 
@@ -2,15 +2,21 @@ package com.openrsc.server.plugins.authentic.misc;
 
 import com.openrsc.server.model.entity.GameObject;
 import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.plugins.TargetedPlugin;
 import com.openrsc.server.plugins.triggers.OpBoundTrigger;
 import com.openrsc.server.util.rsc.MessageType;
 
 import static com.openrsc.server.plugins.Functions.*;
 
-public class MagicGuildPortals implements OpBoundTrigger {
+public class MagicGuildPortals implements OpBoundTrigger, TargetedPlugin {
 
 	private static int[] MAGIC_PORTALS = {147, 148, 149};
 
+	@Override
+	public int[] getTargetIds(Class<?> trigger) {
+		return MAGIC_PORTALS;
+	}
+
 	@Override
 	public boolean blockOpBound(Player player, GameObject obj, Integer click) {
 		return inArray(obj.getID(), MAGIC_PORTALS);
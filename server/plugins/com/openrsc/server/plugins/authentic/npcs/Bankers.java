@@ -5,6 +5,7 @@ import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.net.rsc.ActionSender;
+import com.openrsc.server.plugins.TargetedPlugin;
 import com.openrsc.server.plugins.triggers.OpNpcTrigger;
 import com.openrsc.server.plugins.triggers.TalkNpcTrigger;
 import org.apache.logging.log4j.LogManager;
@@ -12,11 +13,16 @@ import org.apache.logging.log4j.Logger;
 
 import static com.openrsc.server.plugins.Functions.*;
 
-public class Bankers implements TalkNpcTrigger, OpNpcTrigger {
+public class Bankers implements TalkNpcTrigger, OpNpcTrigger, TargetedPlugin {
 	private static final Logger LOGGER = LogManager.getLogger(Bankers.class);
 	public static int[] BANKERS = {NpcId.BANKER_GEN1.id(), NpcId.FAIRY_BANKER.id(), NpcId.BANKER_GEN2.id(),
 		NpcId.GNOME_BANKER.id(), NpcId.JUNGLE_BANKER.id()};
 
+	@Override
+	public int[] getTargetIds(Class<?> trigger) {
+		return BANKERS;
+	}
+
 	@Override
 	public boolean blockTalkNpc(final Player player, final Npc npc) {
 		if (inArray(npc.getID(), BANKERS)) {
@@ -5,16 +5,22 @@ import com.openrsc.server.model.container.Item;
 import com.openrsc.server.model.entity.GameObject;
 import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.plugins.TargetedPlugin;
 import com.openrsc.server.plugins.triggers.UseLocTrigger;
 import com.openrsc.server.plugins.triggers.OpLocTrigger;
 import com.openrsc.server.util.rsc.MessageType;
 
 import static com.openrsc.server.plugins.Functions.*;
 
-public class DigsiteWinch implements OpLocTrigger, UseLocTrigger {
+public class DigsiteWinch implements OpLocTrigger, UseLocTrigger, TargetedPlugin {
 
 	private static final int[] WINCH = {1095, 1053};
 
+	@Override
+	public int[] getTargetIds(Class<?> trigger) {
+		return WINCH;
+	}
+
 	@Override
 	public boolean blockOpLoc(Player player, GameObject obj, String command) {
 		return inArray(obj.getID(), WINCH);
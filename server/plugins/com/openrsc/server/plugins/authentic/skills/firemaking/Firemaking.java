@@ -244,30 +244,30 @@ public class Firemaking implements UseObjTrigger, UseInvTrigger {
 		TileValue tile = player.getWorld().getTile(xPos, yPos);
 		TileValue tileNear;
 
-		if ((tile.traversalMask & CollisionFlag.WEST_BLOCKED) == 0) {
+		if ((tile.getTraversalMask() & CollisionFlag.WEST_BLOCKED) == 0) {
 			tileNear = player.getWorld().getTile(xPos + 1, yPos);
-			if (tileNear != null && (tileNear.traversalMask & CollisionFlag.FULL_BLOCK) == 0
+			if (tileNear != null && (tileNear.getTraversalMask() & CollisionFlag.FULL_BLOCK) == 0
 				&& player.getViewArea().getGameObject(new Point(xPos + 1, yPos)) == null) {
 				player.walk(player.getX() + 1, player.getY());
 				return;
 			}
-		} if ((tile.traversalMask & CollisionFlag.EAST_BLOCKED) == 0) {
+		} if ((tile.getTraversalMask() & CollisionFlag.EAST_BLOCKED) == 0) {
 			tileNear = player.getWorld().getTile(xPos - 1, yPos);
-			if (tileNear != null && (tileNear.traversalMask & CollisionFlag.FULL_BLOCK) == 0
+			if (tileNear != null && (tileNear.getTraversalMask() & CollisionFlag.FULL_BLOCK) == 0
 				&& player.getViewArea().getGameObject(new Point(xPos - 1, yPos)) == null) {
 				player.walk(player.getX() - 1, player.getY());
 				return;
 			}
-		} if ((tile.traversalMask & CollisionFlag.NORTH_BLOCKED) == 0) {
+		} if ((tile.getTraversalMask() & CollisionFlag.NORTH_BLOCKED) == 0) {
 			tileNear = player.getWorld().getTile(xPos, yPos - 1);
-			if (tileNear != null && (tileNear.traversalMask & CollisionFlag.FULL_BLOCK) == 0
+			if (tileNear != null && (tileNear.getTraversalMask() & CollisionFlag.FULL_BLOCK) == 0
 				&& player.getViewArea().getGameObject(new Point(xPos, yPos - 1)) == null) {
 				player.walk(player.getX(), player.getY() - 1);
 				return;
 			}
-		} if ((tile.traversalMask & CollisionFlag.SOUTH_BLOCKED) == 0) {
+		} if ((tile.getTraversalMask() & CollisionFlag.SOUTH_BLOCKED) == 0) {
 			tileNear = player.getWorld().getTile(xPos, yPos + 1);
-			if (tileNear != null && (tileNear.traversalMask & CollisionFlag.FULL_BLOCK) == 0
+			if (tileNear != null && (tileNear.getTraversalMask() & CollisionFlag.FULL_BLOCK) == 0
 				&& player.getViewArea().getGameObject(new Point(xPos, yPos + 1)) == null) {
 				player.walk(player.getX(), player.getY() + 1);
 				return;
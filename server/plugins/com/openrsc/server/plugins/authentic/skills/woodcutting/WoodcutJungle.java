@@ -5,18 +5,20 @@ import com.openrsc.server.constants.Skills;
 import com.openrsc.server.model.container.Item;
 import com.openrsc.server.model.entity.GameObject;
 import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.plugins.TargetedPlugin;
 import com.openrsc.server.plugins.triggers.OpLocTrigger;
 import com.openrsc.server.plugins.triggers.OpBoundTrigger;
 import com.openrsc.server.util.rsc.DataConversions;
 import com.openrsc.server.util.rsc.Formulae;
 import com.openrsc.server.util.rsc.MessageType;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import static com.openrsc.server.plugins.Functions.*;
 
 public class WoodcutJungle implements OpLocTrigger,
-	OpBoundTrigger {
+	OpBoundTrigger, TargetedPlugin {
 
 	private static int[] JUNGLE_TREES = {1086, 1100, 1099, 1092, 1091};
 
@@ -24,6 +26,16 @@ public class WoodcutJungle implements OpLocTrigger,
 
 	private static int JUNGLE_TREE_STUMP = 1087;
 
+	@Override
+	public int[] getTargetIds(Class<?> trigger) {
+		if (trigger == OpBoundTrigger.class) {
+			return new int[] {JUNGLE_VINE};
+		}
+		final int[] ids = Arrays.copyOf(JUNGLE_TREES, JUNGLE_TREES.length + 1);
+		ids[JUNGLE_TREES.length] = JUNGLE_TREE_STUMP;
+		return ids;
+	}
+
 	@Override
 	public boolean blockOpLoc(Player player, GameObject obj, String command) {
 		if (inArray(obj.getID(), JUNGLE_TREES)) {
@@ -0,0 +1,110 @@
+package com.openrsc.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The phases of a server's startup, each run on a ForkJoinPool as soon as the phases it depends on are done.
+ *
+ * Every phase is timed, and {@link #run()} logs a summary of them once they have all finished.
+ */
+final class BootPhases {
+	/**
+	 * The asynchronous logger.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	@FunctionalInterface
+	interface Task {
+		void run() throws Exception;
+	}
+
+	final class Phase {
+		private final String name;
+		private final CompletableFuture<Void> future;
+		private volatile long startedAt;
+		private volatile long finishedAt;
+		private volatile Exception failure;
+
+		private Phase(final String name, final Task task, final Phase[] dependencies) {
+			this.name = name;
+			final CompletableFuture<?>[] waitFor = new CompletableFuture<?>[dependencies.length];
+			for (int i = 0; i < dependencies.length; i++) {
+				waitFor[i] = dependencies[i].future;
+			}
+			this.future = CompletableFuture.allOf(waitFor).thenRunAsync(() -> {
+				startedAt = System.nanoTime();
+				LOGGER.info("Loading " + name + "...");
+				try {
+					task.run();
+				} catch (final Exception e) {
+					failure = e;
+					throw new CompletionException(e);
+				}
+				finishedAt = System.nanoTime();
+				LOGGER.info(name + " Completed");
+			}, pool);
+		}
+	}
+
+	private final String serverName;
+	private final ForkJoinPool pool;
+	private final List<Phase> phases = new ArrayList<>();
+	private final long createdAt = System.nanoTime();
+
+	BootPhases(final String serverName, final ForkJoinPool pool) {
+		this.serverName = serverName;
+		this.pool = pool;
+	}
+
+	/**
+	 * Adds a phase, started once all of its dependencies have finished.
+	 */
+	Phase add(final String name, final Task task, final Phase... dependencies) {
+		final Phase phase = new Phase(name, task, dependencies);
+		phases.add(phase);
+		return phase;
+	}
+
+	/**
+	 * Waits for every phase to finish and logs how long each of them took.
+	 *
+	 * @throws Exception The failure of the first phase that failed, once the phases not depending on it are done
+	 */
+	void run() throws Exception {
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[phases.size()];
+		for (int i = 0; i < phases.size(); i++) {
+			futures[i] = phases.get(i).future;
+		}
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (final CompletionException e) {
+			for (final Phase phase : phases) {
+				if (phase.failure != null) {
+					throw new Exception(phase.name + " failed to load", phase.failure);
+				}
+			}
+			throw e;
+		}
+
+		final StringBuilder summary = new StringBuilder(serverName).append(" boot phases, ")
+			.append(millis(System.nanoTime() - createdAt)).append("ms in total:");
+		for (final Phase phase : phases) {
+			summary.append(System.lineSeparator()).append("\t").append(phase.name).append(": ")
+				.append(millis(phase.finishedAt - phase.startedAt)).append("ms, started at +")
+				.append(millis(phase.startedAt - createdAt)).append("ms");
+		}
+		LOGGER.info(summary.toString());
+	}
+
+	private static long millis(final long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+}
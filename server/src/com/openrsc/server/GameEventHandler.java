@@ -1,7 +1,10 @@
 package com.openrsc.server;
 
 import com.openrsc.server.event.rsc.GameTickEvent;
+import com.openrsc.server.event.rsc.GameTickEventRegistry;
+import com.openrsc.server.event.rsc.GameTickScheduler;
 import com.openrsc.server.event.rsc.ImmediateEvent;
+import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.util.NamedThreadFactory;
 import com.openrsc.server.util.rsc.DataConversions;
@@ -10,6 +13,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -21,8 +25,18 @@ public class GameEventHandler {
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private final ConcurrentHashMap<String, GameTickEvent> events = new ConcurrentHashMap<String, GameTickEvent>();
-	private final ConcurrentHashMap<String, GameTickEvent> eventsToAdd = new ConcurrentHashMap<String, GameTickEvent>();
+	/**
+	 * Registered events. Only modified by the thread processing the tick, other threads must synchronize on it to read.
+	 */
+	private final GameTickEventRegistry events = new GameTickEventRegistry();
+	private final Queue<GameTickEvent> eventsToAdd = new ConcurrentLinkedQueue<GameTickEvent>();
+	private final Queue<GameTickEvent> eventsToRemove = new ConcurrentLinkedQueue<GameTickEvent>();
+
+	private final GameTickScheduler scheduler = new GameTickScheduler();
+	private final List<GameTickEvent> dueEvents = new ArrayList<GameTickEvent>();
+	private final List<GameTickEvent> finishedEvents = new ArrayList<GameTickEvent>();
+	private final HashMap<String, Integer> liveEventsCounts = new HashMap<String, Integer>();
+	private final HashMap<String, Long> tickEventsDurations = new HashMap<String, Long>();
 
 	private final ConcurrentHashMap<String, Integer> eventsCounts = new ConcurrentHashMap<String, Integer>();
 	private final ConcurrentHashMap<String, Long> eventsDurations = new ConcurrentHashMap<String, Long>();
@@ -55,22 +69,21 @@ public class GameEventHandler {
 			LOGGER.catching(e);
 		}
 
-		events.clear();
+		synchronized (events) {
+			for (int i = 0; i < events.size(); i++) {
+				scheduler.unschedule(events.get(i));
+			}
+			events.clear();
+		}
 		eventsToAdd.clear();
+		eventsToRemove.clear();
+		liveEventsCounts.clear();
 		eventsCounts.clear();
 		eventsDurations.clear();
 	}
 
 	public void add(final GameTickEvent event) {
-		final String className = String.valueOf(event.getClass());
-		if (event.isUniqueEvent() || !event.hasOwner()) {
-			final UUID uuid = UUID.randomUUID();
-			eventsToAdd.putIfAbsent(className + uuid, event);
-		} else {
-			eventsToAdd.putIfAbsent(
-				className + event.getOwner().getUUID()
-					+ (event.getOwner().isPlayer() ? "p" : "n"), event);
-		}
+		eventsToAdd.add(event);
 	}
 
 	public void submit(final Runnable r, final String descriptor) {
@@ -87,10 +100,7 @@ public class GameEventHandler {
 	}
 
 	public boolean contains(final GameTickEvent event) {
-		if (event.getOwner() != null) {
-			return events.containsKey(String.valueOf(event.getOwner().getID()));
-		}
-		return false;
+		return events.contains(event);
 	}
 
 	private void processEvents() {
@@ -99,33 +109,82 @@ public class GameEventHandler {
 		executor.setCorePoolSize(maxThreads / 2);
 		executor.setMaximumPoolSize(maxThreads);
 
-		if (eventsToAdd.size() > 0) {
-			events.putAll(eventsToAdd);
-			eventsToAdd.clear();
-		}
+		registerEvents();
+		scheduler.nextTick();
+
+		// Only events whose countdown runs out this tick are handed to the thread pool.
+		dueEvents.clear();
+		finishedEvents.clear();
+		scheduler.collectDueEvents(dueEvents, finishedEvents);
 
 		try {
-			executor.invokeAll(events.values());
+			if (!dueEvents.isEmpty()) {
+				executor.invokeAll(dueEvents);
+			}
 		} catch (Exception e) {
 			LOGGER.catching(e);
 		}
 
+		tickEventsDurations.clear();
+		for (final GameTickEvent event : dueEvents) {
+			tickEventsDurations.merge(event.getDescriptor(), event.getLastEventDuration(), Long::sum);
+
+			if (event.shouldRemove()) {
+				finishedEvents.add(event);
+			} else {
+				scheduler.reschedule(event);
+			}
+		}
+		scheduler.flushCountdownChanges(finishedEvents);
+
+		// Every registered event is still reported, events that did not run this tick took 0ms.
 		eventsCounts.clear();
 		eventsDurations.clear();
+		for (final Map.Entry<String, Integer> entry : liveEventsCounts.entrySet()) {
+			eventsCounts.put(entry.getKey(), entry.getValue());
+			eventsDurations.put(entry.getKey(), tickEventsDurations.getOrDefault(entry.getKey(), 0L));
+		}
 
-		events.entrySet().removeIf((eventBox) -> {
-			GameTickEvent event = eventBox.getValue();
-			eventsCounts.put(event.getDescriptor(),
-				eventsCounts.containsKey(event.getDescriptor()) ?
-					eventsCounts.get(event.getDescriptor()) + 1 :
-					1);
-			eventsDurations.put(event.getDescriptor(),
-				eventsDurations.containsKey(event.getDescriptor()) ?
-					eventsDurations.get(event.getDescriptor()) + event.getLastEventDuration() :
-					event.getLastEventDuration());
-
-			return event.shouldRemove();
-		});
+		for (final GameTickEvent event : finishedEvents) {
+			unregisterEvent(event);
+		}
+	}
+
+	private void registerEvents() {
+		GameTickEvent event;
+		while ((event = eventsToAdd.poll()) != null) {
+			if (event.shouldRemove() || events.contains(event)) {
+				continue;
+			}
+			synchronized (events) {
+				if (!event.isUniqueEvent() && event.hasOwner()) {
+					// An owner can only have one non unique event of each type, the newest one replaces the old one.
+					final GameTickEvent previous = events.getOwnedEvent(event.getOwner(), event.getClass());
+					if (previous != null) {
+						unregisterEvent(previous);
+					}
+				}
+				events.add(event);
+			}
+			liveEventsCounts.merge(event.getDescriptor(), 1, Integer::sum);
+			scheduler.schedule(event);
+		}
+
+		GameTickEvent removed;
+		while ((removed = eventsToRemove.poll()) != null) {
+			unregisterEvent(removed);
+		}
+	}
+
+	private void unregisterEvent(final GameTickEvent event) {
+		final boolean removed;
+		synchronized (events) {
+			removed = events.remove(event);
+		}
+		if (removed) {
+			liveEventsCounts.computeIfPresent(event.getDescriptor(), (descriptor, count) -> count > 1 ? count - 1 : null);
+		}
+		scheduler.unschedule(event);
 	}
 
 	public long runGameEvents() {
@@ -205,6 +264,13 @@ public class GameEventHandler {
 			}
 		}
 
+		if (!forInGame) {
+			s.append("========================").append(newLine);
+			s.append("===  Slow Scripts    ===").append(newLine);
+			s.append("========================").append(newLine);
+			s.append(getServer().getPluginHandler().getProfiler().buildSlowScripts(10, newLine));
+		}
+
 		// Running GC before grabbing memory usage in order to get the actual used and referenced memory amount.
 		System.gc();
 		final String totalMemory = DataConversions.formatBytes(Runtime.getRuntime().totalMemory());
@@ -227,25 +293,49 @@ public class GameEventHandler {
 		return returnString.substring(0, Math.min(returnString.length(), 1999)); // Limit to 2000 characters for Discord.
 	}
 
-	public HashMap<String, GameTickEvent> getEvents() {
-		return new LinkedHashMap<>(events);
+	public List<GameTickEvent> getEvents() {
+		synchronized (events) {
+			final List<GameTickEvent> snapshot = new ArrayList<GameTickEvent>(events.size());
+			for (int i = 0; i < events.size(); i++) {
+				snapshot.add(events.get(i));
+			}
+			return snapshot;
+		}
 	}
 
-	public void remove(GameTickEvent event) {
-		events.remove(event);
+	public List<GameTickEvent> getOwnedEvents(final Mob owner) {
+		synchronized (events) {
+			return new ArrayList<GameTickEvent>(events.getOwnedEvents(owner));
+		}
 	}
 
-	public void removePlayersEvents(Player player) {
-		try {
-			Iterator<Map.Entry<String, GameTickEvent>> iterator = events.entrySet().iterator();
-			while (iterator.hasNext()) {
-				GameTickEvent event = iterator.next().getValue();
-				if (event.belongsTo(player)) {
-					iterator.remove();
+	/**
+	 * @return True if an event registered or waiting to be registered is an instance of a class defined by the loader
+	 */
+	public boolean hasEventsLoadedBy(final ClassLoader classLoader) {
+		for (final GameTickEvent event : eventsToAdd) {
+			if (event.getClass().getClassLoader() == classLoader) {
+				return true;
+			}
+		}
+		synchronized (events) {
+			for (int i = 0; i < events.size(); i++) {
+				if (events.get(i).getClass().getClassLoader() == classLoader) {
+					return true;
 				}
 			}
-		} catch (Exception e) {
-			LOGGER.catching(e);
+		}
+		return false;
+	}
+
+	public void remove(GameTickEvent event) {
+		// Removal is applied at the start of the next tick so the scheduler is only ever touched by the game thread.
+		eventsToRemove.add(event);
+	}
+
+	public void removePlayersEvents(Player player) {
+		synchronized (events) {
+			eventsToRemove.addAll(events.getOwnedEvents(player));
 		}
 	}
 
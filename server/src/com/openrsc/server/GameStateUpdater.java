@@ -3,6 +3,7 @@ package com.openrsc.server;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.database.impl.mysql.queries.logging.PMLog;
 import com.openrsc.server.model.GlobalMessage;
+import com.openrsc.server.model.PathfindingService;
 import com.openrsc.server.model.PlayerAppearance;
 import com.openrsc.server.model.Point;
 import com.openrsc.server.model.PrivateMessage;
@@ -13,16 +14,18 @@ import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.entity.player.PlayerSettings;
 import com.openrsc.server.model.entity.update.*;
+import com.openrsc.server.model.world.region.Region;
 import com.openrsc.server.net.PacketBuilder;
 import com.openrsc.server.net.rsc.ActionSender;
 import com.openrsc.server.util.rsc.DataConversions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayDeque;
-import java.util.Iterator;
-import java.util.Queue;
+import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 public final class GameStateUpdater {
 	/**
@@ -38,6 +41,30 @@ public final class GameStateUpdater {
 	private long lastDoCleanupDuration = 0;
 	private long lastExecuteWalkToActionsDuration = 0;
 
+	/**
+	 * Builds the client update packets when want_parallel_client_updates is enabled, null otherwise.
+	 */
+	private ForkJoinPool clientUpdatePool;
+
+	/**
+	 * Finds npc paths off the game thread when want_async_npc_pathfinding is enabled, null otherwise.
+	 */
+	private PathfindingService pathfindingService;
+
+	/**
+	 * Counts the calls to updateClients, encoded appearance entries are only reused within the same cycle.
+	 */
+	private long updateCycle = 0;
+
+	/**
+	 * Per thread buffers the entities in view are collected into while building a player's update packets.
+	 * Both the update thread and the client update pool workers reuse them for every player they update.
+	 */
+	private static final ThreadLocal<ArrayList<Npc>> NPCS_IN_VIEW = ThreadLocal.withInitial(ArrayList::new);
+	private static final ThreadLocal<ArrayList<Player>> PLAYERS_IN_VIEW = ThreadLocal.withInitial(ArrayList::new);
+	private static final ThreadLocal<ArrayList<GameObject>> OBJECTS_IN_VIEW = ThreadLocal.withInitial(ArrayList::new);
+	private static final ThreadLocal<ArrayList<GroundItem>> ITEMS_IN_VIEW = ThreadLocal.withInitial(ArrayList::new);
+
 	private final Server server;
 	public final Server getServer() {
 		return server;
@@ -48,10 +75,31 @@ public final class GameStateUpdater {
 	}
 
 	public void load() {
-
+		if (getServer().getConfig().WANT_PARALLEL_CLIENT_UPDATES) {
+			clientUpdatePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		}
+		if (getServer().getConfig().WANT_ASYNC_NPC_PATHFINDING) {
+			pathfindingService = new PathfindingService(getServer().getWorld());
+		}
 	}
 
 	public void unload() {
+		if (clientUpdatePool != null) {
+			clientUpdatePool.shutdown();
+			try {
+				if (!clientUpdatePool.awaitTermination(1, TimeUnit.MINUTES)) {
+					LOGGER.error("GameStateUpdater client update pool termination failed");
+				}
+			} catch (final InterruptedException e) {
+				LOGGER.catching(e);
+			}
+			clientUpdatePool = null;
+		}
+		if (pathfindingService != null) {
+			pathfindingService.shutdown();
+			pathfindingService = null;
+		}
+
 		lastWorldUpdateDuration = 0;
 		lastProcessPlayersDuration = 0;
 		lastProcessNpcsDuration = 0;
@@ -65,14 +113,7 @@ public final class GameStateUpdater {
 	public void sendUpdatePackets(final Player player) {
 		// TODO: Should be private
 		try {
-			updatePlayers(player);
-			updatePlayerAppearances(player);
-			updateNpcs(player);
-			updateNpcAppearances(player);
-			updateGameObjects(player);
-			updateWallObjects(player);
-			updateGroundItems(player);
-			sendClearLocations(player);
+			sendViewUpdatePackets(player);
 			updateTimeouts(player);
 		} catch (final Exception e) {
 			LOGGER.catching(e);
@@ -80,6 +121,21 @@ public final class GameStateUpdater {
 		}
 	}
 
+	/**
+	 * Sends everything the player can see. Only reads world state and writes to the player's own local lists and
+	 * outgoing packets, which is what allows updateClients to run it for several players at once.
+	 */
+	private void sendViewUpdatePackets(final Player player) {
+		updatePlayers(player);
+		updatePlayerAppearances(player);
+		updateNpcs(player);
+		updateNpcAppearances(player);
+		updateGameObjects(player);
+		updateWallObjects(player);
+		updateGroundItems(player);
+		sendClearLocations(player);
+	}
+
 	/**
 	 * Checks if the player has moved within the last X minutes
 	 */
@@ -145,22 +201,27 @@ public final class GameStateUpdater {
 				}
 			}
 		}
-		for (final Npc newNPC : playerToUpdate.getViewArea().getNpcsInView()) {
-			if (playerToUpdate.getLocalNpcs().contains(newNPC) || newNPC.equals(playerToUpdate) || newNPC.isRemoved() || newNPC.isRespawning()
-				|| newNPC.getID() == NpcId.NED_BOAT.id() && !playerToUpdate.getCache().hasKey("ned_hired")
-				|| !playerToUpdate.withinRange(newNPC, (getServer().getConfig().VIEW_DISTANCE * 8) - 1) || (newNPC.isTeleporting() && !newNPC.inCombat())) {
-				continue;
-			} else if (playerToUpdate.getLocalNpcs().size() >= 255) {
-				break;
+		final ArrayList<Npc> npcsInView = playerToUpdate.getViewArea().getNpcsInView(NPCS_IN_VIEW.get());
+		try {
+			for (final Npc newNPC : npcsInView) {
+				if (playerToUpdate.getLocalNpcs().contains(newNPC) || newNPC.equals(playerToUpdate) || newNPC.isRemoved() || newNPC.isRespawning()
+					|| newNPC.getID() == NpcId.NED_BOAT.id() && !playerToUpdate.getCache().hasKey("ned_hired")
+					|| !playerToUpdate.withinRange(newNPC, (getServer().getConfig().VIEW_DISTANCE * 8) - 1) || (newNPC.isTeleporting() && !newNPC.inCombat())) {
+					continue;
+				} else if (playerToUpdate.getLocalNpcs().size() >= 255) {
+					break;
+				}
+				final byte[] offsets = DataConversions.getMobPositionOffsets(newNPC.getLocation(), playerToUpdate.getLocation());
+				packet.writeBits(newNPC.getIndex(), 12);
+				packet.writeBits(offsets[0], 6);
+				packet.writeBits(offsets[1], 6);
+				packet.writeBits(newNPC.getSprite(), 4);
+				packet.writeBits(newNPC.getID(), 10);
+
+				playerToUpdate.getLocalNpcs().add(newNPC);
 			}
-			final byte[] offsets = DataConversions.getMobPositionOffsets(newNPC.getLocation(), playerToUpdate.getLocation());
-			packet.writeBits(newNPC.getIndex(), 12);
-			packet.writeBits(offsets[0], 6);
-			packet.writeBits(offsets[1], 6);
-			packet.writeBits(newNPC.getSprite(), 4);
-			packet.writeBits(newNPC.getID(), 10);
-
-			playerToUpdate.getLocalNpcs().add(newNPC);
+		} finally {
+			npcsInView.clear();
 		}
 		packet.finishBitAccess();
 		playerToUpdate.write(packet.toPacket());
@@ -205,23 +266,28 @@ public final class GameStateUpdater {
 				}
 			}
 
-			for (final Player otherPlayer : playerToUpdate.getViewArea().getPlayersInView()) {
-				if (playerToUpdate.getLocalPlayers().contains(otherPlayer) || otherPlayer.equals(playerToUpdate)
-					|| !otherPlayer.withinRange(playerToUpdate) || !otherPlayer.loggedIn()
-					|| otherPlayer.isRemoved() || otherPlayer.isInvisibleTo(playerToUpdate)
-					|| (otherPlayer.isTeleporting() && !otherPlayer.inCombat())) {
-					continue;
-				}
-				final byte[] offsets = DataConversions.getMobPositionOffsets(otherPlayer.getLocation(),
-					playerToUpdate.getLocation());
-				positionBuilder.writeBits(otherPlayer.getIndex(), 11);
-				positionBuilder.writeBits(offsets[0], 6);
-				positionBuilder.writeBits(offsets[1], 6);
-				positionBuilder.writeBits(otherPlayer.getSprite(), 4);
-				playerToUpdate.getLocalPlayers().add(otherPlayer);
-				if (playerToUpdate.getLocalPlayers().size() >= 255) {
-					break;
+			final ArrayList<Player> playersInView = playerToUpdate.getViewArea().getPlayersInView(PLAYERS_IN_VIEW.get());
+			try {
+				for (final Player otherPlayer : playersInView) {
+					if (playerToUpdate.getLocalPlayers().contains(otherPlayer) || otherPlayer.equals(playerToUpdate)
+						|| !otherPlayer.withinRange(playerToUpdate) || !otherPlayer.loggedIn()
+						|| otherPlayer.isRemoved() || otherPlayer.isInvisibleTo(playerToUpdate)
+						|| (otherPlayer.isTeleporting() && !otherPlayer.inCombat())) {
+						continue;
+					}
+					final byte[] offsets = DataConversions.getMobPositionOffsets(otherPlayer.getLocation(),
+						playerToUpdate.getLocation());
+					positionBuilder.writeBits(otherPlayer.getIndex(), 11);
+					positionBuilder.writeBits(offsets[0], 6);
+					positionBuilder.writeBits(offsets[1], 6);
+					positionBuilder.writeBits(otherPlayer.getSprite(), 4);
+					playerToUpdate.getLocalPlayers().add(otherPlayer);
+					if (playerToUpdate.getLocalPlayers().size() >= 255) {
+						break;
+					}
 				}
+			} finally {
+				playersInView.clear();
 			}
 		}
 		positionBuilder.finishBitAccess();
@@ -469,36 +535,7 @@ public final class GameStateUpdater {
 				}
 				Player playerNeedingAppearanceUpdate;
 				while ((playerNeedingAppearanceUpdate = playersNeedingAppearanceUpdate.poll()) != null) {
-					PlayerAppearance appearance = playerNeedingAppearanceUpdate.getSettings().getAppearance();
-
-					appearancePacket.writeShort((short) playerNeedingAppearanceUpdate.getIndex());
-					appearancePacket.writeByte((byte) 5);
-					//appearancePacket.writeShort(0);
-					appearancePacket.writeString(playerNeedingAppearanceUpdate.getUsername());
-					//appearancePacket.writeString(playerNeedingAppearanceUpdate.getUsername());
-
-					appearancePacket.writeByte((byte) playerNeedingAppearanceUpdate.getWornItems().length);
-					for (int i : playerNeedingAppearanceUpdate.getWornItems()) {
-						appearancePacket.writeShort(i);
-					}
-					appearancePacket.writeByte(appearance.getHairColour());
-					appearancePacket.writeByte(appearance.getTopColour());
-					appearancePacket.writeByte(appearance.getTrouserColour());
-					appearancePacket.writeByte(appearance.getSkinColour());
-					appearancePacket.writeByte((byte) playerNeedingAppearanceUpdate.getCombatLevel());
-					appearancePacket.writeByte((byte) (playerNeedingAppearanceUpdate.getSkullType()));
-
-					if (playerNeedingAppearanceUpdate.getClan() != null) {
-						appearancePacket.writeByte(1);
-						appearancePacket.writeString(playerNeedingAppearanceUpdate.getClan().getClanTag());
-					} else {
-						appearancePacket.writeByte(0);
-					}
-
-					appearancePacket.writeByte(playerNeedingAppearanceUpdate.stateIsInvisible() ? 1 : 0);
-					appearancePacket.writeByte(playerNeedingAppearanceUpdate.stateIsInvulnerable() ? 1 : 0);
-					appearancePacket.writeByte(playerNeedingAppearanceUpdate.getGroupID());
-					appearancePacket.writeInt(playerNeedingAppearanceUpdate.getIcon());
+					appearancePacket.write(getAppearanceBlock(playerNeedingAppearanceUpdate));
 				}
 				HpUpdate playerNeedingHpUpdate;
 				while ((playerNeedingHpUpdate = playersNeedingHpUpdate.poll()) != null) {
@@ -513,6 +550,53 @@ public final class GameStateUpdater {
 		}
 	}
 
+	/**
+	 * The appearance entry of a player is the same for every viewer, so it is only encoded once per update cycle
+	 * and then copied into each viewer's appearance packet.
+	 */
+	private byte[] getAppearanceBlock(final Player player) {
+		final byte[] cached = player.getEncodedAppearance(updateCycle);
+		if (cached != null) {
+			return cached;
+		}
+
+		final PacketBuilder block = new PacketBuilder();
+		final PlayerAppearance appearance = player.getSettings().getAppearance();
+
+		block.writeShort((short) player.getIndex());
+		block.writeByte((byte) 5);
+		//block.writeShort(0);
+		block.writeString(player.getUsername());
+		//block.writeString(player.getUsername());
+
+		block.writeByte((byte) player.getWornItems().length);
+		for (int i : player.getWornItems()) {
+			block.writeShort(i);
+		}
+		block.writeByte(appearance.getHairColour());
+		block.writeByte(appearance.getTopColour());
+		block.writeByte(appearance.getTrouserColour());
+		block.writeByte(appearance.getSkinColour());
+		block.writeByte((byte) player.getCombatLevel());
+		block.writeByte((byte) (player.getSkullType()));
+
+		if (player.getClan() != null) {
+			block.writeByte(1);
+			block.writeString(player.getClan().getClanTag());
+		} else {
+			block.writeByte(0);
+		}
+
+		block.writeByte(player.stateIsInvisible() ? 1 : 0);
+		block.writeByte(player.stateIsInvulnerable() ? 1 : 0);
+		block.writeByte(player.getGroupID());
+		block.writeInt(player.getIcon());
+
+		final byte[] encoded = block.toPacket().readRemainingData();
+		player.setEncodedAppearance(encoded, updateCycle);
+		return encoded;
+	}
+
 	protected void updateGameObjects(final Player playerToUpdate) {
 		boolean changed = false;
 		final PacketBuilder packet = new PacketBuilder();
@@ -542,20 +626,25 @@ public final class GameStateUpdater {
 			}
 		}
 
-		for (final GameObject newObject : playerToUpdate.getViewArea().getGameObjectsInView()) {
-			if (!playerToUpdate.withinGridRange(newObject) || newObject.isRemoved()
-				|| newObject.isInvisibleTo(playerToUpdate) || newObject.getType() != 0
-				|| playerToUpdate.getLocalGameObjects().contains(newObject)) {
-				continue;
+		final ArrayList<GameObject> objectsInView = playerToUpdate.getViewArea().getGameObjectsInView(OBJECTS_IN_VIEW.get());
+		try {
+			for (final GameObject newObject : objectsInView) {
+				if (!playerToUpdate.withinGridRange(newObject) || newObject.isRemoved()
+					|| newObject.isInvisibleTo(playerToUpdate) || newObject.getType() != 0
+					|| playerToUpdate.getLocalGameObjects().contains(newObject)) {
+					continue;
+				}
+				packet.writeShort(newObject.getID());
+				final int offsetX = newObject.getX() - playerToUpdate.getX();
+				final int offsetY = newObject.getY() - playerToUpdate.getY();
+				packet.writeByte(offsetX);
+				packet.writeByte(offsetY);
+				packet.writeByte(newObject.getDirection());
+				playerToUpdate.getLocalGameObjects().add(newObject);
+				changed = true;
 			}
-			packet.writeShort(newObject.getID());
-			final int offsetX = newObject.getX() - playerToUpdate.getX();
-			final int offsetY = newObject.getY() - playerToUpdate.getY();
-			packet.writeByte(offsetX);
-			packet.writeByte(offsetY);
-			packet.writeByte(newObject.getDirection());
-			playerToUpdate.getLocalGameObjects().add(newObject);
-			changed = true;
+		} finally {
+			objectsInView.clear();
 		}
 		if (changed)
 			playerToUpdate.write(packet.toPacket());
@@ -594,22 +683,27 @@ public final class GameStateUpdater {
 			}
 		}
 
-		for (final GroundItem groundItem : playerToUpdate.getViewArea().getItemsInView()) {
-			if (!playerToUpdate.withinGridRange(groundItem) || groundItem.isRemoved()
-				|| groundItem.isInvisibleTo(playerToUpdate)
-				|| playerToUpdate.getLocalGroundItems().contains(groundItem)) {
-				continue;
-			}
-			packet.writeShort(groundItem.getID());
-			final int offsetX = groundItem.getX() - playerToUpdate.getX();
-			final int offsetY = groundItem.getY() - playerToUpdate.getY();
-			packet.writeByte(offsetX);
-			packet.writeByte(offsetY);
-			if (getServer().getConfig().WANT_BANK_NOTES) {
-				packet.writeByte(groundItem.getNoted() ? 1 : 0);
+		final ArrayList<GroundItem> itemsInView = playerToUpdate.getViewArea().getItemsInView(ITEMS_IN_VIEW.get());
+		try {
+			for (final GroundItem groundItem : itemsInView) {
+				if (!playerToUpdate.withinGridRange(groundItem) || groundItem.isRemoved()
+					|| groundItem.isInvisibleTo(playerToUpdate)
+					|| playerToUpdate.getLocalGroundItems().contains(groundItem)) {
+					continue;
+				}
+				packet.writeShort(groundItem.getID());
+				final int offsetX = groundItem.getX() - playerToUpdate.getX();
+				final int offsetY = groundItem.getY() - playerToUpdate.getY();
+				packet.writeByte(offsetX);
+				packet.writeByte(offsetY);
+				if (getServer().getConfig().WANT_BANK_NOTES) {
+					packet.writeByte(groundItem.getNoted() ? 1 : 0);
+				}
+				playerToUpdate.getLocalGroundItems().add(groundItem);
+				changed = true;
 			}
-			playerToUpdate.getLocalGroundItems().add(groundItem);
-			changed = true;
+		} finally {
+			itemsInView.clear();
 		}
 		if (changed) {
 			playerToUpdate.write(packet.toPacket());
@@ -640,21 +734,26 @@ public final class GameStateUpdater {
 				}
 			}
 		}
-		for (final GameObject newObject : playerToUpdate.getViewArea().getGameObjectsInView()) {
-			if (!playerToUpdate.withinGridRange(newObject) || newObject.isRemoved()
-				|| newObject.isInvisibleTo(playerToUpdate) || newObject.getType() != 1
-				|| playerToUpdate.getLocalWallObjects().contains(newObject)) {
-				continue;
-			}
+		final ArrayList<GameObject> objectsInView = playerToUpdate.getViewArea().getGameObjectsInView(OBJECTS_IN_VIEW.get());
+		try {
+			for (final GameObject newObject : objectsInView) {
+				if (!playerToUpdate.withinGridRange(newObject) || newObject.isRemoved()
+					|| newObject.isInvisibleTo(playerToUpdate) || newObject.getType() != 1
+					|| playerToUpdate.getLocalWallObjects().contains(newObject)) {
+					continue;
+				}
 
-			final int offsetX = newObject.getX() - playerToUpdate.getX();
-			final int offsetY = newObject.getY() - playerToUpdate.getY();
-			packet.writeShort(newObject.getID());
-			packet.writeByte(offsetX);
-			packet.writeByte(offsetY);
-			packet.writeByte(newObject.getDirection());
-			playerToUpdate.getLocalWallObjects().add(newObject);
-			changed = true;
+				final int offsetX = newObject.getX() - playerToUpdate.getX();
+				final int offsetY = newObject.getY() - playerToUpdate.getY();
+				packet.writeShort(newObject.getID());
+				packet.writeByte(offsetX);
+				packet.writeByte(offsetY);
+				packet.writeByte(newObject.getDirection());
+				playerToUpdate.getLocalWallObjects().add(newObject);
+				changed = true;
+			}
+		} finally {
+			objectsInView.clear();
 		}
 		if (changed) {
 			playerToUpdate.write(packet.toPacket());
@@ -698,14 +797,62 @@ public final class GameStateUpdater {
 
 	protected final long updateClients() {
 		final long updateClientsStart	= System.currentTimeMillis();
-		for (final Player player : getServer().getWorld().getPlayers()) {
-			sendUpdatePackets(player);
-			player.process();
+		updateCycle++;
+		if (clientUpdatePool != null) {
+			updateClientsParallel();
+		} else {
+			for (final Player player : getServer().getWorld().getPlayers()) {
+				sendUpdatePackets(player);
+				player.process();
+			}
 		}
 		final long updateClientsEnd		= System.currentTimeMillis();
 		return updateClientsEnd - updateClientsStart;
 	}
 
+	/**
+	 * Builds the view update packets of players in different regions concurrently. Players in the same region share
+	 * the same surrounding regions so they are kept on the same task. Timeouts and saving still happen on the game
+	 * thread afterwards, in the same player order as the serial path.
+	 */
+	private void updateClientsParallel() {
+		final Map<Region, List<Player>> playersByRegion = new HashMap<>();
+		for (final Player player : getServer().getWorld().getPlayers()) {
+			playersByRegion.computeIfAbsent(player.getRegion(), region -> new ArrayList<>()).add(player);
+		}
+
+		final List<Callable<Void>> tasks = new ArrayList<>(playersByRegion.size());
+		for (final List<Player> regionPlayers : playersByRegion.values()) {
+			tasks.add(() -> {
+				for (final Player player : regionPlayers) {
+					try {
+						sendViewUpdatePackets(player);
+					} catch (final Exception e) {
+						LOGGER.catching(e);
+						player.unregister(true, "Exception while updating player " + player.getUsername());
+					}
+				}
+				return null;
+			});
+		}
+
+		try {
+			clientUpdatePool.invokeAll(tasks);
+		} catch (final Exception e) {
+			LOGGER.catching(e);
+		}
+
+		for (final Player player : getServer().getWorld().getPlayers()) {
+			try {
+				updateTimeouts(player);
+			} catch (final Exception e) {
+				LOGGER.catching(e);
+				player.unregister(true, "Exception while updating player " + player.getUsername());
+			}
+			player.process();
+		}
+	}
+
 	protected final long doCleanup() {// it can do the teleport at this time.
 		final long doCleanupStart	= System.currentTimeMillis();
 
@@ -751,6 +898,9 @@ public final class GameStateUpdater {
 
 	protected final long processNpcs() {
 		final long processNpcsStart	= System.currentTimeMillis();
+		if (pathfindingService != null) {
+			pathfindingService.applyPaths();
+		}
 		for (final Npc n : getServer().getWorld().getNpcs()) {
 			try {
 				if (n.isUnregistering()) {
@@ -767,6 +917,9 @@ public final class GameStateUpdater {
 				LOGGER.catching(e);
 			}
 		}
+		if (pathfindingService != null) {
+			pathfindingService.submit();
+		}
 		final long processNpcsEnd = System.currentTimeMillis();
 		return processNpcsEnd - processNpcsStart;
 	}
@@ -841,6 +994,13 @@ public final class GameStateUpdater {
 		return processPlayersEnd - processPlayersStart;
 	}
 
+	/**
+	 * @return The service finding npc paths off the game thread, or null if want_async_npc_pathfinding is disabled
+	 */
+	public PathfindingService getPathfindingService() {
+		return pathfindingService;
+	}
+
 	public long getLastWorldUpdateDuration() {
 		return lastWorldUpdateDuration;
 	}
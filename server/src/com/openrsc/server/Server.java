@@ -10,6 +10,7 @@ import com.openrsc.server.event.rsc.GameTickEvent;
 import com.openrsc.server.event.rsc.SingleTickEvent;
 import com.openrsc.server.event.rsc.impl.combat.scripts.CombatScriptLoader;
 import com.openrsc.server.external.EntityHandler;
+import com.openrsc.server.model.PathfindingService;
 import com.openrsc.server.model.Point;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
@@ -20,9 +21,11 @@ import com.openrsc.server.net.*;
 import com.openrsc.server.net.rsc.ActionSender;
 import com.openrsc.server.plugins.PluginHandler;
 import com.openrsc.server.util.NamedThreadFactory;
+import com.openrsc.server.util.SharedGameData;
 import com.openrsc.server.util.rsc.CollisionFlag;
 import com.openrsc.server.util.rsc.MessageType;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
@@ -34,10 +37,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -75,6 +81,16 @@ public class Server implements Runnable {
 	private EventLoopGroup workerGroup;
 	private EventLoopGroup bossGroup;
 
+	/**
+	 * Serializes the ticks of every server in the process, as they share static state such as SharedGameData and the
+	 * plugins. The tick used to lock the boxed running flag, which every running server shares for the same reason.
+	 */
+	private static final Object TICK_LOCK = new Object();
+
+	/**
+	 * Guards start() and stop() of this server, so the worlds of one process can boot concurrently.
+	 */
+	private final Object lifecycleLock = new Object();
 	private volatile Boolean running = false;
 	private boolean restarting = false;
 	private boolean shuttingDown = false;
@@ -89,7 +105,7 @@ public class Server implements Runnable {
 	private long lastTickTimestamp = 0;
 	private final HashMap<Integer, Long> incomingTimePerPacketOpcode = new HashMap<>();
 	private final HashMap<Integer, Integer> incomingCountPerPacketOpcode = new HashMap<>();
-	private final HashMap<Integer, Long> outgoingTimePerPacketOpcode = new HashMap<>();
+	private final HashMap<Integer, Long> outgoingTimePerPacketOpcode = new HashMap<>(); // Nanoseconds
 	private final HashMap<Integer, Integer> outgoingCountPerPacketOpcode = new HashMap<>();
 
 	private volatile int maxItemId;
@@ -115,16 +131,19 @@ public class Server implements Runnable {
 	}
 
 	public static final Server startServer(final String confName) throws IOException {
-		final long startTime = System.currentTimeMillis();
 		final Server server = new Server(confName);
+		bootServer(server);
+		return server;
+	}
+
+	private static void bootServer(final Server server) {
+		final long startTime = System.currentTimeMillis();
 		if (!server.isRunning()) {
 			server.start();
 		}
 		final long endTime = System.currentTimeMillis();
 		final long bootTime = endTime - startTime;
 		LOGGER.info(server.getName() + " started in " + bootTime + "ms");
-
-		return server;
 	}
 
 	public static boolean closeProcess(final int seconds, final String message) {
@@ -159,13 +178,34 @@ public class Server implements Runnable {
 				LOGGER.catching(t);
 			}
 		} else {
+			// Configurations are read one at a time, then the worlds boot concurrently.
+			final List<Server> servers = new ArrayList<>();
 			for (int i = 0; i < args.length; i++) {
 				try {
-					startServer(args[i]);
+					servers.add(new Server(args[i]));
 				} catch (final Throwable t) {
 					LOGGER.catching(t);
 				}
 			}
+			final List<Thread> bootThreads = new ArrayList<>();
+			for (final Server server : servers) {
+				final Thread bootThread = new Thread(() -> {
+					try {
+						bootServer(server);
+					} catch (final Throwable t) {
+						LOGGER.catching(t);
+					}
+				}, server.getName() + " : BootThread");
+				bootThread.start();
+				bootThreads.add(bootThread);
+			}
+			for (final Thread bootThread : bootThreads) {
+				try {
+					bootThread.join();
+				} catch (final InterruptedException e) {
+					LOGGER.catching(e);
+				}
+			}
 		}
 
 		while (serversList.size() > 0) {
@@ -232,15 +272,12 @@ public class Server implements Runnable {
 	}
 
 	public void start() {
-		synchronized (running) {
+		synchronized (lifecycleLock) {
 			try {
 				if (isRunning()) {
 					return;
 				}
 
-				scheduledExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat(getName() + " : GameThread").build());
-				scheduledExecutor.scheduleAtFixedRate(this, 0, 10, TimeUnit.MILLISECONDS);
-
 				// Do not allow two servers to be started with the same name
 				// We will bypass that if we are restarting because we never removed this server from the list.
 				if (!isRestarting() && serversList.get(this.getName()) != null) {
@@ -256,64 +293,41 @@ public class Server implements Runnable {
 					frame.setVisible(true);
 				}*/
 
-				LOGGER.info("Connecting to Database...");
+				// Independent phases load in parallel, see the dependencies of each phase.
+				final ForkJoinPool bootPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+					ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
 				try {
-					getDatabase().open();
-				} catch (final Exception ex) {
-					LOGGER.catching(ex);
-					System.exit(1);
-				}
-				LOGGER.info("Database Connection Completed");
-
-				LOGGER.info("Loading Game Definitions...");
-				getEntityHandler().load();
-				LOGGER.info("Definitions Completed");
-
-				LOGGER.info("Loading Game State Updater...");
-				getGameUpdater().load();
-				LOGGER.info("Game State Updater Completed");
-
-				LOGGER.info("Loading Game Event Handler...");
-				getGameEventHandler().load();
-				LOGGER.info("Game Event Handler Completed");
-
-				LOGGER.info("Loading Plugins...");
-				getPluginHandler().load();
-				LOGGER.info("Plugins Completed");
-
-				LOGGER.info("Loading Combat Scripts...");
-				getCombatScriptLoader().load();
-				LOGGER.info("Combat Scripts Completed");
-
-				LOGGER.info("Loading World...");
-				getWorld().load();
-				LOGGER.info("World Completed");
-
-				/*LOGGER.info("Loading Achievements...");
-				getAchievementSystem().load();
-				LOGGER.info("Achievements Completed");*/
-
-				LOGGER.info("Loading LoginExecutor...");
-				getLoginExecutor().start();
-				LOGGER.info("LoginExecutor Completed");
-
-				if (getDiscordService() != null) {
-					LOGGER.info("Loading DiscordService...");
-					getDiscordService().start();
-					LOGGER.info("DiscordService Completed");
+					final BootPhases boot = new BootPhases(getName(), bootPool);
+					final BootPhases.Phase database = boot.add("Database", () -> getDatabase().open());
+					final BootPhases.Phase definitions = boot.add("Game Definitions", () -> getEntityHandler().loadDefinitions());
+					final BootPhases.Phase extras = boot.add("Game Definition Extras", () -> getEntityHandler().loadExtras());
+					final BootPhases.Phase gameUpdater = boot.add("Game State Updater", () -> getGameUpdater().load());
+					final BootPhases.Phase eventHandler = boot.add("Game Event Handler", () -> getGameEventHandler().load());
+					final BootPhases.Phase plugins = boot.add("Plugins", () -> getPluginHandler().load(), definitions, extras, eventHandler);
+					final BootPhases.Phase combatScripts = boot.add("Combat Scripts", () -> getCombatScriptLoader().load());
+					final BootPhases.Phase landscape = boot.add("Landscape", () -> getWorld().loadLandscape(), extras);
+					final BootPhases.Phase world = boot.add("World", () -> getWorld().load(),
+						database, definitions, landscape, gameUpdater, plugins, combatScripts);
+					boot.add("Reachability", () -> {
+						final int areas = getWorld().getCollisionMap().computeReachability();
+						LOGGER.info("Found " + areas + " connected areas");
+					}, world);
+					boot.add("LoginExecutor", () -> getLoginExecutor().start(), world);
+					if (getDiscordService() != null) {
+						boot.add("DiscordService", () -> getDiscordService().start(), world);
+					}
+					// Kept after the world so the database is not shared with the clans and market while they load.
+					final BootPhases.Phase gameLogger = boot.add("GameLogger", () -> getGameLogger().start(), world);
+					boot.add("Packet Filter", () -> getPacketFilter().load());
+					boot.add("Max Item ID", () -> {
+						maxItemId = getDatabase().getMaxItemID();
+						LOGGER.info("Set max item ID to : " + maxItemId);
+					}, gameLogger);
+					boot.run();
+				} finally {
+					bootPool.shutdown();
 				}
 
-				LOGGER.info("Loading GameLogger...");
-				getGameLogger().start();
-				LOGGER.info("GameLogger Completed");
-
-				LOGGER.info("Loading Packet Filter...");
-				getPacketFilter().load();
-				LOGGER.info("Packet Filter Completed");
-
-				maxItemId = getDatabase().getMaxItemID();
-				LOGGER.info("Set max item ID to : " + maxItemId);
-
 				bossGroup = new NioEventLoopGroup(0, new NamedThreadFactory(getName() + " : IOBossThread"));
 				workerGroup = new NioEventLoopGroup(0, new NamedThreadFactory(getName() + " : IOWorkerThread"));
 				final ServerBootstrap bootstrap = new ServerBootstrap();
@@ -335,6 +349,7 @@ public class Server implements Runnable {
 				bootstrap.childOption(ChannelOption.SO_KEEPALIVE, false);
 				bootstrap.childOption(ChannelOption.SO_RCVBUF, 10000);
 				bootstrap.childOption(ChannelOption.SO_SNDBUF, 10000);
+				bootstrap.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
 				try {
 					getPluginHandler().handlePlugin(getWorld(), "Startup", new Object[]{});
 					serverChannel = bootstrap.bind(new InetSocketAddress(getConfig().SERVER_PORT)).sync();
@@ -350,6 +365,10 @@ public class Server implements Runnable {
 
 				lastTickTimestamp = serverStartedTime = System.currentTimeMillis();
 				running = true;
+
+				// The tick is only scheduled once the world is booted, start() no longer holds the lock the tick takes.
+				scheduledExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat(getName() + " : GameThread").build());
+				scheduledExecutor.scheduleAtFixedRate(this, 0, 10, TimeUnit.MILLISECONDS);
 			} catch (final Throwable t) {
 				LOGGER.catching(t);
 				System.exit(1);
@@ -358,7 +377,7 @@ public class Server implements Runnable {
 	}
 
 	public void stop() {
-		synchronized (running) {
+		synchronized (lifecycleLock) {
 			try {
 				if (!isRunning()) {
 					return;
@@ -383,6 +402,7 @@ public class Server implements Runnable {
 				//getAchievementSystem().unload();
 				getWorld().unload();
 				getDatabase().close();
+				SharedGameData.release(this);
 				bossGroup.shutdownGracefully().sync();
 				workerGroup.shutdownGracefully().sync();
 				serverChannel.channel().closeFuture().sync();
@@ -429,7 +449,10 @@ public class Server implements Runnable {
 	}
 
 	public void run() {
-		synchronized (running) {
+		if (!isRunning()) {
+			return;
+		}
+		synchronized (TICK_LOCK) {
 			try {
 				this.timeLate = System.currentTimeMillis() - lastTickTimestamp;
 				if (getTimeLate() >= getConfig().GAME_TICK) {
@@ -443,6 +466,7 @@ public class Server implements Runnable {
 								this.lastIncomingPacketsDuration += bench(player::processIncomingPackets);
 							}
 							this.lastEventsDuration = getGameEventHandler().runGameEvents();
+							getPluginHandler().applyPendingReload();
 							this.lastGameStateDuration = getGameUpdater().doUpdates();
 							for (final Player player : getWorld().getPlayers()) {
 								this.lastOutgoingPacketsDuration += bench(player::processOutgoingPackets);
@@ -472,9 +496,17 @@ public class Server implements Runnable {
 							p.updatePosition();
 						}
 
+						// The npcs tick here, so their paths are applied and requested here too rather than a tick late.
+						final PathfindingService pathfindingService = getGameUpdater().getPathfindingService();
+						if (pathfindingService != null) {
+							pathfindingService.applyPaths();
+						}
 						for (final Npc n : getWorld().getNpcs()) {
 							n.updatePosition();
 						}
+						if (pathfindingService != null) {
+							pathfindingService.submit();
+						}
 
 						getGameUpdater().executeWalkToActions();
 					}
@@ -698,31 +730,22 @@ public class Server implements Runnable {
 	}
 
 	public void addIncomingPacketDuration(final int packetOpcode, final long additionalTime) {
-		if (!incomingTimePerPacketOpcode.containsKey(packetOpcode)) {
-			incomingTimePerPacketOpcode.put(packetOpcode, 0L);
-		}
-		incomingTimePerPacketOpcode.put(packetOpcode, incomingTimePerPacketOpcode.get(packetOpcode) + additionalTime);
+		incomingTimePerPacketOpcode.merge(packetOpcode, additionalTime, Long::sum);
 	}
 
 	public void incrementIncomingPacketCount(final int packetOpcode) {
-		if (!incomingCountPerPacketOpcode.containsKey(packetOpcode)) {
-			incomingCountPerPacketOpcode.put(packetOpcode, 0);
-		}
-		incomingCountPerPacketOpcode.put(packetOpcode, incomingCountPerPacketOpcode.get(packetOpcode) + 1);
+		incomingCountPerPacketOpcode.merge(packetOpcode, 1, Integer::sum);
 	}
 
+	/**
+	 * @param additionalTime Time spent queuing the packet on the channel, in nanoseconds
+	 */
 	public void addOutgoingPacketDuration(final int packetOpcode, final long additionalTime) {
-		if (!outgoingTimePerPacketOpcode.containsKey(packetOpcode)) {
-			outgoingTimePerPacketOpcode.put(packetOpcode, 0L);
-		}
-		outgoingTimePerPacketOpcode.put(packetOpcode, outgoingTimePerPacketOpcode.get(packetOpcode) + additionalTime);
+		outgoingTimePerPacketOpcode.merge(packetOpcode, additionalTime, Long::sum);
 	}
 
 	public void incrementOutgoingPacketCount(final int packetOpcode) {
-		if (!outgoingCountPerPacketOpcode.containsKey(packetOpcode)) {
-			outgoingCountPerPacketOpcode.put(packetOpcode, 0);
-		}
-		outgoingCountPerPacketOpcode.put(packetOpcode, outgoingCountPerPacketOpcode.get(packetOpcode) + 1);
+		outgoingCountPerPacketOpcode.merge(packetOpcode, 1, Integer::sum);
 	}
 
 	public synchronized int getMaxItemID() {
@@ -759,21 +782,21 @@ public class Server implements Runnable {
 		private void drawBlocks(int x, int y, TileValue tile, Graphics g) {
 			x *= width;
 			y *= width;
-			if ((tile.traversalMask & (CollisionFlag.FULL_BLOCK_A | CollisionFlag.FULL_BLOCK_B | CollisionFlag.FULL_BLOCK_C)) != 0) {
+			if ((tile.getTraversalMask() & (CollisionFlag.FULL_BLOCK_A | CollisionFlag.FULL_BLOCK_B | CollisionFlag.FULL_BLOCK_C)) != 0) {
 				g.fillRect(x, y, width, width);
 				return;
 			}
 			g.setColor(Color.red);
-			if ((tile.traversalMask & CollisionFlag.EAST_BLOCKED) != 0) {
+			if ((tile.getTraversalMask() & CollisionFlag.EAST_BLOCKED) != 0) {
 				g.fillRect(x + width - 4, y + 1, 3, width);
 			}
-			if ((tile.traversalMask & CollisionFlag.WEST_BLOCKED) != 0) {
+			if ((tile.getTraversalMask() & CollisionFlag.WEST_BLOCKED) != 0) {
 				g.fillRect(x + 1, y + 1, 3, width);
 			}
-			if ((tile.traversalMask & CollisionFlag.NORTH_BLOCKED) != 0) {
+			if ((tile.getTraversalMask() & CollisionFlag.NORTH_BLOCKED) != 0) {
 				g.fillRect(x, y + 1, width, 3);
 			}
-			if ((tile.traversalMask & CollisionFlag.SOUTH_BLOCKED) != 0) {
+			if ((tile.getTraversalMask() & CollisionFlag.SOUTH_BLOCKED) != 0) {
 				g.fillRect(x, y + width - 4, width, 3);
 			}
 		}
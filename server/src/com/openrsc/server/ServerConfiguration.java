@@ -167,6 +167,9 @@ public class ServerConfiguration {
 	public boolean WANT_NEW_RARE_DROP_TABLES;
 	public boolean WANT_LEFTCLICK_WEBS;
 	public boolean WANT_CUSTOM_WALK_SPEED;
+	public boolean WANT_PARALLEL_CLIENT_UPDATES;
+	public boolean WANT_ASYNC_NPC_PATHFINDING;
+	public int PLUGIN_TRACE_SAMPLE_RATE;
 	public int MAX_TICKS_UNTIL_FULL_WALKING_SPEED;
 	public boolean WANT_IMPROVED_PATHFINDING;
 	//strict check on level requirements for "glitched" validations on rsc
@@ -283,6 +286,9 @@ public class ServerConfiguration {
 		GAME_TICK = tryReadInt("game_tick").orElse(640);
 		WALKING_TICK = tryReadInt("walking_tick").orElse(640);
 		WANT_CUSTOM_WALK_SPEED = tryReadBool("want_custom_walking_speed").orElse(false);
+		WANT_PARALLEL_CLIENT_UPDATES = tryReadBool("want_parallel_client_updates").orElse(false);
+		WANT_ASYNC_NPC_PATHFINDING = tryReadBool("want_async_npc_pathfinding").orElse(false);
+		PLUGIN_TRACE_SAMPLE_RATE = tryReadInt("plugin_trace_sample_rate").orElse(0);
 		IDLE_TIMER = tryReadInt("idle_timer").orElse(300000); // 5 minutes
 		AUTO_SAVE = tryReadInt("auto_save").orElse(30000); // 30 seconds
 		CLIENT_VERSION = tryReadInt("client_version").orElse(6);
@@ -47,7 +47,7 @@ public class HolidayDropEvent extends HourlyEvent  {
 					view.getGroundItem(Point.location(x + 1, y - 1)) == null) {
 
 					boolean containsObject = view.getGameObject(Point.location(x, y)) != null;
-					int traversal = getWorld().getTile(x, y).traversalMask;
+					int traversal = getWorld().getCollisionMap().getTraversalMask(x, y);
 					boolean isBlocking = (
 						(traversal & 16) != 0 || // diagonal wall \
 							(traversal & 32) != 0 || // diagonal wall /
@@ -19,11 +19,28 @@ public abstract class GameTickEvent implements Callable<Integer> {
 	private Mob owner;
 	private final World world;
 	private long delayTicks;
-	private long ticksBeforeRun = -1;
+	long ticksBeforeRun = -1;
 	private String descriptor;
 	private long lastEventDuration = 0;
 	private boolean uniqueEvent = false;
 
+	/**
+	 * Scheduling state owned by the GameTickScheduler this event is registered with. While registered, ticksBeforeRun
+	 * holds the countdown as it was on countdownTick and the scheduler's tick counter does the decrementing.
+	 */
+	volatile GameTickScheduler scheduler;
+	volatile long countdownTick;
+	volatile boolean executing;
+	long scheduledTick = GameTickScheduler.UNSCHEDULED;
+
+	/**
+	 * Position of this event in the GameTickEventRegistry it is registered with.
+	 */
+	volatile GameTickEventRegistry registry;
+	int registryIndex = -1;
+	GameTickEventRegistry.OwnedEvents owned;
+	int ownedIndex = -1;
+
 	public GameTickEvent(final World world, final Mob owner, final long ticks, final String descriptor, final boolean uniqueEvent) {
 		this.world = world;
 		this.owner = owner;
@@ -41,7 +58,9 @@ public abstract class GameTickEvent implements Callable<Integer> {
 
 	public final long doRun() {
 		final long eventStart	= System.currentTimeMillis();
-		tick();
+		if (scheduler == null) {
+			tick();
+		}
 		if (shouldRun()) {
 			run();
 			resetCountdown();
@@ -65,12 +84,13 @@ public abstract class GameTickEvent implements Callable<Integer> {
 	}
 
 	public final boolean shouldRun() {
-		return running && ticksBeforeRun <= 0;
+		return running && getTicksBeforeRun() <= 0;
 	}
 
 	public void stop() {
 		//if(!(this instanceof PluginTask)) LOGGER.info("Stopping : " + getDescriptor() + " : " + getOwner());
 		running = false;
+		countdownChanged();
 	}
 
 	protected void setDelayTicks(long delayTicks) {
@@ -79,15 +99,35 @@ public abstract class GameTickEvent implements Callable<Integer> {
 	}
 
 	public void resetCountdown() {
+		final GameTickScheduler scheduler = this.scheduler;
+		if (scheduler != null) {
+			countdownTick = scheduler.getCurrentTick();
+		}
 		ticksBeforeRun = delayTicks;
+		countdownChanged();
 	}
 
 	public void tick() {
 		ticksBeforeRun--;
+		countdownChanged();
+	}
+
+	private void countdownChanged() {
+		final GameTickScheduler scheduler = this.scheduler;
+		if (scheduler != null) {
+			scheduler.onCountdownChanged(this);
+		}
+	}
+
+	/**
+	 * @return The scheduler tick on which the countdown reaches zero.
+	 */
+	final long getDueTick() {
+		return countdownTick + Math.max(ticksBeforeRun, 1);
 	}
 
 	public long timeTillNextRun() {
-		return System.currentTimeMillis() + (ticksBeforeRun * getWorld().getServer().getConfig().GAME_TICK);
+		return System.currentTimeMillis() + (getTicksBeforeRun() * getWorld().getServer().getConfig().GAME_TICK);
 	}
 
 	public final boolean shouldRemove() {
@@ -115,6 +155,10 @@ public abstract class GameTickEvent implements Callable<Integer> {
 	}
 
 	public long getTicksBeforeRun() {
+		final GameTickScheduler scheduler = this.scheduler;
+		if (scheduler != null) {
+			return ticksBeforeRun - (scheduler.getCurrentTick() - countdownTick);
+		}
 		return ticksBeforeRun;
 	}
 
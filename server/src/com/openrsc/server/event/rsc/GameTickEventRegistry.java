@@ -0,0 +1,230 @@
+package com.openrsc.server.event.rsc;
+
+import com.openrsc.server.model.entity.Mob;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the GameTickEvents registered with a GameEventHandler.
+ *
+ * Every event sits in one flat array for iteration. Events with an owner are also grouped by the owner's player or
+ * npc index so the events a mob owns can be looked at without touching the rest of the world's events. Each event
+ * remembers its position in both arrays so it can be removed in constant time.
+ *
+ * Not thread safe, the GameEventHandler only touches it from the thread processing the tick.
+ */
+public final class GameTickEventRegistry {
+
+	private static final int INITIAL_CAPACITY = 256;
+	private static final int INITIAL_OWNED_CAPACITY = 4;
+
+	private GameTickEvent[] events = new GameTickEvent[INITIAL_CAPACITY];
+	private int size = 0;
+
+	private OwnedEvents[] playerOwned = new OwnedEvents[INITIAL_CAPACITY];
+	private OwnedEvents[] npcOwned = new OwnedEvents[INITIAL_CAPACITY];
+
+	/**
+	 * The events of a single owner. Indices are recycled, so owners that share an index are chained.
+	 */
+	static final class OwnedEvents {
+		private final Mob owner;
+		private final int slot;
+		private GameTickEvent[] events = new GameTickEvent[INITIAL_OWNED_CAPACITY];
+		private int size = 0;
+		private OwnedEvents next;
+
+		private OwnedEvents(final Mob owner, final int slot) {
+			this.owner = owner;
+			this.slot = slot;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public GameTickEvent get(final int index) {
+		return events[index];
+	}
+
+	public boolean contains(final GameTickEvent event) {
+		return event.registry == this;
+	}
+
+	/**
+	 * @return The registered event of the given type owned by the given mob, or null.
+	 */
+	public GameTickEvent getOwnedEvent(final Mob owner, final Class<? extends GameTickEvent> type) {
+		final OwnedEvents owned = findOwned(owner);
+		if (owned == null) {
+			return null;
+		}
+		for (int i = 0; i < owned.size; i++) {
+			if (owned.events[i].getClass() == type) {
+				return owned.events[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return A read only view of the registered events owned by the given mob.
+	 */
+	public List<GameTickEvent> getOwnedEvents(final Mob owner) {
+		final OwnedEvents owned = findOwned(owner);
+		if (owned == null) {
+			return Collections.emptyList();
+		}
+		return new AbstractList<GameTickEvent>() {
+			@Override
+			public GameTickEvent get(final int index) {
+				if (index >= owned.size) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + owned.size);
+				}
+				return owned.events[index];
+			}
+
+			@Override
+			public int size() {
+				return owned.size;
+			}
+		};
+	}
+
+	public boolean add(final GameTickEvent event) {
+		if (event.registry != null) {
+			return false;
+		}
+
+		if (size == events.length) {
+			events = Arrays.copyOf(events, size * 2);
+		}
+		event.registry = this;
+		event.registryIndex = size;
+		events[size++] = event;
+
+		if (event.hasOwner()) {
+			final OwnedEvents owned = findOrCreateOwned(event.getOwner());
+			if (owned.size == owned.events.length) {
+				owned.events = Arrays.copyOf(owned.events, owned.size * 2);
+			}
+			event.owned = owned;
+			event.ownedIndex = owned.size;
+			owned.events[owned.size++] = event;
+		}
+		return true;
+	}
+
+	public boolean remove(final GameTickEvent event) {
+		if (event.registry != this) {
+			return false;
+		}
+
+		final int index = event.registryIndex;
+		final GameTickEvent last = events[--size];
+		events[index] = last;
+		last.registryIndex = index;
+		events[size] = null;
+
+		if (event.owned != null) {
+			removeOwned(event);
+		}
+
+		event.registry = null;
+		event.registryIndex = -1;
+		event.owned = null;
+		event.ownedIndex = -1;
+		return true;
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			events[i].registry = null;
+			events[i].registryIndex = -1;
+			events[i].owned = null;
+			events[i].ownedIndex = -1;
+			events[i] = null;
+		}
+		size = 0;
+		Arrays.fill(playerOwned, null);
+		Arrays.fill(npcOwned, null);
+	}
+
+	private void removeOwned(final GameTickEvent event) {
+		// The group is taken from the event as the owner's index may have changed since it was registered.
+		final OwnedEvents owned = event.owned;
+		final int index = event.ownedIndex;
+		final GameTickEvent last = owned.events[--owned.size];
+		owned.events[index] = last;
+		last.ownedIndex = index;
+		owned.events[owned.size] = null;
+
+		if (owned.size > 0) {
+			return;
+		}
+
+		final OwnedEvents[] slots = slotsFor(owned.owner);
+		OwnedEvents previous = null;
+		OwnedEvents current = slots[owned.slot];
+		while (current != null && current != owned) {
+			previous = current;
+			current = current.next;
+		}
+		if (current == null) {
+			return;
+		}
+		if (previous == null) {
+			slots[owned.slot] = owned.next;
+		} else {
+			previous.next = owned.next;
+		}
+	}
+
+	private OwnedEvents findOwned(final Mob owner) {
+		final OwnedEvents[] slots = slotsFor(owner);
+		final int slot = slotOf(owner);
+		if (slot >= slots.length) {
+			return null;
+		}
+		OwnedEvents owned = slots[slot];
+		while (owned != null && owned.owner != owner) {
+			owned = owned.next;
+		}
+		return owned;
+	}
+
+	private OwnedEvents findOrCreateOwned(final Mob owner) {
+		final OwnedEvents existing = findOwned(owner);
+		if (existing != null) {
+			return existing;
+		}
+
+		final int slot = slotOf(owner);
+		OwnedEvents[] slots = slotsFor(owner);
+		if (slot >= slots.length) {
+			slots = Arrays.copyOf(slots, Math.max(slots.length * 2, slot + 1));
+			if (owner.isPlayer()) {
+				playerOwned = slots;
+			} else {
+				npcOwned = slots;
+			}
+		}
+
+		final OwnedEvents owned = new OwnedEvents(owner, slot);
+		owned.next = slots[slot];
+		slots[slot] = owned;
+		return owned;
+	}
+
+	private static int slotOf(final Mob owner) {
+		return Math.max(owner.getIndex(), 0);
+	}
+
+	private OwnedEvents[] slotsFor(final Mob owner) {
+		return owner.isPlayer() ? playerOwned : npcOwned;
+	}
+}
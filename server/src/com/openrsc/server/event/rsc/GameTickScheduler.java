@@ -0,0 +1,188 @@
+package com.openrsc.server.event.rsc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hierarchical timing wheel that hands a GameTickEvent to the GameEventHandler only on the tick it is due.
+ *
+ * Events due within the next 256 ticks sit in the near wheel (one slot per tick), events due within the next
+ * 65536 ticks sit in the far wheel (one slot per 256 ticks) and anything later sits in the overflow list.
+ * Far slots and the overflow list are cascaded down as the wheel turns.
+ *
+ * Countdown changes made outside of the event's own run (setDelayTicks, resetCountdown, stop) are queued and
+ * applied on the next call to {@link #collectDueEvents}. Stale wheel entries are discarded lazily.
+ *
+ * Everything except {@link #onCountdownChanged(GameTickEvent)} must be called from the thread driving the handler.
+ */
+public final class GameTickScheduler {
+
+	private static final int WHEEL_BITS = 8;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	static final long UNSCHEDULED = -1;
+	static final long EXECUTING = -2;
+
+	private final List<GameTickEvent>[] nearWheel = newWheel();
+	private final List<GameTickEvent>[] farWheel = newWheel();
+	private final List<GameTickEvent> overflow = new ArrayList<>();
+	private final Queue<GameTickEvent> rescheduled = new ConcurrentLinkedQueue<>();
+
+	private volatile long currentTick = 0;
+
+	@SuppressWarnings("unchecked")
+	private static List<GameTickEvent>[] newWheel() {
+		final List<GameTickEvent>[] wheel = (List<GameTickEvent>[]) new List<?>[WHEEL_SIZE];
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			wheel[i] = new ArrayList<>();
+		}
+		return wheel;
+	}
+
+	/**
+	 * @return The number of ticks this scheduler has processed.
+	 */
+	public long getCurrentTick() {
+		return currentTick;
+	}
+
+	/**
+	 * Registers an event. Its countdown is considered to start on the tick after the current one, which matches
+	 * an event that was queued with GameEventHandler.add() before the tick was processed.
+	 */
+	public void schedule(final GameTickEvent event) {
+		event.scheduler = this;
+		event.countdownTick = currentTick;
+		place(event, Math.max(event.getDueTick(), currentTick + 1));
+	}
+
+	/**
+	 * Detaches an event. Any entries left in the wheel for it are dropped when they are reached.
+	 */
+	public void unschedule(final GameTickEvent event) {
+		if (event.scheduler == this) {
+			event.countdownTick = 0;
+			event.ticksBeforeRun = event.getTicksBeforeRun();
+			event.scheduler = null;
+		}
+		event.scheduledTick = UNSCHEDULED;
+		event.executing = false;
+	}
+
+	/**
+	 * Turns the wheel by one tick.
+	 *
+	 * @return The tick that is now being processed.
+	 */
+	public long nextTick() {
+		final long tick = currentTick + 1;
+		currentTick = tick;
+
+		if ((tick & WHEEL_MASK) == 0) {
+			final int farSlot = (int) ((tick >>> WHEEL_BITS) & WHEEL_MASK);
+			if (farSlot == 0) {
+				cascade(overflow, Long.MAX_VALUE);
+			}
+			cascade(farWheel[farSlot], tick + WHEEL_SIZE);
+		}
+		return tick;
+	}
+
+	/**
+	 * Applies queued countdown changes and collects the events that are due on the current tick. Collected events
+	 * are marked as executing and must be handed back through {@link #reschedule(GameTickEvent)} or
+	 * {@link #unschedule(GameTickEvent)} once they have run.
+	 *
+	 * @param due Receives the events to run this tick
+	 * @param stopped Receives events that were stopped since they were last run
+	 */
+	public void collectDueEvents(final Collection<GameTickEvent> due, final Collection<GameTickEvent> stopped) {
+		applyCountdownChanges(currentTick, stopped);
+
+		final List<GameTickEvent> slot = nearWheel[(int) (currentTick & WHEEL_MASK)];
+		for (final GameTickEvent event : slot) {
+			if (event.scheduler != this || event.scheduledTick != currentTick) {
+				continue;
+			}
+			event.scheduledTick = EXECUTING;
+			event.executing = true;
+			due.add(event);
+		}
+		slot.clear();
+	}
+
+	/**
+	 * Puts an event that has just run back into the wheel according to its countdown.
+	 */
+	public void reschedule(final GameTickEvent event) {
+		event.executing = false;
+		if (event.scheduler == this) {
+			place(event, Math.max(event.getDueTick(), currentTick + 1));
+		}
+	}
+
+	/**
+	 * Applies countdown changes made while the current tick was being processed.
+	 *
+	 * @param stopped Receives events that were stopped during the tick
+	 */
+	public void flushCountdownChanges(final Collection<GameTickEvent> stopped) {
+		applyCountdownChanges(currentTick + 1, stopped);
+	}
+
+	void onCountdownChanged(final GameTickEvent event) {
+		// Events being run are put back into the wheel by the handler once the tick completes.
+		if (!event.executing) {
+			rescheduled.add(event);
+		}
+	}
+
+	private void applyCountdownChanges(final long earliestTick, final Collection<GameTickEvent> stopped) {
+		GameTickEvent event;
+		while ((event = rescheduled.poll()) != null) {
+			if (event.scheduler != this || event.executing) {
+				continue;
+			}
+			if (event.shouldRemove()) {
+				if (event.scheduledTick != UNSCHEDULED) {
+					event.scheduledTick = UNSCHEDULED;
+					stopped.add(event);
+				}
+				continue;
+			}
+			final long dueTick = Math.max(event.getDueTick(), earliestTick);
+			if (dueTick != event.scheduledTick) {
+				place(event, dueTick);
+			}
+		}
+	}
+
+	private void cascade(final List<GameTickEvent> entries, final long beforeTick) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		final List<GameTickEvent> cascading = new ArrayList<>(entries);
+		entries.clear();
+		for (final GameTickEvent event : cascading) {
+			if (event.scheduler == this && event.scheduledTick >= currentTick && event.scheduledTick < beforeTick) {
+				place(event, event.scheduledTick);
+			}
+		}
+	}
+
+	private void place(final GameTickEvent event, final long dueTick) {
+		event.scheduledTick = dueTick;
+		final long delta = dueTick - currentTick;
+		if (delta < WHEEL_SIZE) {
+			nearWheel[(int) (dueTick & WHEEL_MASK)].add(event);
+		} else if (delta < (long) WHEEL_SIZE * WHEEL_SIZE) {
+			farWheel[(int) ((dueTick >>> WHEEL_BITS) & WHEEL_MASK)].add(event);
+		} else {
+			overflow.add(event);
+		}
+	}
+}
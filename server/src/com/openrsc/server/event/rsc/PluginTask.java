@@ -10,6 +10,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class PluginTask extends GameTickEvent implements Callable<Integer> {
@@ -23,6 +24,11 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 	 */
 	private final static ConcurrentHashMap<String, PluginTask> tasksMap = new ConcurrentHashMap<String, PluginTask>();
 
+	/**
+	 * Milliseconds awaitTickCompleted() waits for a signal before checking the task's future again.
+	 */
+	private static final long AWAIT_TIMEOUT = 10;
+
 	public static PluginTask getContextPluginTask() {
 		return PluginTask.tasksMap.get(Thread.currentThread().getName());
 	}
@@ -30,8 +36,16 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 	private AtomicBoolean initialized = new AtomicBoolean(false);
 	private AtomicBoolean threadRunning = new AtomicBoolean(false);
 	private AtomicBoolean tickCompleted = new AtomicBoolean(false);
+	private volatile boolean finished = false;
 	private volatile Thread pluginThread;
 
+	/**
+	 * When the script started and when it last resumed, from System.nanoTime(). Only touched by the plugin thread.
+	 */
+	private long startedAt;
+	private long resumedAt;
+	private int pauses = 0;
+
 	private final ScriptContext scriptContext;
 	private final Object[] data;
 	private final Action action;
@@ -48,6 +62,7 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 	}
 
 	public synchronized Integer call() {
+		startedAt = resumedAt = System.nanoTime();
 		try {
 			setInitialized(true);
 			registerPluginThread();
@@ -58,11 +73,29 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 			LOGGER.catching(ex);
 			stop();
 			return 0;
+		} finally {
+			final long now = System.nanoTime();
+			sliceCompleted(now - resumedAt);
+			scriptCompleted(pauses, now - startedAt);
+			finished = true;
+			notifyAll();
 		}
 	}
 
 	public abstract int action();
 
+	/**
+	 * Called on the plugin thread when the script pauses or ends, with the time it ran since it last resumed.
+	 */
+	protected void sliceCompleted(final long nanos) {
+	}
+
+	/**
+	 * Called on the plugin thread once the script has ended.
+	 */
+	protected void scriptCompleted(final int pauses, final long lifetimeNanos) {
+	}
+
 	public void run() {
 		setDelayTicks(0);
 		setThreadRunning(true);
@@ -77,18 +110,35 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 	}
 
 	public synchronized void pause(final int ticks) {
+		sliceCompleted(System.nanoTime() - resumedAt);
+		pauses++;
 		try {
 			setDelayTicks(ticks);
 			setThreadRunning(false);
 			setTickCompleted(true);
-			wait();
+			// Wake the game tick waiting in awaitTickCompleted(), then sleep until run() resumes us.
+			notifyAll();
+			while (!isThreadRunning()) {
+				wait();
+			}
 			setThreadRunning(true);
 			setTickCompleted(false);
+			resumedAt = System.nanoTime();
 		} catch (final InterruptedException ex) {
 			throw new PluginInterruptedException("pause() was interrupted", ex);
 		}
 	}
 
+	/**
+	 * Blocks the calling game tick until the plugin has started and reached its next pause point, or has finished.
+	 * The plugin thread signals both, the timeout only guards against a task that was never started.
+	 */
+	public synchronized void awaitTickCompleted(final Future<?> future) throws InterruptedException {
+		while ((!isInitialized() || (isThreadRunning() && !isTickCompleted())) && !finished && !future.isDone()) {
+			wait(AWAIT_TIMEOUT);
+		}
+	}
+
 	private synchronized void registerPluginThread() {
 		pluginThread = Thread.currentThread();
 		final String threadName = getPluginThread().getName();
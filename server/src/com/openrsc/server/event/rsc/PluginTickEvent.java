@@ -44,19 +44,17 @@ public class PluginTickEvent extends GameTickEvent {
 			submitPluginTask();
 		}
 
-		// Restart the plugin thread if it has waited long enough
+		// Restart the plugin thread if it has waited long enough, then wait for the plugin to get to a pause point or
+		// finish completely. This also waits for the PluginTask to start which is also intended to run plugin code on tick bounds.
 		synchronized(getPluginTask()) {
 			getPluginTask().tick();
 
 			if(getPluginTask().shouldRun() && !getFuture().isDone()) {
 				getPluginTask().run();
 			}
-		}
 
-		// Wait for the plugin to get to a pause point or finish completely. This also waits for the PluginTask to start which is also intended to run plugin code on tick bounds.
-		while((!getPluginTask().isInitialized() || (getPluginTask().isThreadRunning() && !getPluginTask().isTickCompleted())) && !getFuture().isDone()) {
 			try {
-				Thread.sleep(1);
+				getPluginTask().awaitTickCompleted(getFuture());
 			} catch (final InterruptedException ex) {
 				LOGGER.catching(ex);
 			}
@@ -0,0 +1,114 @@
+package com.openrsc.server.event.rsc.impl.combat.scripts;
+
+import com.openrsc.server.model.entity.Mob;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * The combat scripts of one kind, indexed by the npc ids declared through {@link TargetedCombatScript}.
+ *
+ * {@link #getCandidates} returns, in load order, the scripts declaring the id of either npc in a fight plus the
+ * scripts that declare nothing.
+ */
+final class CombatScriptIndex<T> {
+	private final List<T> scripts = new ArrayList<T>();
+	private final IntFunction<T[]> newArray;
+
+	private T[] untargetedScripts;
+	/**
+	 * The scripts to ask about fights involving each npc id, null for ids no script declared.
+	 */
+	private T[][] scriptsByNpc;
+
+	CombatScriptIndex(final IntFunction<T[]> newArray) {
+		this.newArray = newArray;
+		clear();
+	}
+
+	void add(final T script) {
+		scripts.add(script);
+		index();
+	}
+
+	void clear() {
+		scripts.clear();
+		index();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void index() {
+		int maxId = -1;
+		for (final T script : scripts) {
+			if (script instanceof TargetedCombatScript) {
+				for (final int id : ((TargetedCombatScript) script).getNpcIds()) {
+					maxId = Math.max(maxId, id);
+				}
+			}
+		}
+
+		untargetedScripts = collect(-1, -1);
+		scriptsByNpc = (T[][]) new Object[maxId + 1][];
+		for (int id = 0; id <= maxId; id++) {
+			for (final T script : scripts) {
+				if (declares(script, id)) {
+					scriptsByNpc[id] = collect(id, -1);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The scripts that declared no ids, plus those that declared either of the given ids.
+	 */
+	private T[] collect(final int firstId, final int secondId) {
+		final List<T> collected = new ArrayList<T>();
+		for (final T script : scripts) {
+			if (!(script instanceof TargetedCombatScript) || declares(script, firstId) || declares(script, secondId)) {
+				collected.add(script);
+			}
+		}
+		return collected.toArray(newArray.apply(collected.size()));
+	}
+
+	private static boolean declares(final Object script, final int id) {
+		if (id < 0 || !(script instanceof TargetedCombatScript)) {
+			return false;
+		}
+		for (final int declared : ((TargetedCombatScript) script).getNpcIds()) {
+			if (declared == id) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int indexedIdOf(final Mob mob) {
+		if (mob == null || !mob.isNpc()) {
+			return -1;
+		}
+		final int id = mob.getID();
+		return id >= 0 && id < scriptsByNpc.length && scriptsByNpc[id] != null ? id : -1;
+	}
+
+	/**
+	 * @return The scripts to ask about a fight between the two mobs, in load order.
+	 */
+	T[] getCandidates(final Mob attacker, final Mob victim) {
+		final int attackerId = indexedIdOf(attacker);
+		final int victimId = indexedIdOf(victim);
+		if (attackerId < 0 && victimId < 0) {
+			return untargetedScripts;
+		}
+		if (victimId < 0 || victimId == attackerId) {
+			return scriptsByNpc[attackerId];
+		}
+		if (attackerId < 0) {
+			return scriptsByNpc[victimId];
+		}
+		// Two npcs that both have scripts of their own fighting each other, rare enough to not be worth caching.
+		return collect(attackerId, victimId);
+	}
+}
@@ -8,8 +8,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
-import java.util.Map;
 
 public class CombatScriptLoader {
 
@@ -18,9 +16,9 @@ public class CombatScriptLoader {
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private final Map<String, CombatScript> combatScripts = new HashMap<String, CombatScript>();
-	private final Map<String, OnCombatStartScript> combatStartScripts = new HashMap<String, OnCombatStartScript>();
-	private final Map<String, CombatAggroScript> combatAggroScripts = new HashMap<String, CombatAggroScript>();
+	private final CombatScriptIndex<CombatScript> combatScripts = new CombatScriptIndex<CombatScript>(CombatScript[]::new);
+	private final CombatScriptIndex<OnCombatStartScript> combatStartScripts = new CombatScriptIndex<OnCombatStartScript>(OnCombatStartScript[]::new);
+	private final CombatScriptIndex<CombatAggroScript> combatAggroScripts = new CombatScriptIndex<CombatAggroScript>(CombatAggroScript[]::new);
 
 	private final Server server;
 
@@ -33,21 +31,21 @@ public class CombatScriptLoader {
 			final Object classInstance = c.getConstructor().newInstance();
 			if (classInstance instanceof CombatScript) {
 				CombatScript script = (CombatScript) classInstance;
-				combatScripts.put(classInstance.getClass().getName(), script);
+				combatScripts.add(script);
 			}
 			if (classInstance instanceof OnCombatStartScript) {
 				OnCombatStartScript script = (OnCombatStartScript) classInstance;
-				combatStartScripts.put(classInstance.getClass().getName(), script);
+				combatStartScripts.add(script);
 			}
 			if (classInstance instanceof CombatAggroScript) {
 				CombatAggroScript script = (CombatAggroScript) classInstance;
-				combatAggroScripts.put(classInstance.getClass().getName(), script);
+				combatAggroScripts.add(script);
 			}
 		}
 	}
 
 	public void checkAndExecuteCombatScript(final Mob attacker, final Mob victim) {
-		for (final CombatScript script : combatScripts.values()) {
+		for (final CombatScript script : combatScripts.getCandidates(attacker, victim)) {
 			if (script.shouldExecute(attacker, victim)) {
 				script.executeScript(attacker, victim);
 			}
@@ -56,7 +54,7 @@ public class CombatScriptLoader {
 
 	public void checkAndExecuteOnStartCombatScript(final Mob attacker, final Mob victim) {
 		try {
-			for (final OnCombatStartScript script : combatStartScripts.values()) {
+			for (final OnCombatStartScript script : combatStartScripts.getCandidates(attacker, victim)) {
 				if (script.shouldExecute(attacker, victim)) {
 					script.executeScript(attacker, victim);
 				}
@@ -68,7 +66,7 @@ public class CombatScriptLoader {
 
 	public void checkAndExecuteCombatAggroScript(final Npc npc, final Player player) {
 		try {
-			for (final CombatAggroScript script : combatAggroScripts.values()) {
+			for (final CombatAggroScript script : combatAggroScripts.getCandidates(npc, player)) {
 				if (script.shouldExecute(npc, player)) {
 					script.executeScript(npc, player);
 				}
@@ -79,7 +77,7 @@ public class CombatScriptLoader {
 	}
 	public void checkAndExecuteCombatAggroScript(final Npc npc, final Mob mob) {
 		try {
-			for (final CombatAggroScript script : combatAggroScripts.values()) {
+			for (final CombatAggroScript script : combatAggroScripts.getCandidates(npc, mob)) {
 				if (script.shouldExecute(npc, mob)) {
 					script.executeScript(npc, mob);
 				}
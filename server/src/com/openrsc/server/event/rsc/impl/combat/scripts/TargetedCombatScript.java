@@ -0,0 +1,12 @@
+package com.openrsc.server.event.rsc.impl.combat.scripts;
+
+/**
+ * Implemented by combat scripts that only apply to fights involving specific npcs, so the CombatScriptLoader only
+ * asks them about those fights instead of about every combat round.
+ */
+public interface TargetedCombatScript {
+	/**
+	 * @return The ids of every npc the script's shouldExecute may return true for, as attacker or victim
+	 */
+	int[] getNpcIds();
+}
@@ -2,6 +2,7 @@ package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.event.rsc.impl.combat.scripts.CombatAggroScript;
 import com.openrsc.server.event.rsc.impl.combat.scripts.OnCombatStartScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
@@ -9,7 +10,7 @@ import com.openrsc.server.model.entity.player.Player;
 
 import static com.openrsc.server.plugins.Functions.*;
 
-public class Bandit implements CombatAggroScript, OnCombatStartScript {
+public class Bandit implements CombatAggroScript, OnCombatStartScript, TargetedCombatScript {
 
 	@Override
 	public void executeScript(Mob attacker, Mob victim) {
@@ -27,4 +28,9 @@ public class Bandit implements CombatAggroScript, OnCombatStartScript {
 				&& attacker.getID() == NpcId.BANDIT_AGGRESSIVE.id();
 	}
 
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.BANDIT_AGGRESSIVE.id()};
+	}
+
 }
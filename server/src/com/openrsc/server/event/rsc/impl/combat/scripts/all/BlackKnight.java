@@ -1,6 +1,7 @@
 package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.event.rsc.impl.combat.scripts.CombatAggroScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
@@ -8,7 +9,7 @@ import com.openrsc.server.model.entity.player.Player;
 
 import static com.openrsc.server.plugins.Functions.*;
 
-public class BlackKnight implements CombatAggroScript {
+public class BlackKnight implements CombatAggroScript, TargetedCombatScript {
 	
 	@Override
 	public void executeScript(Mob attacker, Mob victim) {
@@ -26,4 +27,9 @@ public class BlackKnight implements CombatAggroScript {
 				&& attacker.getID() == NpcId.BLACK_KNIGHT.id();
 	}
 
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.BLACK_KNIGHT.id()};
+	}
+
 }
@@ -2,11 +2,12 @@ package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.constants.Skills;
 import com.openrsc.server.event.rsc.impl.combat.scripts.OnCombatStartScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
 
-public class ElvargPrayerDrain implements OnCombatStartScript {
+public class ElvargPrayerDrain implements OnCombatStartScript, TargetedCombatScript {
 
 	@Override
 	public boolean shouldExecute(Mob attacker, Mob defender) {
@@ -41,4 +42,9 @@ public class ElvargPrayerDrain implements OnCombatStartScript {
 
 	}
 
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.DRAGON.id()};
+	}
+
 }
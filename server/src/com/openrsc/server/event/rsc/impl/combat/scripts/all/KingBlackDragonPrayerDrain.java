@@ -1,12 +1,13 @@
 package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.event.rsc.impl.combat.scripts.OnCombatStartScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.constants.Skills;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
 
-public class KingBlackDragonPrayerDrain implements OnCombatStartScript {
+public class KingBlackDragonPrayerDrain implements OnCombatStartScript, TargetedCombatScript {
 
 	@Override
 	public boolean shouldExecute(Mob attacker, Mob defender) {
@@ -33,4 +34,9 @@ public class KingBlackDragonPrayerDrain implements OnCombatStartScript {
 
 	}
 
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.KING_BLACK_DRAGON.id()};
+	}
+
 }
@@ -2,6 +2,7 @@ package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.event.rsc.impl.combat.scripts.CombatAggroScript;
 import com.openrsc.server.event.rsc.impl.combat.scripts.OnCombatStartScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
@@ -9,7 +10,7 @@ import com.openrsc.server.model.entity.player.Player;
 
 import static com.openrsc.server.plugins.Functions.*;
 
-public class Rowdy implements CombatAggroScript, OnCombatStartScript {
+public class Rowdy implements CombatAggroScript, OnCombatStartScript, TargetedCombatScript {
 
 	@Override
 	public void executeScript(Mob attacker, Mob victim) {
@@ -33,4 +34,9 @@ public class Rowdy implements CombatAggroScript, OnCombatStartScript {
 				&& (attacker.getID() == NpcId.ROWDY_GUARD.id() || attacker.getID() == NpcId.ROWDY_SLAVE.id());
 	}
 
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.ROWDY_GUARD.id(), NpcId.ROWDY_SLAVE.id()};
+	}
+
 }
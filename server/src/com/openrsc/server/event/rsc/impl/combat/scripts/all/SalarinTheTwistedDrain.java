@@ -2,6 +2,7 @@ package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.event.rsc.impl.combat.scripts.CombatAggroScript;
 import com.openrsc.server.event.rsc.impl.combat.scripts.OnCombatStartScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.constants.Skills;
 import com.openrsc.server.model.entity.Mob;
@@ -9,7 +10,7 @@ import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.entity.update.ChatMessage;
 
-public class SalarinTheTwistedDrain implements CombatAggroScript, OnCombatStartScript {
+public class SalarinTheTwistedDrain implements CombatAggroScript, OnCombatStartScript, TargetedCombatScript {
 
 	// Melee AI for Salarin The Twisted NPC.
 	// Magic AI for Salarin is added to the spellhandler class and plugins for weakening cast.
@@ -43,4 +44,10 @@ public class SalarinTheTwistedDrain implements CombatAggroScript, OnCombatStartS
 			}
 		}
 	}
+
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.SALARIN_THE_TWISTED.id()};
+	}
+
 }
@@ -1,13 +1,14 @@
 package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.event.rsc.impl.combat.scripts.OnCombatStartScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.constants.Skills;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.util.rsc.MessageType;
 
-public class ShadowSpiderPrayerDrain implements OnCombatStartScript {
+public class ShadowSpiderPrayerDrain implements OnCombatStartScript, TargetedCombatScript {
 
 	@Override
 	public boolean shouldExecute(Mob attacker, Mob defender) {
@@ -29,4 +30,9 @@ public class ShadowSpiderPrayerDrain implements OnCombatStartScript {
 
 	}
 
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.SHADOW_SPIDER.id()};
+	}
+
 }
@@ -2,6 +2,7 @@ package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.event.rsc.impl.combat.scripts.CombatAggroScript;
 import com.openrsc.server.event.rsc.impl.combat.scripts.OnCombatStartScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.constants.Skills;
 import com.openrsc.server.model.entity.Mob;
@@ -9,7 +10,7 @@ import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.entity.update.ChatMessage;
 
-public class SkeletonMage implements CombatAggroScript, OnCombatStartScript {
+public class SkeletonMage implements CombatAggroScript, OnCombatStartScript, TargetedCombatScript {
 
 	@Override
 	public void executeScript(Mob attacker, Mob victim) {
@@ -38,4 +39,9 @@ public class SkeletonMage implements CombatAggroScript, OnCombatStartScript {
 				&& attacker.getID() == NpcId.SKELETON_MAGE.id();
 	}
 
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.SKELETON_MAGE.id()};
+	}
+
 }
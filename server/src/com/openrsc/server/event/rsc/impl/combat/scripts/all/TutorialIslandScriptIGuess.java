@@ -2,10 +2,11 @@ package com.openrsc.server.event.rsc.impl.combat.scripts.all;
 
 import com.openrsc.server.constants.Skills;
 import com.openrsc.server.event.rsc.impl.combat.scripts.CombatScript;
+import com.openrsc.server.event.rsc.impl.combat.scripts.TargetedCombatScript;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.model.entity.Mob;
 
-public class TutorialIslandScriptIGuess implements CombatScript {
+public class TutorialIslandScriptIGuess implements CombatScript, TargetedCombatScript {
 
 	@Override
 	public void executeScript(Mob attacker, Mob victim) {
@@ -25,4 +26,9 @@ public class TutorialIslandScriptIGuess implements CombatScript {
 		return false;
 	}
 
+	@Override
+	public int[] getNpcIds() {
+		return new int[]{NpcId.RAT_TUTORIAL.id()};
+	}
+
 }
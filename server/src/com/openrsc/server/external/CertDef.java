@@ -1,6 +1,10 @@
 package com.openrsc.server.external;
 
-public class CertDef {
+import java.io.Serializable;
+
+public class CertDef implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The ID of the certificate
 	 */
@@ -1,6 +1,10 @@
 package com.openrsc.server.external;
 
-public class CerterDef {
+import java.io.Serializable;
+
+public class CerterDef implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Certs this stall can deal with
 	 */
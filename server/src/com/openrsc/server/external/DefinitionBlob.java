@@ -0,0 +1,310 @@
+package com.openrsc.server.external;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The definitions precompiled by the {@link DefinitionCompiler} into a single file, which is memory mapped so the
+ * definitions can be deserialized without parsing their JSON and XStream sources.
+ *
+ * The file starts with a magic number, the format version and the number of entries. Each entry holds the path of
+ * its source relative to the config directory, the SHA-256 hash of the source it was compiled from, the names of the
+ * classes it serialized with a hash of their serialized fields, and the length and bytes of the Java serialized
+ * definitions. An entry is only used while its source still has the same hash, so an edited source is loaded from
+ * the source itself until the file is compiled again.
+ *
+ * The definition classes declare a fixed serialVersionUID, which would let an entry compiled before a class gained a
+ * field deserialize with the field left at its default. An entry is therefore also only used while the classes it
+ * serialized still have the same fields.
+ */
+final class DefinitionBlob {
+	/**
+	 * The asynchronous logger.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	/**
+	 * The path of the file relative to the config directory.
+	 */
+	static final String FILENAME = "defs/Definitions.bin";
+
+	private static final int MAGIC = 0x4F524446;
+	/**
+	 * Increased whenever the layout of the file changes.
+	 */
+	private static final int VERSION = 3;
+
+	private static final class Entry {
+		private final String hash;
+		private final List<String> classes;
+		private final String shape;
+		private final int offset;
+		private final int length;
+
+		private Entry(final String hash, final List<String> classes, final String shape, final int offset, final int length) {
+			this.hash = hash;
+			this.classes = classes;
+			this.shape = shape;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	private final File file;
+	private final ByteBuffer buffer;
+	private final Map<String, Entry> entries;
+
+	private DefinitionBlob(final File file, final ByteBuffer buffer, final Map<String, Entry> entries) {
+		this.file = file;
+		this.buffer = buffer;
+		this.entries = entries;
+	}
+
+	/**
+	 * @return The precompiled definitions of the config directory, or null if there are none or they can't be read
+	 */
+	static DefinitionBlob open(final String configDir) {
+		final File file = new File(configDir, FILENAME);
+		if (!file.isFile()) {
+			LOGGER.info("No precompiled definitions at " + file + ", run \"ant compile_definitions\" to load them faster");
+			return null;
+		}
+		try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC) {
+				LOGGER.warn(file + " is not a precompiled definitions file, ignoring it");
+				return null;
+			}
+			final int version = buffer.getInt();
+			if (version != VERSION) {
+				LOGGER.warn(file + " has format version " + version + " instead of " + VERSION
+					+ ", run \"ant compile_definitions\" to compile it again");
+				return null;
+			}
+			final int count = buffer.getInt();
+			final Map<String, Entry> entries = new HashMap<>(count * 2);
+			for (int i = 0; i < count; i++) {
+				final String source = getString(buffer);
+				final String hash = getString(buffer);
+				final int classCount = buffer.getInt();
+				final List<String> classes = new ArrayList<>(classCount);
+				for (int j = 0; j < classCount; j++) {
+					classes.add(getString(buffer));
+				}
+				final String shape = getString(buffer);
+				final int length = buffer.getInt();
+				entries.put(source, new Entry(hash, classes, shape, buffer.position(), length));
+				buffer.position(buffer.position() + length);
+			}
+			return new DefinitionBlob(file, buffer, entries);
+		} catch (final IOException | BufferUnderflowException | IllegalArgumentException e) {
+			LOGGER.warn("Could not read the precompiled definitions at " + file + ", loading the sources instead", e);
+			return null;
+		}
+	}
+
+	/**
+	 * @param source The path of the source relative to the config directory, for example defs/DoorDef.xml.gz
+	 * @param hash The current hash of the source, see {@link com.openrsc.server.util.SharedGameData#hashContents}
+	 * @return A new copy of the definitions compiled from the source, or null if they are missing or out of date
+	 */
+	Object read(final String source, final String hash) {
+		final Entry entry = entries.get(source);
+		if (entry == null || !entry.hash.equals(hash)) {
+			LOGGER.warn(file + " is out of date for " + source + ", loading the source instead. "
+				+ "Run \"ant compile_definitions\" to compile it again");
+			return null;
+		}
+		if (!entry.shape.equals(shapeOfClasses(entry.classes))) {
+			LOGGER.warn(file + " holds " + source + " compiled for definition classes whose fields have since changed, "
+				+ "loading the source instead. Run \"ant compile_definitions\" to compile it again");
+			return null;
+		}
+		final ByteBuffer slice = buffer.duplicate();
+		slice.position(entry.offset);
+		slice.limit(entry.offset + entry.length);
+		try (final ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(slice))) {
+			return in.readObject();
+		} catch (final IOException | ClassNotFoundException e) {
+			// Most likely a definition class changed since the file was compiled.
+			LOGGER.warn("Could not read " + source + " from " + file + ", loading the source instead. "
+				+ "Run \"ant compile_definitions\" to compile it again", e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return A hash of the names and types of the serialized fields of the classes, or null if one no longer exists
+	 */
+	private static String shapeOfClasses(final Collection<String> names) {
+		final List<Class<?>> classes = new ArrayList<>(names.size());
+		try {
+			for (final String name : names) {
+				classes.add(Class.forName(name, false, DefinitionBlob.class.getClassLoader()));
+			}
+		} catch (final ClassNotFoundException e) {
+			return null;
+		}
+		return shapeOf(classes);
+	}
+
+	private static String shapeOf(final Collection<Class<?>> classes) {
+		final StringBuilder shape = new StringBuilder();
+		for (final Class<?> type : classes) {
+			shape.append(type.getName()).append('{');
+			final ObjectStreamClass descriptor = ObjectStreamClass.lookup(type);
+			if (descriptor != null) {
+				for (final ObjectStreamField field : descriptor.getFields()) {
+					shape.append(field.getType().getName()).append(' ').append(field.getName()).append(';');
+				}
+			}
+			shape.append('}');
+		}
+		try {
+			final byte[] hash = MessageDigest.getInstance("SHA-256").digest(shape.toString().getBytes(StandardCharsets.UTF_8));
+			return String.format("%064x", new BigInteger(1, hash));
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Could not hash the definition classes", e);
+		}
+	}
+
+	private static String getString(final ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Collects compiled definitions and writes them as a new file.
+	 */
+	static final class Writer {
+		private final Map<String, String> hashes = new LinkedHashMap<>();
+		private final Map<String, Set<Class<?>>> classes = new LinkedHashMap<>();
+		private final Map<String, byte[]> payloads = new LinkedHashMap<>();
+
+		void add(final String source, final String hash, final Object definitions) throws IOException {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (final ClassRecordingOutputStream out = new ClassRecordingOutputStream(bytes)) {
+				out.writeObject(definitions);
+				classes.put(source, out.classes);
+			}
+			hashes.put(source, hash);
+			payloads.put(source, bytes.toByteArray());
+		}
+
+		int size() {
+			return payloads.size();
+		}
+
+		/**
+		 * Writes the file next to the destination and moves it into place, so servers that have the old file
+		 * mapped keep reading the old one.
+		 */
+		void writeTo(final File destination) throws IOException {
+			final Path target = destination.toPath();
+			final Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+			try (final DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(payloads.size());
+				for (final Map.Entry<String, byte[]> payload : payloads.entrySet()) {
+					putString(out, payload.getKey());
+					putString(out, hashes.get(payload.getKey()));
+					final Set<Class<?>> serialized = classes.get(payload.getKey());
+					out.writeInt(serialized.size());
+					for (final Class<?> type : serialized) {
+						putString(out, type.getName());
+					}
+					putString(out, shapeOf(serialized));
+					out.writeInt(payload.getValue().length);
+					out.write(payload.getValue());
+				}
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		private static void putString(final DataOutputStream out, final String value) throws IOException {
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Records every class it writes a descriptor for, which includes the superclasses of each serialized class.
+	 */
+	private static final class ClassRecordingOutputStream extends ObjectOutputStream {
+		private final Set<Class<?>> classes = new LinkedHashSet<>();
+
+		private ClassRecordingOutputStream(final OutputStream out) throws IOException {
+			super(out);
+		}
+
+		@Override
+		protected void annotateClass(final Class<?> type) {
+			classes.add(type);
+		}
+	}
+
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(final ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(final byte[] bytes, final int offset, final int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			final int read = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, read);
+			return read;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.openrsc.server.external;
+
+import com.openrsc.server.util.PersistenceManager;
+import com.openrsc.server.util.SharedGameData;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles the JSON and XStream definition sources of a config directory into the single file read by
+ * {@link DefinitionBlob}, run by the ant build through its compile_definitions target.
+ *
+ * The sources stay the files to edit. The npc and item definitions are compiled as they are in their files,
+ * before the server applies the changes its config asks for.
+ */
+public final class DefinitionCompiler {
+	/**
+	 * The directories, relative to the config directory, whose XStream files are compiled.
+	 */
+	private static final String[] XSTREAM_DIRECTORIES = {"defs", "defs/extras", "locs/extras"};
+
+	private DefinitionCompiler() {
+	}
+
+	/**
+	 * Usage: DefinitionCompiler [config directory]
+	 */
+	public static void main(final String[] args) throws Exception {
+		if (args.length != 1) {
+			System.err.println("Usage: DefinitionCompiler [config directory]");
+			System.exit(1);
+		}
+		final String configDir = args[0];
+		final long start = System.currentTimeMillis();
+		final DefinitionBlob.Writer writer = new DefinitionBlob.Writer();
+
+		for (final String source : EntityHandler.NPC_DEFINITION_FILES) {
+			final File file = new File(configDir, source);
+			writer.add(source, hash(file), EntityHandler.parseNpcs(file));
+		}
+		for (final String source : EntityHandler.ITEM_DEFINITION_FILES) {
+			final File file = new File(configDir, source);
+			writer.add(source, hash(file), EntityHandler.parseItems(file));
+		}
+
+		final PersistenceManager persistenceManager = new PersistenceManager(configDir);
+		for (final String directory : XSTREAM_DIRECTORIES) {
+			final String[] names = new File(configDir, directory).list((dir, name) -> name.endsWith(".xml.gz"));
+			if (names == null) {
+				continue;
+			}
+			Arrays.sort(names);
+			for (final String name : names) {
+				final String source = directory + "/" + name;
+				final Object definitions = persistenceManager.load(source);
+				if (definitions == null) {
+					throw new IllegalStateException("Could not load " + source);
+				}
+				writer.add(source, hash(new File(configDir, source)), definitions);
+			}
+		}
+
+		final File destination = new File(configDir, DefinitionBlob.FILENAME);
+		writer.writeTo(destination);
+		System.out.println("Compiled " + writer.size() + " definition files into " + destination + " ("
+			+ destination.length() + " bytes) in " + (System.currentTimeMillis() - start) + "ms");
+	}
+
+	private static String hash(final File file) {
+		final String hash = SharedGameData.hashContents(file);
+		if (hash == null) {
+			throw new IllegalStateException("Missing definition file " + file);
+		}
+		return hash;
+	}
+}
@@ -1,10 +1,13 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The abstract class EntityDef implements methods for return values which are
  * shared between entities.
  */
-public abstract class EntityDef {
+public abstract class EntityDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The description of the entity
@@ -6,15 +6,18 @@ import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.model.Point;
 import com.openrsc.server.model.TelePoint;
 import com.openrsc.server.util.PersistenceManager;
+import com.openrsc.server.util.SharedGameData;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * This class handles the loading of entities from the conf files, and provides
@@ -28,9 +31,24 @@ public final class EntityHandler {
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
+	/**
+	 * The npc definition files, relative to the config directory, in the order they are loaded.
+	 */
+	static final String[] NPC_DEFINITION_FILES = {"defs/NpcDefs.json", "defs/NpcDefsCustom.json"};
+	/**
+	 * The item definition files, relative to the config directory, in the order they are loaded.
+	 */
+	static final String[] ITEM_DEFINITION_FILES = {"defs/ItemDefs.json", "defs/ItemDefsCustom.json"};
+
 	private final Server server;
 	private final PersistenceManager persistenceManager;
 
+	/**
+	 * The precompiled definitions, opened when the first definitions are loaded, null if there are none.
+	 */
+	private DefinitionBlob blob;
+	private boolean blobOpened = false;
+
 	public ArrayList<ItemDefinition> items;
 	public ArrayList<NPCDef> npcs;
 	public SpellDef[] spells;
@@ -103,6 +121,11 @@ public final class EntityHandler {
 	}
 
 	public void unload() {
+		synchronized (this) {
+			blob = null;
+			blobOpened = false;
+		}
+
 		npcs = null;
 		items = null;
 
@@ -138,96 +161,173 @@ public final class EntityHandler {
 	}
 
 	public void load() {
-		npcs = new ArrayList<>();
-		LOGGER.info("Loading npc definitions...");
-		loadNpcs(getServer().getConfig().CONFIG_DIR + "/defs/NpcDefs.json");
-		loadNpcs(getServer().getConfig().CONFIG_DIR + "/defs/NpcDefsCustom.json");
-		customNpcConditions();
+		loadDefinitions();
+		loadExtras();
+	}
+
+	/**
+	 * Loads the npc and item definitions from their precompiled copies, or from their JSON files where those are
+	 * missing or out of date.
+	 */
+	public void loadDefinitions() {
+		final String[] npcHashes = hashContents(NPC_DEFINITION_FILES);
+		// The key must include every config value read by customNpcConditions().
+		final String npcsKey = String.join(":", npcHashes)
+			+ ":" + getServer().getConfig().RIGHT_CLICK_TRADE + ":" + getServer().getConfig().WANT_RUNECRAFT;
+		npcs = SharedGameData.get(getServer(), "NpcDefs", npcsKey, () -> {
+			final ArrayList<NPCDef> npcs = new ArrayList<>();
+			LOGGER.info("Loading npc definitions...");
+			for (int i = 0; i < NPC_DEFINITION_FILES.length; i++) {
+				loadNpcs(npcs, NPC_DEFINITION_FILES[i], npcHashes[i]);
+			}
+			customNpcConditions(npcs);
+			return npcs;
+		});
 		LOGGER.info("Loaded " + npcs.size() + " npc definitions");
 
-		items = new ArrayList<>();
-		LOGGER.info("Loading item definitions...");
-		loadItems(getServer().getConfig().CONFIG_DIR + "/defs/ItemDefs.json");
-		loadItems(getServer().getConfig().CONFIG_DIR + "/defs/ItemDefsCustom.json");
-		customItemConditions();
+		final String[] itemHashes = hashContents(ITEM_DEFINITION_FILES);
+		// The key must include every config value read by customItemConditions().
+		final String itemsKey = String.join(":", itemHashes)
+			+ ":" + getServer().getConfig().WANT_EQUIPMENT_TAB + ":" + getServer().getConfig().WANT_CUSTOM_SPRITES;
+		items = SharedGameData.get(getServer(), "ItemDefs", itemsKey, () -> {
+			final ArrayList<ItemDefinition> items = new ArrayList<>();
+			LOGGER.info("Loading item definitions...");
+			for (int i = 0; i < ITEM_DEFINITION_FILES.length; i++) {
+				loadItems(items, ITEM_DEFINITION_FILES[i], itemHashes[i]);
+			}
+			customItemConditions(items);
+			return items;
+		});
 		LOGGER.info("Loaded " + items.size() + " item definitions");
+	}
 
-		doors = (DoorDef[]) getPersistenceManager().load("defs/DoorDef.xml.gz");
-		gameObjects = (GameObjectDef[]) getPersistenceManager().load("defs/GameObjectDef.xml.gz");
-		prayers = (PrayerDef[]) getPersistenceManager().load("defs/PrayerDef.xml.gz");
-		spells = (SpellDef[]) getPersistenceManager().load("defs/SpellDef.xml.gz");
-		tiles = (TileDef[]) getPersistenceManager().load("defs/TileDef.xml.gz");
-
-		herbSeconds = (ItemHerbSecond[]) getPersistenceManager().load("defs/extras/ItemHerbSecond.xml.gz");
-		dartTips = (HashMap<Integer, ItemDartTipDef>) getPersistenceManager().load("defs/extras/ItemDartTipDef.xml.gz");
-		gems = (HashMap<Integer, ItemGemDef>) getPersistenceManager().load("defs/extras/ItemGemDef.xml.gz");
-		logCut = (HashMap<Integer, ItemLogCutDef>) getPersistenceManager().load("defs/extras/ItemLogCutDef.xml.gz");
-		bowString = (HashMap<Integer, ItemBowStringDef>) getPersistenceManager().load("defs/extras/ItemBowStringDef.xml.gz");
-		arrowHeads = (HashMap<Integer, ItemArrowHeadDef>) getPersistenceManager().load("defs/extras/ItemArrowHeadDef.xml.gz");
-		firemaking = (HashMap<Integer, FiremakingDef>) getPersistenceManager().load("defs/extras/FiremakingDef.xml.gz");
-		itemAffectedTypes = (HashMap<Integer, int[]>) getPersistenceManager().load("defs/extras/ItemAffectedTypes.xml.gz");
-		itemUnIdentHerb = (HashMap<Integer, ItemUnIdentHerbDef>) getPersistenceManager().load("defs/extras/ItemUnIdentHerbDef.xml.gz");
-		itemHerb = (HashMap<Integer, ItemHerbDef>) getPersistenceManager().load("defs/extras/ItemHerbDef.xml.gz");
-		itemEdibleHeals = (HashMap<Integer, Integer>) getPersistenceManager().load("defs/extras/ItemEdibleHeals.xml.gz");
-		itemCooking = (HashMap<Integer, ItemCookingDef>) getPersistenceManager().load("defs/extras/ItemCookingDef.xml.gz");
-		itemPerfectCooking = (HashMap<Integer, ItemPerfectCookingDef>) getPersistenceManager().load("defs/extras/ItemPerfectCookingDef.xml.gz");
-		itemSmelting = (HashMap<Integer, ItemSmeltingDef>) getPersistenceManager().load("defs/extras/ItemSmeltingDef.xml.gz");
-		itemSmithing = (ItemSmithingDef[]) getPersistenceManager().load("defs/extras/ItemSmithingDef.xml.gz");
-		itemCrafting = (ItemCraftingDef[]) getPersistenceManager().load("defs/extras/ItemCraftingDef.xml.gz");
-		objectMining = (HashMap<Integer, ObjectMiningDef>) getPersistenceManager().load("defs/extras/ObjectMining.xml.gz");
-		objectWoodcutting = (HashMap<Integer, ObjectWoodcuttingDef>) getPersistenceManager().load("defs/extras/ObjectWoodcutting.xml.gz");
-		objectRunecraft = (HashMap<Integer, ObjectRunecraftDef>) getPersistenceManager().load("defs/extras/ObjectRunecraft.xml.gz");
-		objectFishing = (HashMap<Integer, ObjectFishingDef[]>) getPersistenceManager().load("defs/extras/ObjectFishing.xml.gz");
-		objectHarvesting = (HashMap<Integer, ObjectHarvestingDef>) getPersistenceManager().load("defs/extras/ObjectHarvesting.xml.gz");
-		objectTelePoints = (HashMap<Point, TelePoint>) getPersistenceManager().load("locs/extras/ObjectTelePoints.xml.gz");
-		certers = (HashMap<Integer, CerterDef>) getPersistenceManager().load("defs/extras/NpcCerters.xml.gz");
-	}
-
-	private void loadNpcs(String filename) {
-		try {
-			JSONObject object = new JSONObject(new String(Files.readAllBytes(Paths.get(filename))));
-			JSONArray npcDefs = object.getJSONArray(JSONObject.getNames(object)[0]);
-			for (int i = 0; i < npcDefs.length(); i++) {
-				NPCDef def = new NPCDef();
-				JSONObject npc = npcDefs.getJSONObject(i);
-				def.name = npc.getString("name");
-				def.description = npc.getString("description");
-				def.command1 = npc.getString("command");
-				def.command2 = npc.getString("command2");
-				def.attack = npc.getInt("attack");
-				def.strength = npc.getInt("strength");
-				def.hits = npc.getInt("hits");
-				def.defense = npc.getInt("defense");
-				def.ranged = npc.getBoolean("ranged") ? 1 : 0;
-				def.combatLevel = npc.getInt("combatlvl");
-				def.members = npc.getInt("isMembers") == 1;
-				def.attackable = npc.getInt("attackable") == 1;
-				def.aggressive = npc.getInt("aggressive") == 1;
-				def.respawnTime = npc.getInt("respawnTime");
-				int[] sprites = new int[12];
-				for (int j = 0; j < 12; j++) {
-					sprites[j] = npc.getInt("sprites" + (j+1));
-				}
-				def.sprites = sprites;
-				def.hairColour = npc.getInt("hairColour");
-				def.topColour = npc.getInt("topColour");
-				def.bottomColour = npc.getInt("bottomColour");
-				def.skinColour = npc.getInt("skinColour");
-				def.camera1 = npc.getInt("camera1");
-				def.camera2 = npc.getInt("camera2");
-				def.walkModel = npc.getInt("walkModel");
-				def.combatModel = npc.getInt("combatModel");
-				def.combatSprite = npc.getInt("combatSprite");
-				def.roundMode = npc.getInt("roundMode");
-				npcs.add(def);
+	/**
+	 * Loads the remaining definitions from their precompiled copies or XStream files, independently of
+	 * {@link #loadDefinitions()}. Servers loading identical files share the same definitions.
+	 */
+	public void loadExtras() {
+		doors = (DoorDef[]) loadShared("defs/DoorDef.xml.gz");
+		gameObjects = (GameObjectDef[]) loadShared("defs/GameObjectDef.xml.gz");
+		prayers = (PrayerDef[]) loadShared("defs/PrayerDef.xml.gz");
+		spells = (SpellDef[]) loadShared("defs/SpellDef.xml.gz");
+		tiles = (TileDef[]) loadShared("defs/TileDef.xml.gz");
+
+		herbSeconds = (ItemHerbSecond[]) loadShared("defs/extras/ItemHerbSecond.xml.gz");
+		dartTips = (HashMap<Integer, ItemDartTipDef>) loadShared("defs/extras/ItemDartTipDef.xml.gz");
+		gems = (HashMap<Integer, ItemGemDef>) loadShared("defs/extras/ItemGemDef.xml.gz");
+		logCut = (HashMap<Integer, ItemLogCutDef>) loadShared("defs/extras/ItemLogCutDef.xml.gz");
+		bowString = (HashMap<Integer, ItemBowStringDef>) loadShared("defs/extras/ItemBowStringDef.xml.gz");
+		arrowHeads = (HashMap<Integer, ItemArrowHeadDef>) loadShared("defs/extras/ItemArrowHeadDef.xml.gz");
+		firemaking = (HashMap<Integer, FiremakingDef>) loadShared("defs/extras/FiremakingDef.xml.gz");
+		itemAffectedTypes = (HashMap<Integer, int[]>) loadShared("defs/extras/ItemAffectedTypes.xml.gz");
+		itemUnIdentHerb = (HashMap<Integer, ItemUnIdentHerbDef>) loadShared("defs/extras/ItemUnIdentHerbDef.xml.gz");
+		itemHerb = (HashMap<Integer, ItemHerbDef>) loadShared("defs/extras/ItemHerbDef.xml.gz");
+		itemEdibleHeals = (HashMap<Integer, Integer>) loadShared("defs/extras/ItemEdibleHeals.xml.gz");
+		itemCooking = (HashMap<Integer, ItemCookingDef>) loadShared("defs/extras/ItemCookingDef.xml.gz");
+		itemPerfectCooking = (HashMap<Integer, ItemPerfectCookingDef>) loadShared("defs/extras/ItemPerfectCookingDef.xml.gz");
+		itemSmelting = (HashMap<Integer, ItemSmeltingDef>) loadShared("defs/extras/ItemSmeltingDef.xml.gz");
+		itemSmithing = (ItemSmithingDef[]) loadShared("defs/extras/ItemSmithingDef.xml.gz");
+		itemCrafting = (ItemCraftingDef[]) loadShared("defs/extras/ItemCraftingDef.xml.gz");
+		objectMining = (HashMap<Integer, ObjectMiningDef>) loadShared("defs/extras/ObjectMining.xml.gz");
+		objectWoodcutting = (HashMap<Integer, ObjectWoodcuttingDef>) loadShared("defs/extras/ObjectWoodcutting.xml.gz");
+		objectRunecraft = (HashMap<Integer, ObjectRunecraftDef>) loadShared("defs/extras/ObjectRunecraft.xml.gz");
+		objectFishing = (HashMap<Integer, ObjectFishingDef[]>) loadShared("defs/extras/ObjectFishing.xml.gz");
+		objectHarvesting = (HashMap<Integer, ObjectHarvestingDef>) loadShared("defs/extras/ObjectHarvesting.xml.gz");
+		objectTelePoints = (HashMap<Point, TelePoint>) loadShared("locs/extras/ObjectTelePoints.xml.gz");
+		certers = (HashMap<Integer, CerterDef>) loadShared("defs/extras/NpcCerters.xml.gz");
+	}
+
+	private Object loadShared(final String filename) {
+		final File file = new File(getServer().getConfig().CONFIG_DIR, filename);
+		final String hash = SharedGameData.hashContents(file);
+		return SharedGameData.get(getServer(), file.getPath(), String.valueOf(hash), () -> {
+			final Object compiled = readCompiled(filename, hash);
+			return compiled != null ? compiled : getPersistenceManager().load(filename);
+		});
+	}
+
+	private String[] hashContents(final String[] filenames) {
+		final String[] hashes = new String[filenames.length];
+		for (int i = 0; i < filenames.length; i++) {
+			hashes[i] = SharedGameData.hashContents(new File(getServer().getConfig().CONFIG_DIR, filenames[i]));
+		}
+		return hashes;
+	}
+
+	/**
+	 * @return A new copy of the precompiled definitions of the file, or null if they are missing or out of date
+	 */
+	private Object readCompiled(final String filename, final String hash) {
+		final DefinitionBlob blob;
+		synchronized (this) {
+			if (!blobOpened) {
+				this.blob = DefinitionBlob.open(getServer().getConfig().CONFIG_DIR);
+				blobOpened = true;
 			}
+			blob = this.blob;
+		}
+		return blob == null || hash == null ? null : blob.read(filename, hash);
+	}
+
+	private void loadNpcs(final List<NPCDef> npcs, final String filename, final String hash) {
+		final Object compiled = readCompiled(filename, hash);
+		if (compiled != null) {
+			npcs.addAll((List<NPCDef>) compiled);
+			return;
+		}
+		try {
+			npcs.addAll(parseNpcs(new File(getServer().getConfig().CONFIG_DIR, filename)));
 		}
 		catch (Exception e) {
 			LOGGER.error(e);
 		}
 	}
 
-	private void customNpcConditions() {
+	/**
+	 * @return The npc definitions of the JSON file, as they are in the file
+	 */
+	static ArrayList<NPCDef> parseNpcs(final File file) throws IOException {
+		final ArrayList<NPCDef> npcs = new ArrayList<>();
+		JSONObject object = new JSONObject(new String(Files.readAllBytes(file.toPath())));
+		JSONArray npcDefs = object.getJSONArray(JSONObject.getNames(object)[0]);
+		for (int i = 0; i < npcDefs.length(); i++) {
+			NPCDef def = new NPCDef();
+			JSONObject npc = npcDefs.getJSONObject(i);
+			def.name = npc.getString("name");
+			def.description = npc.getString("description");
+			def.command1 = npc.getString("command");
+			def.command2 = npc.getString("command2");
+			def.attack = npc.getInt("attack");
+			def.strength = npc.getInt("strength");
+			def.hits = npc.getInt("hits");
+			def.defense = npc.getInt("defense");
+			def.ranged = npc.getBoolean("ranged") ? 1 : 0;
+			def.combatLevel = npc.getInt("combatlvl");
+			def.members = npc.getInt("isMembers") == 1;
+			def.attackable = npc.getInt("attackable") == 1;
+			def.aggressive = npc.getInt("aggressive") == 1;
+			def.respawnTime = npc.getInt("respawnTime");
+			int[] sprites = new int[12];
+			for (int j = 0; j < 12; j++) {
+				sprites[j] = npc.getInt("sprites" + (j+1));
+			}
+			def.sprites = sprites;
+			def.hairColour = npc.getInt("hairColour");
+			def.topColour = npc.getInt("topColour");
+			def.bottomColour = npc.getInt("bottomColour");
+			def.skinColour = npc.getInt("skinColour");
+			def.camera1 = npc.getInt("camera1");
+			def.camera2 = npc.getInt("camera2");
+			def.walkModel = npc.getInt("walkModel");
+			def.combatModel = npc.getInt("combatModel");
+			def.combatSprite = npc.getInt("combatSprite");
+			def.roundMode = npc.getInt("roundMode");
+			npcs.add(def);
+		}
+		return npcs;
+	}
+
+	private void customNpcConditions(final List<NPCDef> npcs) {
 		if (getServer().getConfig().RIGHT_CLICK_TRADE) {
 			for (int npcId : quickTradeNpcs) {
 				npcs.get(npcId).setCommand1("Trade");
@@ -247,48 +347,62 @@ public final class EntityHandler {
 		}
 	}
 
-	private void loadItems(String filename) {
+	private void loadItems(final List<ItemDefinition> items, final String filename, final String hash) {
+		final Object compiled = readCompiled(filename, hash);
+		if (compiled != null) {
+			items.addAll((List<ItemDefinition>) compiled);
+			return;
+		}
 		try {
-			JSONObject object = new JSONObject(new String(Files.readAllBytes(Paths.get(filename))));
-			JSONArray itemDefs = object.getJSONArray(JSONObject.getNames(object)[0]);
-			for (int i = 0; i < itemDefs.length(); i++) {
-				JSONObject item = itemDefs.getJSONObject(i);
-				ItemDefinition toAdd = new ItemDefinition(
-					item.getInt("id"),
-					item.getString("name"),
-					item.getString("description"),
-					item.getString("command").split(","),
-					item.getInt("isFemaleOnly") == 1,
-					item.getInt("isMembersOnly") == 1,
-					item.getInt("isStackable") == 1,
-					item.getInt("isUntradable") == 1,
-					item.getInt("isWearable") == 1,
-					item.getInt("appearanceID"),
-					item.getInt("wearableID"),
-					item.getInt("wearSlot"),
-					item.getInt("requiredLevel"),
-					item.getInt("requiredSkillID"),
-					item.getInt("armourBonus"),
-					item.getInt("weaponAimBonus"),
-					item.getInt("weaponPowerBonus"),
-					item.getInt("magicBonus"),
-					item.getInt("prayerBonus"),
-					item.getInt("basePrice"),
-					item.getInt("isNoteable") == 1
-				);
-
-				if (toAdd.getCommand().length == 1 && toAdd.getCommand()[0] == "") {
-					toAdd.nullCommand();
-				}
-				items.add(toAdd);
-			}
+			items.addAll(parseItems(new File(getServer().getConfig().CONFIG_DIR, filename)));
 		}
 		catch (Exception e) {
 			LOGGER.error(e);
 		}
 	}
 
-	private void customItemConditions() {
+	/**
+	 * @return The item definitions of the JSON file, as they are in the file
+	 */
+	static ArrayList<ItemDefinition> parseItems(final File file) throws IOException {
+		final ArrayList<ItemDefinition> items = new ArrayList<>();
+		JSONObject object = new JSONObject(new String(Files.readAllBytes(file.toPath())));
+		JSONArray itemDefs = object.getJSONArray(JSONObject.getNames(object)[0]);
+		for (int i = 0; i < itemDefs.length(); i++) {
+			JSONObject item = itemDefs.getJSONObject(i);
+			ItemDefinition toAdd = new ItemDefinition(
+				item.getInt("id"),
+				item.getString("name"),
+				item.getString("description"),
+				item.getString("command").split(","),
+				item.getInt("isFemaleOnly") == 1,
+				item.getInt("isMembersOnly") == 1,
+				item.getInt("isStackable") == 1,
+				item.getInt("isUntradable") == 1,
+				item.getInt("isWearable") == 1,
+				item.getInt("appearanceID"),
+				item.getInt("wearableID"),
+				item.getInt("wearSlot"),
+				item.getInt("requiredLevel"),
+				item.getInt("requiredSkillID"),
+				item.getInt("armourBonus"),
+				item.getInt("weaponAimBonus"),
+				item.getInt("weaponPowerBonus"),
+				item.getInt("magicBonus"),
+				item.getInt("prayerBonus"),
+				item.getInt("basePrice"),
+				item.getInt("isNoteable") == 1
+			);
+
+			if (toAdd.getCommand().length == 1 && toAdd.getCommand()[0] == "") {
+				toAdd.nullCommand();
+			}
+			items.add(toAdd);
+		}
+		return items;
+	}
+
+	private void customItemConditions(final List<ItemDefinition> items) {
 		if (getServer().getConfig().WANT_EQUIPMENT_TAB) {
 			// Make arrows wieldable.
 			int[] wieldableArrows = new int[] {
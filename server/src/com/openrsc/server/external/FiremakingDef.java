@@ -1,6 +1,10 @@
 package com.openrsc.server.external;
 
-public class FiremakingDef {
+import java.io.Serializable;
+
+public class FiremakingDef implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The exp given by these logs
 	 */
@@ -4,6 +4,7 @@ package com.openrsc.server.external;
  * The definition wrapper for game objects
  */
 public class GameObjectDef extends EntityDef {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The first command of the object
@@ -1,6 +1,10 @@
 package com.openrsc.server.external;
 
-public class ItemCraftingDef {
+import java.io.Serializable;
+
+public class ItemCraftingDef implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The exp given
 	 */
@@ -1,6 +1,10 @@
 package com.openrsc.server.external;
 
-public class ItemDropDef {
+import java.io.Serializable;
+
+public class ItemDropDef implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	public int amount;
 	public int id;
 	public int weight;
@@ -1,6 +1,10 @@
 package com.openrsc.server.external;
 
-public class ItemSmithingDef {
+import java.io.Serializable;
+
+public class ItemSmithingDef implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The amount of the item produced
 	 */
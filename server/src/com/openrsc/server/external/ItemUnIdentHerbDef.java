@@ -1,9 +1,12 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for herbs
  */
-public class ItemUnIdentHerbDef {
+public class ItemUnIdentHerbDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * How much experience identifying gives
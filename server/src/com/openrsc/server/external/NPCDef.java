@@ -4,6 +4,8 @@ package com.openrsc.server.external;
  * The definition wrapper for npcs
  */
 public class NPCDef extends EntityDef {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Whether the npc is aggressive
 	 */
@@ -2,10 +2,13 @@ package com.openrsc.server.external;
 
 import com.openrsc.server.model.world.World;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for fishing spots
  */
-public class ObjectFishingDef {
+public class ObjectFishingDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The If of any bait required to go with the net
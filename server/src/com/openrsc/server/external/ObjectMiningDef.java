@@ -1,9 +1,12 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for rocks
  */
-public class ObjectMiningDef {
+public class ObjectMiningDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * How much experience identifying gives
@@ -1,6 +1,9 @@
 package com.openrsc.server.external;
 
-public final class ObjectRunecraftDef {
+import java.io.Serializable;
+
+public final class ObjectRunecraftDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	//Level required to use this altar
 	public int requiredLvl;
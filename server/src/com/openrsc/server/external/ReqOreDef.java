@@ -1,9 +1,12 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for ores
  */
-public class ReqOreDef {
+public class ReqOreDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The amount of the ore required
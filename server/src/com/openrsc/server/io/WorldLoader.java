@@ -3,9 +3,10 @@ package com.openrsc.server.io;
 import com.openrsc.server.constants.Constants;
 import com.openrsc.server.database.WorldPopulator;
 import com.openrsc.server.model.world.World;
+import com.openrsc.server.model.world.region.CollisionMap;
 import com.openrsc.server.model.world.region.Region;
 import com.openrsc.server.model.world.region.RegionManager;
-import com.openrsc.server.model.world.region.TileValue;
+import com.openrsc.server.util.SharedGameData;
 import com.openrsc.server.util.rsc.DataConversions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -42,7 +43,7 @@ public class WorldLoader {
 		return false;
 	}
 
-	private boolean loadSection(final int sectionX, final int sectionY, final int height, final int bigX, final int bigY) {
+	private boolean loadSection(final CollisionMap collisionMap, final int sectionX, final int sectionY, final int height, final int bigX, final int bigY) {
 		Sector s = null;
 		try {
 			final String filename = "h" + height + "x" + sectionX + "y" + sectionY;
@@ -65,13 +66,12 @@ public class WorldLoader {
 					continue;
 				}
 				Tile sectorTile = s.getTile(x, y);
-				TileValue tile = getWorld().getTile(bx, by);
 
-				tile.overlay = sectorTile.groundOverlay;
-				tile.diagWallVal = sectorTile.diagonalWalls;
-				tile.horizontalWallVal = sectorTile.horizontalWall;
-				tile.verticalWallVal = sectorTile.verticalWall;
-				tile.elevation = sectorTile.groundElevation;
+				collisionMap.setOverlay(bx, by, sectorTile.groundOverlay);
+				collisionMap.setDiagWallVal(bx, by, sectorTile.diagonalWalls);
+				collisionMap.setHorizontalWallVal(bx, by, sectorTile.horizontalWall);
+				collisionMap.setVerticalWallVal(bx, by, sectorTile.verticalWall);
+				collisionMap.setElevation(bx, by, sectorTile.groundElevation);
 
 				if ((sectorTile.groundOverlay & 0xff) == 250) {
 					sectorTile.groundOverlay = (byte) 2;
@@ -81,7 +81,7 @@ public class WorldLoader {
 				if (groundOverlay > 0
 					&& getWorld().getServer().getEntityHandler().getTileDef(groundOverlay - 1)
 					.getObjectType() != 0) {
-					tile.traversalMask |= 0x40; // 64
+					collisionMap.addTraversalFlags(bx, by, 0x40); // 64
 				}
 
 				final int verticalWall = sectorTile.verticalWall & 0xFF;
@@ -90,12 +90,12 @@ public class WorldLoader {
 					.getUnknown() == 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(verticalWall - 1)
 					.getDoorType() != 0) {
-					getWorld().getTile(bx, by).traversalMask |= 1; // 1
-					getWorld().getTile(bx, by - 1).traversalMask |= 4; // 4
+					collisionMap.addTraversalFlags(bx, by, 1); // 1
+					collisionMap.addTraversalFlags(bx, by - 1, 4); // 4
 
 					if (projectileClipAllowed(verticalWall)) {
-						tile.projectileAllowed = true;
-						getWorld().getTile(bx, by - 1).projectileAllowed = true;
+						collisionMap.setProjectileAllowed(bx, by, true);
+						collisionMap.setProjectileAllowed(bx, by - 1, true);
 					}
 				}
 
@@ -105,11 +105,11 @@ public class WorldLoader {
 					.getUnknown() == 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(horizontalWall - 1)
 					.getDoorType() != 0) {
-					tile.traversalMask |= 2; // 2
-					getWorld().getTile(bx - 1, by).traversalMask |= 8; // 8
+					collisionMap.addTraversalFlags(bx, by, 2); // 2
+					collisionMap.addTraversalFlags(bx - 1, by, 8); // 8
 					if (projectileClipAllowed(horizontalWall)) {
-						tile.projectileAllowed = true;
-						getWorld().getTile(bx - 1, by).projectileAllowed = true;
+						collisionMap.setProjectileAllowed(bx, by, true);
+						collisionMap.setProjectileAllowed(bx - 1, by, true);
 					}
 				}
 
@@ -120,9 +120,9 @@ public class WorldLoader {
 					.getUnknown() == 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(diagonalWalls - 1)
 					.getDoorType() != 0) {
-					tile.traversalMask |= 0x20; // 32
+					collisionMap.addTraversalFlags(bx, by, 0x20); // 32
 					if (projectileClipAllowed(diagonalWalls)) {
-						tile.projectileAllowed = true;
+						collisionMap.setProjectileAllowed(bx, by, true);
 					}
 				}
 				if (diagonalWalls > 12000
@@ -131,15 +131,15 @@ public class WorldLoader {
 					.getUnknown() == 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(diagonalWalls - 12001)
 					.getDoorType() != 0) {
-					tile.traversalMask |= 0x10; // 16
+					collisionMap.addTraversalFlags(bx, by, 0x10); // 16
 
 					if (projectileClipAllowed(diagonalWalls)) {
-						tile.projectileAllowed = true;
+						collisionMap.setProjectileAllowed(bx, by, true);
 					}
 				}
 
-				if (tile.overlay == 2 || tile.overlay == 11) {
-					tile.projectileAllowed = true;
+				if (collisionMap.getOverlay(bx, by) == 2 || collisionMap.getOverlay(bx, by) == 11) {
+					collisionMap.setProjectileAllowed(bx, by, true);
 				}
 			}
 		}
@@ -147,17 +147,45 @@ public class WorldLoader {
 
 	}
 
-	public void loadWorld() {
+	public void loadWorld(final RegionManager regionManager) {
 		final long start = System.currentTimeMillis();
-		try {
-			if (getWorld().getServer().getConfig().MEMBER_WORLD) {
-				if (getWorld().getServer().getConfig().WANT_CUSTOM_LANDSCAPE)
-					tileArchive = new ZipFile(new File("./conf/server/data/Custom_P2PLandscape.orsc")); // Members landscape
-				else
-					tileArchive = new ZipFile(new File("./conf/server/data/Authentic_P2PLandscape.orsc")); // Members landscape
-			} else {
-				tileArchive = new ZipFile(new File("./conf/server/data/F2PLandscape.orsc")); // Free landscape
+		for (int regionX = 0; regionX < RegionManager.WIDTH_IN_REGIONS; regionX++) {
+			for (int regionY = 0; regionY < RegionManager.HEIGHT_IN_REGIONS; regionY++) {
+				// Regions are kept when reloading the landscape, they hold the entities in the world.
+				if (regionManager.getRegionFromSectorCoordinates(regionX, regionY) == null) {
+					regionManager.setRegion(new Region(regionManager, regionX, regionY));
+				}
 			}
+		}
+
+		final File archive;
+		if (getWorld().getServer().getConfig().MEMBER_WORLD) {
+			if (getWorld().getServer().getConfig().WANT_CUSTOM_LANDSCAPE)
+				archive = new File("./conf/server/data/Custom_P2PLandscape.orsc"); // Members landscape
+			else
+				archive = new File("./conf/server/data/Authentic_P2PLandscape.orsc"); // Members landscape
+		} else {
+			archive = new File("./conf/server/data/F2PLandscape.orsc"); // Free landscape
+		}
+
+		// The decoded landscape depends on the archive and on the door and tile definitions.
+		final String configDir = getWorld().getServer().getConfig().CONFIG_DIR;
+		final String landscapeKey = SharedGameData.hashFiles(archive,
+			new File(configDir, "defs/DoorDef.xml.gz"), new File(configDir, "defs/TileDef.xml.gz"));
+		final CollisionMap landscape = SharedGameData.get(getWorld().getServer(), "Landscape", landscapeKey, () -> decodeLandscape(archive));
+		regionManager.getCollisionMap().copyFrom(landscape);
+
+		LOGGER.info((System.currentTimeMillis() - start) + "ms to load landscape.");
+	}
+
+	/**
+	 * Decodes a landscape archive into a new collision map, shared by every server loading the same landscape.
+	 */
+	private CollisionMap decodeLandscape(final File archive) {
+		final long start = System.currentTimeMillis();
+		final CollisionMap collisionMap = new CollisionMap(Constants.MAX_WIDTH, Constants.MAX_HEIGHT);
+		try {
+			tileArchive = new ZipFile(archive);
 		} catch (final Exception e) {
 			LOGGER.catching(e);
 		}
@@ -169,31 +197,15 @@ public class WorldLoader {
 				for (int sy = 0; sy < 944; sy += 48) {
 					int x = (sx + wildX) / 48;
 					int y = (sy + (lvl * 944) + wildY) / 48;
-					if (loadSection(x, y, lvl, sx, sy + (944 * lvl))) {
+					if (loadSection(collisionMap, x, y, lvl, sx, sy + (944 * lvl))) {
 						sectors++;
 					}
 				}
 			}
 		}
 
-		// Detect if all tiles in each Region are equal, and if so only store that fact rather than array of all tiles.
-		// There are a lot of "null" sectors in the map file and storing tile values for all eats a lot of memory.
-		// The authentic map file may have a way to flag null regions and only use one tile value across the entire thing
-		// Unfortunately, the map files we are using currently do not support that feature so we need to detect
-		// Unfortunately, we also have to allocate all the tiles and then clear them because the process of loading a sector can effect other sectors.
-		// Downside is that Scenery/Boundary spawn can change tile values, and if one is spawned in a "null region," then we will not be able to change the tile value from the Scenery/Boundary spawn.
-
-		final RegionManager regionManager = getWorld().getRegionManager();
-		for (int lvl = 0; lvl < 4; lvl++) {
-			for (int sx = 0; sx < 20; sx++) {
-				for (int sy = 0; sy < 20; sy++) {
-					final Region region = regionManager.getRegion(sx * Constants.REGION_SIZE, sy * Constants.REGION_SIZE + (Constants.REGION_SIZE * 20 * lvl));
-					region.checkRegionValues();
-				}
-			}
-		}
-
-		LOGGER.info((System.currentTimeMillis() - start) + "ms to load landscape with " + sectors + " regions.");
+		LOGGER.info((System.currentTimeMillis() - start) + "ms to decode landscape with " + sectors + " regions.");
+		return collisionMap;
 	}
 
 	public void unloadWorld() {
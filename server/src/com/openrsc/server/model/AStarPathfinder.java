@@ -1,419 +1,578 @@
 package com.openrsc.server.model;
 
 import com.openrsc.server.model.world.World;
-import com.openrsc.server.model.world.region.TileValue;
+import com.openrsc.server.model.world.region.CollisionMap;
 import com.openrsc.server.util.rsc.CollisionFlag;
 
-import javax.swing.*;
-import java.awt.*;
-import java.util.ArrayList;
-
+import java.util.Arrays;
+
+/**
+ * A* search for a path to a point at most depth tiles away from the start on either axis.
+ *
+ * The search runs on a board of (2 * depth + 1) squared cells centred on the start, with board x increasing to the
+ * east and board y to the south. Its state lives in primitive arrays that each thread reuses between searches,
+ * invalidated by bumping a generation number instead of clearing them. The walls blocking each cell are only read
+ * from the collision map once the search reaches the cell.
+ *
+ * The open set is a binary heap ordered by the estimated total cost, then the cost so far, then the order the cells
+ * were opened in. That is the cell the previous list based search picked, so the paths found are unchanged.
+ *
+ * Deep searches, see {@link #MAX_A_STAR_DEPTH}, should use {@link #findJumpPointPath()} instead. It finds a path
+ * just as short over the same board while only opening the cells where the path may have to turn.
+ */
 public class AStarPathfinder {
 
-	boolean debug = false;
-	//JPanel2 panel = new JPanel2();
-	//JFrame frame = new JFrame();
-	//javax.swing.GroupLayout layout = new javax.swing.GroupLayout(panel);
+	/**
+	 * The deepest search that should use {@link #findPath()} rather than {@link #findJumpPointPath()}.
+	 */
+	public static final int MAX_A_STAR_DEPTH = 20;
+
 	final static int basicCost = 10;
 	final static int diagCost = 14;
-	private int depth;
-	private Node[][] costBoard = null;
-	private Path bestPath = null;
-	private Point worldStart;
-	private Point pointStart;
-	private Point pointEnd;
-	private Point currentPosition;
+
+	private static final int NORTH = CollisionFlag.WALL_NORTH;
+	private static final int EAST = CollisionFlag.WALL_EAST;
+	private static final int SOUTH = CollisionFlag.WALL_SOUTH;
+	private static final int WEST = CollisionFlag.WALL_WEST;
+	private static final int WALLS = NORTH | EAST | SOUTH | WEST;
+
+	/**
+	 * The board steps of each direction, in the order the cells around a cell are searched.
+	 */
+	private static final int[] DX = {0, -1, 0, 1, -1, -1, 1, 1};
+	private static final int[] DY = {1, 0, -1, 0, 1, -1, -1, 1};
+	private static final int ALL_DIRECTIONS = 0xFF;
+	/**
+	 * The most steps a jump takes before stopping at the cell it reached. Jumps across open ground would otherwise
+	 * scan the whole board from the first cell, while stopping them keeps the search heading towards the end.
+	 */
+	private static final int JUMP_LIMIT = 8;
+
+	private static final byte OPEN = 1;
+	private static final byte CLOSED = 2;
+
+	private static final ThreadLocal<Board> boards = ThreadLocal.withInitial(Board::new);
+
+	private final CollisionMap collisionMap;
+	private final Point worldStart;
+	private final int depth;
+	private final int side;
+	private final int endX;
+	private final int endY;
+	private Path path;
 	long starttime;
 	long endtime;
-	private Path path;
-	private ArrayList<Node> openNodes = new ArrayList<>();
-	private ArrayList<Node> closedNodes = new ArrayList<>();
 
 	public AStarPathfinder(World world, Point start, Point end, int depth) {
+		this(world.getCollisionMap(), start, end, depth);
+	}
+
+	AStarPathfinder(CollisionMap collisionMap, Point start, Point end, int depth) {
+		this.collisionMap = collisionMap;
 		this.worldStart = start;
-		this.pointStart = new Point(depth,depth);
-		this.pointEnd = new Point((start.getX()+depth)-end.getX(), end.getY() - (start.getY() - depth));
 		this.depth = depth;
-		this.generateTraversalInfo(world, start, depth);
-		/*
-		if (debug) {
-			panel.setLayout(layout);
-			frame.add(panel);
-			frame.setSize(600, 600);
-			frame.setVisible(true);
-		}
-		 */
+		this.side = 2 * depth + 1;
+		this.endX = (start.getX() + depth) - end.getX();
+		this.endY = end.getY() - (start.getY() - depth);
 	}
 
 	public void feedPath(Path path) {
 		this.path = path;
 	}
-	public void generateTraversalInfo(World world, Point center, int depth) {
-		if (depth < 1)
-			return;
-
-		costBoard = new Node[2*depth + 1][2*depth + 1];
-		initBoard(costBoard);
-		int curposx, curposy;
-		for (int x = -depth; x <= depth; x++) {
-			for (int y = -depth; y <= depth; y++) {
-				TileValue tile = world.getTile(center.getX() - x, center.getY() + y);
-				if (tile == null) {
-					continue;
-				}
-				curposx = x + depth;
-				curposy = y + depth;
-
-				if ((tile.traversalMask & (CollisionFlag.FULL_BLOCK_A | CollisionFlag.FULL_BLOCK_B | CollisionFlag.FULL_BLOCK_C)) != 0) {
-					if (y < depth) {
-						costBoard[curposx][curposy+1].northBlocked = true;
-					}
-					if (x > -depth) {
-						costBoard[curposx-1][curposy].eastBlocked = true;
-					}
-					if (y > -depth) {
-						costBoard[curposx][curposy-1].southBlocked = true;
-					}
-					if (x < depth) {
-						costBoard[curposx+1][curposy].westBlocked = true;
-					}
-				} else {
-					if (!costBoard[curposx][curposy].southBlocked)
-						costBoard[curposx][curposy].southBlocked = (tile.traversalMask & CollisionFlag.SOUTH_BLOCKED) != 0;
-					if (!costBoard[curposx][curposy].westBlocked)
-						costBoard[curposx][curposy].westBlocked = (tile.traversalMask & CollisionFlag.WEST_BLOCKED) != 0;
-					if (!costBoard[curposx][curposy].northBlocked)
-						costBoard[curposx][curposy].northBlocked = (tile.traversalMask & CollisionFlag.NORTH_BLOCKED) != 0;
-					if (!costBoard[curposx][curposy].eastBlocked)
-						costBoard[curposx][curposy].eastBlocked = (tile.traversalMask & CollisionFlag.EAST_BLOCKED) != 0;
-				}
-			}
-		}
-	}
-
-	private int calcDistance(Point one, Point two) {
-		int xdiff = Math.abs(one.getX() - two.getX());
-		int ydiff = Math.abs(one.getY() - two.getY());
-
-		int shortL = xdiff > ydiff ? ydiff : xdiff;
-		int longL = xdiff > ydiff ? xdiff : ydiff;
 
-		return shortL * diagCost + (longL - shortL) * basicCost;
-	}
+	/**
+	 * @return The path fed to the pathfinder with the steps to the end added, or null if the end is unreachable
+	 * within the search window or is the start
+	 */
+	public Path findPath() {
+		if (depth < 1)
+			return null;
 
-	public Node findNextNode() {
-		int minimum = Integer.MAX_VALUE;
-		Node minNode = null;
-		for (Node node : openNodes) {
-			if (node.hCost < minimum) {
-				minimum = node.hCost;
-				minNode = node;
-			} else if (node.hCost == minimum && node.fCost < minNode.fCost)
-				minNode = node;
+		if (endX == depth && endY == depth)
+			return null;
 
+		starttime = System.currentTimeMillis();
+		final Board board = boards.get();
+		board.reset(side * side);
+		try {
+			final int end = endX >= 0 && endX < side && endY >= 0 && endY < side ? endX * side + endY : -1;
+			final int start = depth * side + depth;
+			board.stamp[start] = board.generation;
+			board.state[start] = CLOSED;
+			board.cost[start] = 0;
+			board.parent[start] = -1;
+			expand(board, start);
+
+			while (true) {
+				final int next = board.poll();
+				if (next < 0)
+					return null;
+
+				if (next == end)
+					return buildPath(board, end);
+
+				board.state[next] = CLOSED;
+				expand(board, next);
+			}
+		} finally {
+			endtime = System.currentTimeMillis();
 		}
-		return minNode;
 	}
 
-	private Path buildPath() {
-		Point parent = closedNodes.get(closedNodes.size()-1).parent;
-		Node endNode = costBoard[parent.getX()][parent.getY()];
-		while (endNode != null) {
-			int worldX = worldStart.getX() + depth - endNode.position.getX();
-			int worldY = worldStart.getY() - depth + endNode.position.getY();
-			if (endNode.parent == null)
-				endNode = null;
-			else {
-				path.addDirect(worldX, worldY);
-				endNode = costBoard[endNode.parent.getX()][endNode.parent.getY()];
-			}
-
-		}
-		return path;
+	/**
+	 * @return The path found by {@link #findJumpPointPath()} if the search is deeper than {@link #MAX_A_STAR_DEPTH},
+	 * otherwise by {@link #findPath()}
+	 */
+	public Path findPathForDepth() {
+		return depth > MAX_A_STAR_DEPTH ? findJumpPointPath() : findPath();
 	}
 
-	public Path findPath() {
+	/**
+	 * Searches like {@link #findPath()}, but jumps over the cells of open ground a shortest path could cross without
+	 * turning, so deep searches open only a fraction of the board. The path found is as short as the one
+	 * {@link #findPath()} would find, though it may take a different route of the same length.
+	 *
+	 * @return The path fed to the pathfinder with the first steps to the end added, or null if the end is unreachable
+	 * within the search window or is the start
+	 */
+	public Path findJumpPointPath() {
 		if (depth < 1)
 			return null;
 
-		if (pointStart.getX() == pointEnd.getX()
-		&& pointStart.getY() == pointEnd.getY())
+		if (endX == depth && endY == depth)
 			return null;
 
-		boolean quit = false;
-		starttime = System.currentTimeMillis();
-		costBoard[depth][depth].selectNode();
+		if (endX < 0 || endX >= side || endY < 0 || endY >= side)
+			return null;
 
-		while (true) {
-			Node next = findNextNode();
+		starttime = System.currentTimeMillis();
+		final Board board = boards.get();
+		board.reset(side * side);
+		try {
+			final int end = endX * side + endY;
+			final int start = depth * side + depth;
+			board.stamp[start] = board.generation;
+			board.state[start] = CLOSED;
+			board.cost[start] = 0;
+			board.parent[start] = -1;
+			jumpFrom(board, start, end);
+
+			while (true) {
+				final int next = board.poll();
+				if (next < 0)
+					return null;
+
+				if (next == end)
+					return buildJumpPointPath(board, end);
+
+				board.state[next] = CLOSED;
+				jumpFrom(board, next, end);
+			}
+		} finally {
 			endtime = System.currentTimeMillis();
-			if (next == null)
-				return null;
+		}
+	}
 
-			if (next.position.getX() == pointEnd.getX()
-			&& next.position.getY() == pointEnd.getY()) {
-				closedNodes.add(next);
-				return buildPath();
+	/**
+	 * Opens the jump points reachable from a jump point in the directions a shortest path through it could leave in.
+	 */
+	private void jumpFrom(final Board board, final int node, final int end) {
+		final int x = node / side;
+		final int y = node % side;
+		final int parent = board.parent[node];
+		final int directions;
+		if (parent < 0) {
+			directions = ALL_DIRECTIONS;
+		} else {
+			final int dx = Integer.signum(x - parent / side);
+			final int dy = Integer.signum(y - parent % side);
+			if (dx != 0 && dy != 0) {
+				directions = directionBit(dx, dy) | directionBit(dx, 0) | directionBit(0, dy);
+			} else {
+				directions = directionBit(dx, dy) | getForcedDirections(board, x, y, dx, dy);
 			}
+		}
 
-
-			next.selectNode();
-			if (debug) {
-			//	panel.repaint();
-
-				/*
-				// We should no longer put threads to sleep
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException a) {
-					a.printStackTrace();
-				}*/
-
-			}
+		for (int direction = 0; direction < DX.length; direction++) {
+			if ((directions & (1 << direction)) == 0)
+				continue;
+			final int jumpPoint = jump(board, x, y, DX[direction], DY[direction], end);
+			if (jumpPoint < 0)
+				continue;
+			final int steps = Math.max(Math.abs(jumpPoint / side - x), Math.abs(jumpPoint % side - y));
+			update(board, node, jumpPoint, steps * (DX[direction] != 0 && DY[direction] != 0 ? diagCost : basicCost));
 		}
 	}
 
-	private void initBoard(Node[][] board) {
-		if (board == null)
-			return;
+	/**
+	 * Steps from a cell in one direction until reaching a cell a shortest path might turn at, or the jump limit.
+	 *
+	 * @return The cell reached, or -1 if the steps run into a wall first
+	 */
+	private int jump(final Board board, int x, int y, final int dx, final int dy, final int end) {
+		if (dx == 0 || dy == 0)
+			return jumpStraight(board, x, y, dx, dy, end);
+
+		for (int steps = 1; ; steps++) {
+			if (!canStep(board, x, y, dx, dy))
+				return -1;
+			x += dx;
+			y += dy;
+			final int node = x * side + y;
+			if (node == end || steps == JUMP_LIMIT
+				|| jumpStraight(board, x, y, dx, 0, end) >= 0 || jumpStraight(board, x, y, 0, dy, end) >= 0)
+				return node;
+		}
+	}
 
-		for(int i = 0; i < board[0].length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				board[i][j] = new Node(i,j);
-			}
+	/**
+	 * Most steps cross open ground, so the walls across the direction of travel are checked first and only a cell
+	 * with walls across it or across the cell before it is checked for forced neighbours.
+	 */
+	private int jumpStraight(final Board board, int x, int y, final int dx, final int dy, final int end) {
+		final int ex = dy != 0 ? 1 : 0;
+		final int ey = dx != 0 ? 1 : 0;
+		boolean previousOpen = isOpenAcross(board, x, y, ex, ey);
+		for (int steps = 1; ; steps++) {
+			if (!canStep(board, x, y, dx, dy))
+				return -1;
+			x += dx;
+			y += dy;
+			final int node = x * side + y;
+			if (node == end || steps == JUMP_LIMIT)
+				return node;
+			final boolean open = isOpenAcross(board, x, y, ex, ey);
+			if (!(open && previousOpen) && getForcedDirections(board, x, y, dx, dy) != 0)
+				return node;
+			previousOpen = open;
 		}
 	}
 
-	public boolean diagBlocked(Node node, adjacent_direction dir) {
-		Node neighbor1 = null;
-		Node neighbor2 = null;
-		if (dir == adjacent_direction.SOUTHWEST) {
-			neighbor1 = node.getNeighbor(adjacent_direction.WEST);
-			if (neighbor1 != null) {
-				neighbor2 = node.getNeighbor(adjacent_direction.SOUTH);
-				if (neighbor2 != null) {
-					if (!neighbor1.southBlocked && !neighbor2.westBlocked)
-						return false;
-				}
-			}
-		} else if (dir == adjacent_direction.NORTHWEST) {
-			neighbor1 = node.getNeighbor(adjacent_direction.WEST);
-			if (neighbor1 != null) {
-				neighbor2 = node.getNeighbor(adjacent_direction.NORTH);
-				if (neighbor2 != null) {
-					if (!neighbor1.northBlocked && !neighbor2.westBlocked)
-						return false;
-				}
-			}
-		} else if (dir == adjacent_direction.NORTHEAST) {
-			neighbor1 = node.getNeighbor(adjacent_direction.EAST);
-			if (neighbor1 != null) {
-				neighbor2 = node.getNeighbor(adjacent_direction.NORTH);
-				if (neighbor2 != null) {
-					if (!neighbor1.northBlocked && !neighbor2.eastBlocked)
-						return false;
-				}
-			}
-		} else if (dir == adjacent_direction.SOUTHEAST) {
-			neighbor1 = node.getNeighbor(adjacent_direction.EAST);
-			if (neighbor1 != null) {
-				neighbor2 = node.getNeighbor(adjacent_direction.SOUTH);
-				if (neighbor2 != null) {
-					if (!neighbor1.southBlocked && !neighbor2.eastBlocked)
-						return false;
-				}
-			}
+	/**
+	 * A cell entered by a straight step has forced neighbours when a wall keeps the shortest path to a neighbour
+	 * from going around the cell. Diagonal steps have none, as they need both of their corners to be open.
+	 *
+	 * @return The bits of the directions towards the forced neighbours of the cell
+	 */
+	private int getForcedDirections(final Board board, final int x, final int y, final int dx, final int dy) {
+		final int backX = x - dx;
+		final int backY = y - dy;
+		int forced = 0;
+		for (int turn = -1; turn <= 1; turn += 2) {
+			// The sideways step, perpendicular to the direction of travel.
+			final int ex = dy != 0 ? turn : 0;
+			final int ey = dx != 0 ? turn : 0;
+			if (canStep(board, x, y, ex, ey)
+				&& !(canStep(board, backX, backY, ex, ey) && canStep(board, backX + ex, backY + ey, dx, dy)))
+				forced |= directionBit(ex, ey);
+			if (canStep(board, x, y, dx + ex, dy + ey)
+				&& !(canStep(board, backX, backY, dx + ex, dy + ey) && canStep(board, x + ex, y + ey, dx, dy)))
+				forced |= directionBit(dx + ex, dy + ey);
+			if (canStep(board, x, y, ex - dx, ey - dy) && !canStep(board, backX, backY, ex, ey))
+				forced |= directionBit(ex - dx, ey - dy);
 		}
-		return true;
+		return forced;
 	}
 
-	public long getRunTime() { return endtime - starttime; }
+	/**
+	 * @return If neither the cell nor the cells either side of it across the step have walls. A cell entered from
+	 * another such cell has no forced neighbours.
+	 */
+	private boolean isOpenAcross(final Board board, final int x, final int y, final int ex, final int ey) {
+		if (x - ex < 0 || y - ey < 0 || x + ex >= side || y + ey >= side)
+			return false;
+		return (getWalls(board, x, y) | getWalls(board, x + ex, y + ey) | getWalls(board, x - ex, y - ey)) == 0;
+	}
 
-	public class Node {
-		int fCost, gCost, hCost;
-		node_state state;
-		boolean southBlocked = false;
-		boolean northBlocked = false;
-		boolean westBlocked = false;
-		boolean eastBlocked = false;
-		public Point position;
-		Point parent;
-
-		public Node(int x, int y) {
-			position = new Point(x,y);
-			fCost = 0;
-			gCost = 0;
-			hCost = 0;
-			state = node_state.INIT;
-		}
+	/**
+	 * @return If a mob could step from the cell in the direction, by the same rules as {@link #expand}
+	 */
+	private boolean canStep(final Board board, final int x, final int y, final int dx, final int dy) {
+		final int last = side - 1;
+		if (x < 0 || y < 0 || x > last || y > last || x + dx < 0 || y + dy < 0 || x + dx > last || y + dy > last)
+			return false;
+		final int walls = getWalls(board, x, y);
+		if (dx == 0 || dy == 0)
+			return (walls & wallTowards(dx, dy)) == 0;
+		return (walls & (wallTowards(dx, 0) | wallTowards(0, dy))) == 0
+			&& (getWalls(board, x + dx, y) & wallTowards(0, dy)) == 0
+			&& (getWalls(board, x, y + dy) & wallTowards(dx, 0)) == 0;
+	}
 
-		public void setState(node_state state) {
-			this.state = state;
+	private static int wallTowards(final int dx, final int dy) {
+		if (dx < 0)
+			return WEST;
+		if (dx > 0)
+			return EAST;
+		return dy < 0 ? NORTH : SOUTH;
+	}
+
+	private static int directionBit(final int dx, final int dy) {
+		for (int direction = 0; direction < DX.length; direction++) {
+			if (DX[direction] == dx && DY[direction] == dy)
+				return 1 << direction;
 		}
+		return 0;
+	}
 
-		public void update(Node node, int cost) {
-			if (this.state == node_state.INIT) {
-				this.setState(node_state.OPEN);
-				this.fCost = node.fCost + cost;
-				calcGCost();
-				openNodes.add(this);
-			} else if (this.state == node_state.CLOSED)
-				return;
-			else {
-				int newFcost = node.fCost + cost;
-				if (newFcost > this.fCost)
-					return;
-				this.fCost = newFcost;
+	/**
+	 * Adds the steps between the jump points, up to the most a path holds. Unlike {@link #buildPath}, the steps
+	 * nearest the start are kept, as long paths are searched again before the mob runs out of steps.
+	 */
+	private Path buildJumpPointPath(final Board board, final int end) {
+		int jumpPoints = 0;
+		for (int node = end; node >= 0; node = board.parent[node])
+			jumpPoints++;
+		final int[] chain = new int[jumpPoints];
+		for (int node = end, i = jumpPoints - 1; node >= 0; node = board.parent[node], i--)
+			chain[i] = node;
+
+		final int[] steps = new int[Path.MAXIMUM_SIZE];
+		int count = 0;
+		for (int i = 1; i < chain.length && count < steps.length; i++) {
+			int x = chain[i - 1] / side;
+			int y = chain[i - 1] % side;
+			final int toX = chain[i] / side;
+			final int toY = chain[i] % side;
+			final int dx = Integer.signum(toX - x);
+			final int dy = Integer.signum(toY - y);
+			while ((x != toX || y != toY) && count < steps.length) {
+				x += dx;
+				y += dy;
+				steps[count++] = x * side + y;
 			}
-			calcHCost();
-			this.parent = node.position;
 		}
+		// The end itself is not a step, the mob stops next to it.
+		if (count > 0 && steps[count - 1] == end)
+			count--;
 
-		public void calcGCost() {
-			gCost = calcDistance(this.position, pointEnd);
-		}
+		for (int i = count - 1; i >= 0; i--)
+			path.addDirect(worldStart.getX() + depth - steps[i] / side, worldStart.getY() - depth + steps[i] % side);
+		return path;
+	}
 
-		public void calcHCost() {
-			hCost = fCost + gCost;
+	private Path buildPath(final Board board, final int end) {
+		int node = board.parent[end];
+		while (board.parent[node] >= 0) {
+			path.addDirect(worldStart.getX() + depth - node / side, worldStart.getY() - depth + node % side);
+			node = board.parent[node];
 		}
+		return path;
+	}
 
-		public Node getNeighbor(adjacent_direction dir) {
-			switch (dir) {
-				case SOUTH:
-					if (position.getY() < 2*depth)
-						return costBoard[position.getX()][position.getY()+1];
-					else
-						return null;
-				case SOUTHWEST:
-					if (position.getY() < 2*depth && position.getX() > 0)
-						return costBoard[position.getX()-1][position.getY()+1];
-					else
-						return null;
-				case WEST:
-					if (position.getX() > 0)
-						return costBoard[position.getX()-1][position.getY()];
-					else
-						return null;
-				case NORTHWEST:
-					if (position.getY() > 0 && position.getX() > 0)
-						return costBoard[position.getX()-1][position.getY()-1];
-					else
-						return null;
-				case NORTH:
-					if (position.getY() > 0)
-						return costBoard[position.getX()][position.getY()-1];
-					else
-						return null;
-				case NORTHEAST:
-					if (position.getY() > 0 && position.getX() < 2*depth)
-						return costBoard[position.getX()+1][position.getY()-1];
-					else
-						return null;
-				case EAST:
-					if (position.getX() < 2*depth)
-						return costBoard[position.getX()+1][position.getY()];
-					else
-						return null;
-				case SOUTHEAST:
-					if (position.getY() < 2*depth && position.getX() < 2*depth)
-						return costBoard[position.getX()+1][position.getY()+1];
-					else
-						return null;
-			}
-			return null;
-		}
+	private void expand(final Board board, final int node) {
+		final int x = node / side;
+		final int y = node % side;
+		final int last = side - 1;
+		final int walls = getWalls(board, x, y);
+		final boolean southBlocked = (walls & SOUTH) != 0;
+		final boolean westBlocked = (walls & WEST) != 0;
+		final boolean northBlocked = (walls & NORTH) != 0;
+		final boolean eastBlocked = (walls & EAST) != 0;
+
+		if (!southBlocked && y < last)
+			update(board, node, node + 1, basicCost);
+		if (!westBlocked && x > 0)
+			update(board, node, node - side, basicCost);
+		if (!northBlocked && y > 0)
+			update(board, node, node - 1, basicCost);
+		if (!eastBlocked && x < last)
+			update(board, node, node + side, basicCost);
+		if (!(southBlocked || westBlocked) && x > 0 && y < last
+			&& (getWalls(board, x - 1, y) & SOUTH) == 0 && (getWalls(board, x, y + 1) & WEST) == 0)
+			update(board, node, node - side + 1, diagCost);
+		if (!(northBlocked || westBlocked) && x > 0 && y > 0
+			&& (getWalls(board, x - 1, y) & NORTH) == 0 && (getWalls(board, x, y - 1) & WEST) == 0)
+			update(board, node, node - side - 1, diagCost);
+		if (!(northBlocked || eastBlocked) && x < last && y > 0
+			&& (getWalls(board, x + 1, y) & NORTH) == 0 && (getWalls(board, x, y - 1) & EAST) == 0)
+			update(board, node, node + side - 1, diagCost);
+		if (!(southBlocked || eastBlocked) && x < last && y < last
+			&& (getWalls(board, x + 1, y) & SOUTH) == 0 && (getWalls(board, x, y + 1) & EAST) == 0)
+			update(board, node, node + side + 1, diagCost);
+	}
 
-		private void selectNode() {
-			if (state == node_state.OPEN)
-				openNodes.remove(this);
-
-			setState(node_state.CLOSED);
-			closedNodes.add(this);
-			Node neighbor = null;
-			//South to SouthEast
-			if (!southBlocked && (neighbor = getNeighbor(adjacent_direction.SOUTH)) != null)
-				neighbor.update(this, basicCost);
-			if (!westBlocked && (neighbor = getNeighbor(adjacent_direction.WEST)) != null)
-				neighbor.update(this, basicCost);
-			if (!northBlocked && (neighbor = getNeighbor(adjacent_direction.NORTH)) != null)
-				neighbor.update(this, basicCost);
-			if (!eastBlocked && (neighbor = getNeighbor(adjacent_direction.EAST)) != null)
-				neighbor.update(this, basicCost);
-			if (!(southBlocked || westBlocked) && !diagBlocked(this, adjacent_direction.SOUTHWEST)
-				&& (neighbor = getNeighbor(adjacent_direction.SOUTHWEST)) != null)
-				neighbor.update(this, diagCost);
-			if (!(northBlocked || westBlocked) && !diagBlocked(this, adjacent_direction.NORTHWEST)
-				&& (neighbor = getNeighbor(adjacent_direction.NORTHWEST)) != null)
-				neighbor.update(this, diagCost);
-			if (!(northBlocked || eastBlocked) && !diagBlocked(this, adjacent_direction.NORTHEAST)
-				&& (neighbor = getNeighbor(adjacent_direction.NORTHEAST)) != null)
-				neighbor.update(this, diagCost);
-			if (!(southBlocked || eastBlocked) && !diagBlocked(this, adjacent_direction.SOUTHEAST)
-				&& (neighbor = getNeighbor(adjacent_direction.SOUTHEAST)) != null)
-				neighbor.update(this, diagCost);
+	private void update(final Board board, final int from, final int node, final int stepCost) {
+		final int cost = board.cost[from] + stepCost;
+		if (board.stamp[node] != board.generation) {
+			board.stamp[node] = board.generation;
+			board.state[node] = OPEN;
+			board.cost[node] = cost;
+			board.estimate[node] = calcDistance(node / side, node % side, endX, endY);
+			board.parent[node] = from;
+			board.add(node);
+			return;
 		}
+		if (board.state[node] == CLOSED || cost > board.cost[node])
+			return;
+
+		// An equally cheap step still takes over the cell, as it always has.
+		final boolean cheaper = cost < board.cost[node];
+		board.cost[node] = cost;
+		board.parent[node] = from;
+		if (cheaper)
+			board.decreased(node);
 	}
 
+	/**
+	 * @return The directions out of the cell that are blocked, by its own walls or by a fully blocked neighbour.
+	 * Tiles outside of the map block nothing.
+	 */
+	private int getWalls(final Board board, final int x, final int y) {
+		final int node = x * side + y;
+		if (board.wallStamp[node] == board.generation)
+			return board.walls[node];
+
+		final int mask = getTraversalMask(x, y);
+		int walls = (mask & CollisionFlag.FULL_BLOCK) == 0 ? mask & WALLS : 0;
+		if (y > 0 && isFullBlock(x, y - 1))
+			walls |= NORTH;
+		if (x < side - 1 && isFullBlock(x + 1, y))
+			walls |= EAST;
+		if (y < side - 1 && isFullBlock(x, y + 1))
+			walls |= SOUTH;
+		if (x > 0 && isFullBlock(x - 1, y))
+			walls |= WEST;
+
+		board.wallStamp[node] = board.generation;
+		board.walls[node] = (byte) walls;
+		return walls;
+	}
+
+	private boolean isFullBlock(final int x, final int y) {
+		return (getTraversalMask(x, y) & CollisionFlag.FULL_BLOCK) != 0;
+	}
 
-	public enum node_state{
-		INIT,
-		OPEN,
-		CLOSED
+	/**
+	 * @return The traversal mask of the tile under the cell, or 0 if it is outside of the map
+	 */
+	private int getTraversalMask(final int x, final int y) {
+		final int index = collisionMap.indexOf(worldStart.getX() + depth - x, worldStart.getY() - depth + y);
+		return index < 0 ? 0 : collisionMap.getTraversalMask(index);
 	}
 
-	public enum adjacent_direction{
-		SOUTH,
-		SOUTHWEST,
-		WEST,
-		NORTHWEST,
-		NORTH,
-		NORTHEAST,
-		EAST,
-		SOUTHEAST
+	private static int calcDistance(final int x1, final int y1, final int x2, final int y2) {
+		int xdiff = Math.abs(x1 - x2);
+		int ydiff = Math.abs(y1 - y2);
+
+		int shortL = xdiff > ydiff ? ydiff : xdiff;
+		int longL = xdiff > ydiff ? xdiff : ydiff;
+
+		return shortL * diagCost + (longL - shortL) * basicCost;
 	}
 
-	/*debug code*/
-	class JPanel2 extends JPanel {
-		int width = 20;
-		JPanel2() {
+	public long getRunTime() { return endtime - starttime; }
+
+	/**
+	 * The search state of one thread, indexed by board x * side + board y. A cell's values are only valid while its
+	 * stamp matches the current generation.
+	 */
+	private static final class Board {
+		private int generation = 0;
+		private int[] stamp = new int[0];
+		private byte[] state = new byte[0];
+		private int[] cost = new int[0];
+		private int[] estimate = new int[0];
+		private int[] parent = new int[0];
+		private int[] order = new int[0];
+		private int[] wallStamp = new int[0];
+		private byte[] walls = new byte[0];
+
+		private int[] heap = new int[0];
+		private int[] heapIndex = new int[0];
+		private int heapSize;
+		private int opened;
+
+		private void reset(final int cells) {
+			if (stamp.length < cells) {
+				stamp = new int[cells];
+				state = new byte[cells];
+				cost = new int[cells];
+				estimate = new int[cells];
+				parent = new int[cells];
+				order = new int[cells];
+				wallStamp = new int[cells];
+				walls = new byte[cells];
+				heap = new int[cells];
+				heapIndex = new int[cells];
+			}
+			if (++generation == 0) {
+				Arrays.fill(stamp, 0);
+				Arrays.fill(wallStamp, 0);
+				generation = 1;
+			}
+			heapSize = 0;
+			opened = 0;
 		}
 
+		private boolean before(final int a, final int b) {
+			final int totalA = cost[a] + estimate[a];
+			final int totalB = cost[b] + estimate[b];
+			if (totalA != totalB)
+				return totalA < totalB;
+			if (cost[a] != cost[b])
+				return cost[a] < cost[b];
+			return order[a] < order[b];
+		}
+
+		private void add(final int node) {
+			order[node] = opened++;
+			heap[heapSize] = node;
+			heapIndex[node] = heapSize;
+			siftUp(heapSize++);
+		}
 
-		@Override
-		public void paintComponent(Graphics g) {
-			super.paintComponent(g);
-			g.setFont(new Font("Arial",1,10));
-			for (Node[] nodes : costBoard) {
-				for (Node node : nodes) {
-					g.setColor(Color.black);
-					g.drawRect(node.position.getX()*width, node.position.getY()*width, width, width);
-					g.setColor(Color.red);
-					if (node.southBlocked)
-						g.fillRect(node.position.getX()*width, node.position.getY()*width+width - 4,width,3);
-					if (node.eastBlocked)
-						g.fillRect(node.position.getX()*width + width - 4, node.position.getY()*width,3,width);
-					if (node.northBlocked)
-						g.fillRect(node.position.getX()*width, node.position.getY()*width+1,width,3);
-					if (node.westBlocked)
-						g.fillRect(node.position.getX()*width+1, node.position.getY()*width,3,width);
-					if (node.state == node_state.OPEN) {
-						g.setColor(Color.green);
-						g.drawString("" + node.hCost, node.position.getX()*width, node.position.getY()*width + width/2);
-					} else if (node.state == node_state.CLOSED) {
-						g.setColor(Color.red);
-						g.drawString("" + node.hCost, node.position.getX()*width, node.position.getY()*width + width/2);
-					}
-				}
+		private void decreased(final int node) {
+			siftUp(heapIndex[node]);
+		}
+
+		/**
+		 * @return The open cell to search next, or -1 if there are none left
+		 */
+		private int poll() {
+			if (heapSize == 0)
+				return -1;
+			final int first = heap[0];
+			final int last = heap[--heapSize];
+			if (heapSize > 0) {
+				heap[0] = last;
+				heapIndex[last] = 0;
+				siftDown(0);
 			}
-			Node guy = closedNodes.get(closedNodes.size()-1);
-			g.setColor(Color.ORANGE);
-			while (guy != null) {
-				g.fillRect(guy.position.getX() * width, guy.position.getY()*width, 5,5);
-				if (guy.parent == null)
-					guy = null;
-				else
-					guy = costBoard[guy.parent.getX()][guy.parent.getY()];
+			return first;
+		}
+
+		private void siftUp(int index) {
+			final int node = heap[index];
+			while (index > 0) {
+				final int parentIndex = (index - 1) >>> 1;
+				final int above = heap[parentIndex];
+				if (!before(node, above))
+					break;
+				heap[index] = above;
+				heapIndex[above] = index;
+				index = parentIndex;
+			}
+			heap[index] = node;
+			heapIndex[node] = index;
+		}
+
+		private void siftDown(int index) {
+			final int node = heap[index];
+			while (true) {
+				int child = 2 * index + 1;
+				if (child >= heapSize)
+					break;
+				if (child + 1 < heapSize && before(heap[child + 1], heap[child]))
+					child++;
+				if (!before(heap[child], node))
+					break;
+				heap[index] = heap[child];
+				heapIndex[heap[index]] = index;
+				index = child;
 			}
+			heap[index] = node;
+			heapIndex[node] = index;
 		}
 	}
 }
@@ -9,7 +9,7 @@ import java.util.LinkedList;
 
 public class Path {
 
-	private static final int MAXIMUM_SIZE = 50;
+	static final int MAXIMUM_SIZE = 50;
 	private Deque<Point> waypoints = new LinkedList<Point>();
 	private PathType pathType;
 	private Mob mob;
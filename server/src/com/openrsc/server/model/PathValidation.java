@@ -4,11 +4,10 @@ import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.world.World;
-import com.openrsc.server.model.world.region.Region;
-import com.openrsc.server.model.world.region.TileValue;
+import com.openrsc.server.model.world.region.CollisionMap;
+import com.openrsc.server.model.world.region.LineOfSightCache;
 import com.openrsc.server.util.rsc.CollisionFlag;
 
-import java.util.ArrayList;
 import java.util.Deque;
 import java.util.LinkedList;
 
@@ -26,7 +25,56 @@ public class PathValidation {
 	public static boolean DEBUG_DISTANCE = false;
 	public static boolean DEBUG = false;
 
+	/**
+	 * Checks if a projectile can pass from the source tile to the destination. Lines crossing only open tiles pass
+	 * straight away, the others are walked tile by tile and the answer is cached until the collision values around
+	 * the line change.
+	 */
 	public static boolean checkPath(World world, Point src, Point dest) {
+		final CollisionMap collisionMap = world.getCollisionMap();
+		if (isOpenLine(collisionMap, src, dest)) {
+			return true;
+		}
+		// The cache only stamps lines between tiles of the map, entities outside of it are walked every time.
+		if (!collisionMap.contains(src.getX(), src.getY()) || !collisionMap.contains(dest.getX(), dest.getY())) {
+			return walkPath(world, src, dest);
+		}
+
+		final LineOfSightCache cache = collisionMap.getLineOfSightCache();
+		final long stamp = cache.stamp(src.getX(), src.getY(), dest.getX(), dest.getY());
+		final int cached = cache.lookup(src.getX(), src.getY(), dest.getX(), dest.getY(), stamp);
+		if (cached != LineOfSightCache.UNKNOWN) {
+			return cached == 1;
+		}
+		final boolean clear = walkPath(world, src, dest);
+		cache.store(src.getX(), src.getY(), dest.getX(), dest.getY(), stamp, clear);
+		return clear;
+	}
+
+	/**
+	 * Steps over the same tiles as {@link #walkPath}, diagonally until level with the destination and then straight.
+	 *
+	 * @return If none of the tiles has a wall or blocks, or they allow projectiles through, so nothing can be in the way
+	 */
+	private static boolean isOpenLine(CollisionMap collisionMap, Point src, Point dest) {
+		int x = src.getX();
+		int y = src.getY();
+		final int destX = dest.getX();
+		final int destY = dest.getY();
+		while (true) {
+			final int index = collisionMap.indexOf(x, y);
+			if (index < 0 || (collisionMap.getTraversalMask(index) != 0 && !collisionMap.isProjectileAllowed(index))) {
+				return false;
+			}
+			if (x == destX && y == destY) {
+				return true;
+			}
+			x += Integer.signum(destX - x);
+			y += Integer.signum(destY - y);
+		}
+	}
+
+	private static boolean walkPath(World world, Point src, Point dest) {
 		final Deque<Point> path = new LinkedList<>();
 
 		final Point curPoint = new Point(src.getX(), src.getY());
@@ -166,12 +214,12 @@ public class PathValidation {
 	}
 
 	private static boolean checkBlockingDistance(World world, int x, int y, int bit, boolean isCurrentTile, boolean ignoreProjectileAllowed) {
-		TileValue t = world.getTile(x, y);
-		if (!ignoreProjectileAllowed && t.projectileAllowed) {
+		final CollisionMap collisionMap = world.getCollisionMap();
+		if (!ignoreProjectileAllowed && collisionMap.isProjectileAllowed(x, y)) {
 			return false;
 		}
 
-		return isBlocking(t.traversalMask, (byte) bit, isCurrentTile);
+		return isBlocking(collisionMap.getTraversalMask(x, y), (byte) bit, isCurrentTile);
 	}
 
 	public static boolean isBlocking(int objectValue, byte bit, boolean isCurrentTile) {
@@ -226,19 +274,19 @@ public class PathValidation {
 		// Object east
 		// |   or   |
 		//  \        X
-		int mask = world.getTile(x - 1, y).traversalMask;
+		int mask = world.getCollisionMap().getTraversalMask(x - 1, y);
 		boolean blocking = (mask & (CollisionFlag.FULL_BLOCK_A + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on north tile, east side
-			mask = world.getTile(x, y - 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x, y - 1);
 			blocking = (mask & CollisionFlag.WALL_EAST) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on northeast tile, west side
-			mask = world.getTile(x - 1, y - 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x - 1, y - 1);
 			blocking = (mask & CollisionFlag.WALL_WEST) != 0;
 			if (blocking) {
 				return true;
@@ -247,19 +295,19 @@ public class PathValidation {
 
 		// Object north
 		// \__  or  X__
-		mask = world.getTile(x, y - 1).traversalMask;
+		mask = world.getCollisionMap().getTraversalMask(x, y - 1);
 		blocking = (mask & (CollisionFlag.FULL_BLOCK_A + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on east tile, north side
-			mask = world.getTile(x - 1, y).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x - 1, y);
 			blocking = (mask & CollisionFlag.WALL_NORTH) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on northeast tile, south side
-			mask = world.getTile(x - 1, y - 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x - 1, y - 1);
 			blocking = (mask & CollisionFlag.WALL_SOUTH) != 0;
 			return blocking;
 
@@ -277,19 +325,19 @@ public class PathValidation {
 		// Object west
 		//   |  or  |
 		//  /      X
-		int mask = world.getTile(x + 1, y).traversalMask;
+		int mask = world.getCollisionMap().getTraversalMask(x + 1, y);
 		boolean blocking = (mask & (CollisionFlag.FULL_BLOCK_B + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on north tile, west side
-			mask = world.getTile(x, y - 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x, y - 1);
 			blocking = (mask & CollisionFlag.WALL_WEST) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on northwest tile, east side
-			mask = world.getTile(x + 1, y + 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x + 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_EAST) != 0;
 			if (blocking) {
 				return true;
@@ -298,19 +346,19 @@ public class PathValidation {
 
 		// Object north
 		// __/  or  __X
-		mask = world.getTile(x, y - 1).traversalMask;
+		mask = world.getCollisionMap().getTraversalMask(x, y - 1);
 		blocking = (mask & (CollisionFlag.FULL_BLOCK_B + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on west tile, north side
-			mask = world.getTile(x + 1, y).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x + 1, y);
 			blocking = (mask & CollisionFlag.WALL_NORTH) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on northwest tile, south side
-			mask = world.getTile(x + 1, y - 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x + 1, y - 1);
 			blocking = (mask & CollisionFlag.WALL_SOUTH) != 0;
 			return blocking;
 
@@ -327,19 +375,19 @@ public class PathValidation {
 		// Object east
 		//   /  or   X
 		//  |       |
-		int mask = world.getTile(x - 1, y).traversalMask;
+		int mask = world.getCollisionMap().getTraversalMask(x - 1, y);
 		boolean blocking = (mask & (CollisionFlag.FULL_BLOCK_B + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on south tile, east side
-			mask = world.getTile(x, y + 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x, y + 1);
 			blocking = (mask & CollisionFlag.WALL_EAST) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on southeast tile, west side
-			mask = world.getTile(x - 1, y + 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x - 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_WEST) != 0;
 			if (blocking) {
 				return true;
@@ -349,19 +397,19 @@ public class PathValidation {
 		// Object south
 		//  __       __
 		// /    or  X
-		mask = world.getTile(x, y + 1).traversalMask;
+		mask = world.getCollisionMap().getTraversalMask(x, y + 1);
 		blocking = (mask & (CollisionFlag.FULL_BLOCK_B + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on east tile, south side
-			mask = world.getTile(x - 1, y).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x - 1, y);
 			blocking = (mask & CollisionFlag.WALL_SOUTH) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on southeast tile, north side
-			mask = world.getTile(x - 1, y + 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x - 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_NORTH) != 0;
 			return blocking;
 
@@ -379,19 +427,19 @@ public class PathValidation {
 		// Object west
 		//  \  or  X
 		//   |      |
-		int mask = world.getTile(x + 1, y).traversalMask;
+		int mask = world.getCollisionMap().getTraversalMask(x + 1, y);
 		boolean blocking = (mask & (CollisionFlag.FULL_BLOCK_A + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on south tile, west side
-			mask = world.getTile(x, y + 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x, y + 1);
 			blocking = (mask & CollisionFlag.WALL_WEST) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on southwest tile, east side
-			mask = world.getTile(x + 1, y + 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x + 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_EAST) != 0;
 			if (blocking) {
 				return true;
@@ -401,19 +449,19 @@ public class PathValidation {
 		// Object south
 		// __       __
 		//   \  or    X
-		mask = world.getTile(x, y + 1).traversalMask;
+		mask = world.getCollisionMap().getTraversalMask(x, y + 1);
 		blocking = (mask & (CollisionFlag.FULL_BLOCK_A + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on west tile, south side
-			mask = world.getTile(x + 1, y).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x + 1, y);
 			blocking = (mask & CollisionFlag.WALL_SOUTH) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on southwest tile, north side
-			mask = world.getTile(x + 1, y + 1).traversalMask;
+			mask = world.getCollisionMap().getTraversalMask(x + 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_NORTH) != 0;
 			return blocking;
 
@@ -526,10 +574,10 @@ public class PathValidation {
 	}
 
 	private static boolean checkBlocking(Mob mob, int x, int y, int bit, boolean isCurrentTile) {
-		TileValue t = mob.getWorld().getTile(x, y);
+		final int traversalMask = mob.getWorld().getCollisionMap().getTraversalMask(x, y);
 		/*boolean inFisherKingdom = (mob.getLocation().inBounds(415, 976, 423, 984)
 			|| mob.getLocation().inBounds(511, 976, 519, 984));*/
-		boolean blockedPath = PathValidation.isBlocking(t.traversalMask, (byte) bit, isCurrentTile);
+		boolean blockedPath = PathValidation.isBlocking(traversalMask, (byte) bit, isCurrentTile);
 		return blockedPath || isMobBlocking(mob, x, y);
 	}
 
@@ -537,8 +585,7 @@ public class PathValidation {
 		if (mob.getX() == x && mob.getY() == y)
 			return false;
 
-		ArrayList<Npc> npcsOnLoc = mob.getWorld().getNpcPositions().getOrDefault(x + "," + y,null);
-		Npc npc = npcsOnLoc != null && npcsOnLoc.size() > 0 ? npcsOnLoc.get(0) : null;
+		Npc npc = mob.getWorld().getRegionManager().getNpc(x, y, null);
 
 		/*
 		 * NPC blocking config controlled
@@ -564,8 +611,7 @@ public class PathValidation {
 		}
 
 		if (mob.isNpc()) {
-			Region region = mob.getWorld().getRegionManager().getRegion(Point.location(x, y));
-			Player player = region.getPlayer(x, y, mob);
+			Player player = mob.getWorld().getRegionManager().getPlayer(x, y, mob);
 			return player != null;
 		}
 		return false;
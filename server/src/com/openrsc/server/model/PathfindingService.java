@@ -0,0 +1,181 @@
+package com.openrsc.server.model;
+
+import com.openrsc.server.model.Path.PathType;
+import com.openrsc.server.model.entity.Mob;
+import com.openrsc.server.model.world.World;
+import com.openrsc.server.model.world.region.CollisionMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the paths npcs ask for during a tick on a thread pool, so a crowd of npcs chasing at once does not hold up the
+ * game thread.
+ *
+ * The requests made while the npcs are processed are submitted together once they are done, and searched against a
+ * copy of the traversal masks taken then, as objects keep changing the collision map while the searches run. The
+ * paths found are set at the start of the next npc processing, before the npcs take their next step. With custom walk
+ * speeds npcs also step between ticks, which submits and applies paths the same way. A path is
+ * dropped instead if its mob has moved, started fighting or was removed in the meantime, or if the mob it chases
+ * moved more than {@link #MAX_TARGET_DRIFT} tiles from where the search aimed. Chasing npcs ask again on their tick.
+ *
+ * Only the game thread makes requests and applies paths.
+ */
+public final class PathfindingService {
+	/**
+	 * The asynchronous logger.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	/**
+	 * The furthest a chased mob may move from the end of its search before the path found is dropped.
+	 */
+	private static final int MAX_TARGET_DRIFT = 2;
+
+	private final World world;
+	private final ForkJoinPool pool;
+
+	/**
+	 * The requests made since the last submit, only the latest of each mob.
+	 */
+	private final Map<Mob, Request> pending = new LinkedHashMap<>();
+	/**
+	 * The requests submitted and not yet applied, only the latest of each mob.
+	 */
+	private final Map<Mob, Request> submitted = new LinkedHashMap<>();
+
+	/**
+	 * The copy of the traversal masks searched. It is only brought up to date once the searches of the previous
+	 * submit have been applied and when the world's masks have changed since.
+	 */
+	private CollisionMap snapshot;
+
+	public PathfindingService(final World world) {
+		this.world = world;
+		this.pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Asks for a path for the mob, replacing any request it made earlier this tick. Targets the world's connected
+	 * areas rule out are walked towards straight away, as a failed search would.
+	 *
+	 * @param chased The mob the path leads to, or null if it leads to a fixed point
+	 */
+	public void request(final Mob mob, final Mob chased, final int x, final int y, final int depth) {
+		if (!world.getCollisionMap().isReachable(mob.getX(), mob.getY(), x, y)) {
+			pending.remove(mob);
+			// A search still running for the mob would replace this walk once applied.
+			submitted.remove(mob);
+			mob.walkToEntity(x, y);
+			return;
+		}
+		pending.put(mob, new Request(mob, chased, x, y, depth));
+	}
+
+	/**
+	 * Starts searching for the paths requested since the last submit, from where their mobs stand now.
+	 */
+	public void submit() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		final CollisionMap collisionMap = world.getCollisionMap();
+		if (snapshot == null || !submitted.isEmpty()) {
+			snapshot = collisionMap.copyTraversal();
+		} else if (snapshot.getTraversalVersion() != collisionMap.getTraversalVersion()) {
+			collisionMap.updateTraversalCopy(snapshot);
+		}
+		for (final Request request : pending.values()) {
+			request.startX = request.mob.getX();
+			request.startY = request.mob.getY();
+			request.collisionMap = snapshot;
+			request.task = pool.submit(request);
+			submitted.put(request.mob, request);
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Sets the paths found since the last submit, waiting for any search still running.
+	 */
+	public void applyPaths() {
+		for (final Request request : submitted.values()) {
+			try {
+				request.task.join();
+			} catch (final RuntimeException e) {
+				LOGGER.catching(e);
+				continue;
+			}
+			if (!request.isCurrent()) {
+				continue;
+			}
+			final Mob mob = request.mob;
+			if (request.path == null) {
+				mob.walkToEntity(request.x, request.y);
+			} else {
+				mob.getWalkingQueue().reset();
+				mob.getWalkingQueue().setPath(request.path);
+			}
+		}
+		submitted.clear();
+	}
+
+	public void shutdown() {
+		pool.shutdown();
+		try {
+			if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+				LOGGER.error("PathfindingService pool termination failed");
+			}
+		} catch (final InterruptedException e) {
+			LOGGER.catching(e);
+		}
+		pending.clear();
+		submitted.clear();
+		snapshot = null;
+	}
+
+	private static final class Request implements Runnable {
+		private final Mob mob;
+		private final Mob chased;
+		private final int x;
+		private final int y;
+		private final int depth;
+
+		private int startX;
+		private int startY;
+		private CollisionMap collisionMap;
+		private ForkJoinTask<?> task;
+		private Path path;
+
+		private Request(final Mob mob, final Mob chased, final int x, final int y, final int depth) {
+			this.mob = mob;
+			this.chased = chased;
+			this.x = x;
+			this.y = y;
+			this.depth = depth;
+		}
+
+		@Override
+		public void run() {
+			final AStarPathfinder pathFinder = new AStarPathfinder(collisionMap, new Point(startX, startY), new Point(x, y), depth);
+			pathFinder.feedPath(new Path(mob, PathType.WALK_TO_ENTITY));
+			path = pathFinder.findPathForDepth();
+		}
+
+		/**
+		 * @return If the path found still leads the mob where it was asked to go
+		 */
+		private boolean isCurrent() {
+			if (mob.isRemoved() || mob.inCombat() || mob.getX() != startX || mob.getY() != startY) {
+				return false;
+			}
+			return chased == null || (!chased.isRemoved()
+				&& Math.abs(chased.getX() - x) <= MAX_TARGET_DRIFT && Math.abs(chased.getY() - y) <= MAX_TARGET_DRIFT);
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package com.openrsc.server.model;
 
 public final class TelePoint extends Point {
+	private static final long serialVersionUID = 1L;
 
 	public String command;
 
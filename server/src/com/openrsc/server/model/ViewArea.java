@@ -5,8 +5,11 @@ import com.openrsc.server.model.entity.GroundItem;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.model.world.region.Region;
 
 import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 
 public class ViewArea {
@@ -33,22 +36,57 @@ public class ViewArea {
 		return mob.getWorld().getRegionManager().getLocalPlayers(mob);
 	}
 
+	public <C extends Collection<? super GameObject>> C getGameObjectsInView(C into) {
+		return mob.getWorld().getRegionManager().getLocalObjects(mob, into);
+	}
+
+	public <C extends Collection<? super GroundItem>> C getItemsInView(C into) {
+		return mob.getWorld().getRegionManager().getLocalGroundItems(mob, into);
+	}
+
+	public <C extends Collection<? super Npc>> C getNpcsInView(C into) {
+		return mob.getWorld().getRegionManager().getLocalNpcs(mob, into);
+	}
+
+	public <C extends Collection<? super Player>> C getPlayersInView(C into) {
+		return mob.getWorld().getRegionManager().getLocalPlayers(mob, into);
+	}
+
+	public void forEachGameObjectInView(Consumer<? super GameObject> action) {
+		mob.getWorld().getRegionManager().forEachObjectInView(mob, action);
+	}
+
+	public void forEachItemInView(Consumer<? super GroundItem> action) {
+		mob.getWorld().getRegionManager().forEachGroundItemInView(mob, action);
+	}
+
+	public void forEachNpcInView(Consumer<? super Npc> action) {
+		mob.getWorld().getRegionManager().forEachNpcInView(mob, action);
+	}
+
+	public void forEachPlayerInView(Consumer<? super Player> action) {
+		mob.getWorld().getRegionManager().forEachPlayerInView(mob, action);
+	}
+
+	/**
+	 * @return The first player in view matching the condition, or null.
+	 */
+	public Player findPlayerInView(Predicate<? super Player> condition) {
+		return mob.getWorld().getRegionManager().findPlayerInView(mob, condition);
+	}
+
+	private Region getRegionInView(int x, int y) {
+		return mob.getWorld().getRegionManager().getRegionInView(mob, x, y);
+	}
+
 	public GameObject getGameObject(Point location) {
-		for (GameObject o : getGameObjectsInView()) {
-			if (o.getLocation().equals(location) && o.getType() != 1) {
-				return o;
-			}
-		}
-		return null;
+		Region region = getRegionInView(location.getX(), location.getY());
+		return region == null ? null : region.getGameObject(location, null);
 	}
 
 	public GameObject getGameObject(int id, int x, int y) {
-		for (GameObject o : getGameObjectsInView()) {
-			if (o.getID() == id && o.getX() == x && o.getY() == y) {
-				return o;
-			}
-		}
-		return null;
+		Region region = getRegionInView(x, y);
+		return region == null ? null : region.getGameObject(id, x, y, null);
 	}
 
 	/**
@@ -58,30 +96,18 @@ public class ViewArea {
 	 * @return FACT: RSC uses direction for wall objects, so that it doesn't collapse.
 	 */
 	public GameObject getWallObjectWithDir(Point location, int dir) {
-		for (GameObject o : getGameObjectsInView()) {
-			if (o.getDirection() == dir && o.getLocation().equals(location) && (o.getType() != 0)) {
-				return o;
-			}
-		}
-		return null;
+		Region region = getRegionInView(location.getX(), location.getY());
+		return region == null ? null : region.getWallGameObject(location, dir, null);
 	}
 
 	public GroundItem getGroundItem(Point location) {
-		for (GroundItem o : getItemsInView()) {
-			if (o.getLocation().equals(location)) {
-				return o;
-			}
-		}
-		return null;
+		Region region = getRegionInView(location.getX(), location.getY());
+		return region == null ? null : region.getItem(location, null);
 	}
 
 	public GroundItem getGroundItem(int id, Point location) {
-		for (GroundItem o : getItemsInView()) {
-			if (o.getID() == id && o.getLocation().equals(location)) {
-				return o;
-			}
-		}
-		return null;
+		Region region = getRegionInView(location.getX(), location.getY());
+		return region == null ? null : region.getItem(id, location, null);
 	}
 
 }
@@ -29,16 +29,21 @@ public abstract class Entity {
 		this.world = world;
 	}
 
+	/**
+	 * Moves the entity into the region of its location. An entity outside of the world is in no region.
+	 */
 	public void updateRegion() {
 		final Region newRegion = getWorld().getRegionManager().getRegion(getLocation());
-		if (!newRegion.equals(getRegion())) {
+		if (newRegion != getRegion()) {
 			if (getRegion() != null) {
 				region.get().removeEntity(this);
 			}
 
 			if (!isRemoved()) {
 				region.set(newRegion);
-				region.get().addEntity(this);
+				if (newRegion != null) {
+					newRegion.addEntity(this);
+				}
 			}
 		}
 	}
@@ -154,10 +159,11 @@ public abstract class Entity {
 	}
 
 	public void remove() {
-		if (region.get() == null) {
+		if (region.get() != null) {
+			getRegion().removeEntity(this);
+		} else if (getLocation() == null || getWorld().getRegionManager().withinWorld(getX(), getY())) {
 			throw new IllegalStateException("Region should not be null if remove() is called.");
 		}
-		getRegion().removeEntity(this);
 		setRemoved(true);
 	}
 
@@ -14,6 +14,7 @@ import com.openrsc.server.model.entity.update.Damage;
 import com.openrsc.server.model.entity.update.UpdateFlags;
 import com.openrsc.server.model.states.CombatState;
 import com.openrsc.server.model.world.World;
+import com.openrsc.server.model.world.region.TileOccupancy;
 import com.openrsc.server.net.rsc.ActionSender;
 import com.openrsc.server.util.rsc.CollisionFlag;
 import com.openrsc.server.util.rsc.Formulae;
@@ -122,6 +123,10 @@ public abstract class Mob extends Entity {
 	 * Tiles around us that we can see
 	 */
 	private ViewArea viewArea = new ViewArea(this);
+	/**
+	 * The tile we are registered on in the region manager's tile occupancy, null if we are not registered
+	 */
+	private Point occupiedTile;
 
 	public Mob (final World world) {
 		super(world);
@@ -198,15 +203,15 @@ public abstract class Mob extends Entity {
 			return true;
 		}
 		if (minX <= getX() - 1 && maxX >= getX() - 1 && minY <= getY() && maxY >= getY()
-			&& (getWorld().getTile(getX() - 1, getY()).traversalMask & CollisionFlag.WALL_WEST) == 0) {
+			&& (getWorld().getCollisionMap().getTraversalMask(getX() - 1, getY()) & CollisionFlag.WALL_WEST) == 0) {
 			return true;
 		}
 		if (1 + getX() >= minX && getX() + 1 <= maxX && getY() >= minY && maxY >= getY()
-			&& (CollisionFlag.WALL_EAST & getWorld().getTile(getX() + 1, getY()).traversalMask) == 0) {
+			&& (CollisionFlag.WALL_EAST & getWorld().getCollisionMap().getTraversalMask(getX() + 1, getY())) == 0) {
 			return true;
 		}
 		if (minX <= getX() && maxX >= getX() && getY() - 1 >= minY && maxY >= getY() - 1
-			&& (CollisionFlag.WALL_SOUTH & getWorld().getTile(getX(), getY() - 1).traversalMask) == 0) {
+			&& (CollisionFlag.WALL_SOUTH & getWorld().getCollisionMap().getTraversalMask(getX(), getY() - 1)) == 0) {
 			return true;
 		}
 		return false;
@@ -214,23 +219,23 @@ public abstract class Mob extends Entity {
 
 	private boolean canReachDiagonal(int minX, int maxX, int minY, int maxY) {
 		if (minX <= getX() && getX() <= maxX && minY <= getY() + 1 && maxY >= getY() + 1
-			&& (CollisionFlag.WALL_NORTH & getWorld().getTile(getX(), getY() + 1).traversalMask) == 0) {
+			&& (CollisionFlag.WALL_NORTH & getWorld().getCollisionMap().getTraversalMask(getX(), getY() + 1)) == 0) {
 			return true;
 		}
 		if (minX <= getX() - 1 && maxX >= getX() - 1 && minY <= getY() - 1 && maxY >= getY() - 1
-			&& (getWorld().getTile(getX() - 1, getY() - 1).traversalMask & CollisionFlag.WALL_SOUTH_WEST) == 0) {
+			&& (getWorld().getCollisionMap().getTraversalMask(getX() - 1, getY() - 1) & CollisionFlag.WALL_SOUTH_WEST) == 0) {
 			return true;
 		}
 		if (1 + getX() >= minX && getX() + 1 <= maxX && getY() - 1 >= minY && maxY >= getY() - 1
-			&& (CollisionFlag.WALL_SOUTH_EAST & getWorld().getTile(getX() + 1, getY() - 1).traversalMask) == 0) {
+			&& (CollisionFlag.WALL_SOUTH_EAST & getWorld().getCollisionMap().getTraversalMask(getX() + 1, getY() - 1)) == 0) {
 			return true;
 		}
 		if (minX <= getX() - 1 && maxX >= getX() - 1 && minY <= getY() + 1 && maxY >= getY() + 1
-			&& (getWorld().getTile(getX() - 1, getY() + 1).traversalMask & CollisionFlag.WALL_NORTH_WEST) == 0) {
+			&& (getWorld().getCollisionMap().getTraversalMask(getX() - 1, getY() + 1) & CollisionFlag.WALL_NORTH_WEST) == 0) {
 			return true;
 		}
 		if (1 + getX() >= minX && getX() + 1 <= maxX && getY() + 1 >= minY && maxY >= getY() + 1
-			&& (CollisionFlag.WALL_NORTH_EAST & getWorld().getTile(getX() + 1, getY() + 1).traversalMask) == 0) {
+			&& (CollisionFlag.WALL_NORTH_EAST & getWorld().getCollisionMap().getTraversalMask(getX() + 1, getY() + 1)) == 0) {
 			return true;
 		}
 		return false;
@@ -306,7 +311,7 @@ public abstract class Mob extends Entity {
 	}
 
 	private boolean isBlocking(Entity e, int x, int y, int bit) {
-		int val = getWorld().getTile(x, y).traversalMask;
+		int val = getWorld().getCollisionMap().getTraversalMask(x, y);
 		if ((val & bit) != 0) {
 			return true;
 		}
@@ -481,10 +486,15 @@ public abstract class Mob extends Entity {
 
 	public void walkToEntityAStar(final int x, final int y, final int depth) {
 		getWalkingQueue().reset();
+		if (!getWorld().getCollisionMap().isReachable(getX(), getY(), x, y)) {
+			// No search would find a path, so walk towards the target as a failed search does.
+			walkToEntity(x, y);
+			return;
+		}
 		final Point mobPos = new Point(this.getX(), this.getY());
 		final AStarPathfinder pathFinder = new AStarPathfinder(this.getWorld(), mobPos, new Point(x,y), depth);
 		pathFinder.feedPath(new Path(this, PathType.WALK_TO_ENTITY));
-		Path newPath = pathFinder.findPath();
+		Path newPath = pathFinder.findPathForDepth();
 		if (newPath == null)
 			walkToEntity(x,y);
 		else
@@ -575,13 +585,7 @@ public abstract class Mob extends Entity {
 				}
 			}
 
-			if (this.isNpc()) {
-				getWorld().removeNpcPosition((Npc) this);
-			}
 			setLocation(victim.getLocation(), false);
-			if (this.isNpc()) {
-				getWorld().setNpcPosition((Npc) this);
-			}
 
 			setBusy(true);
 			setSprite(ourSprite);
@@ -883,6 +887,38 @@ public abstract class Mob extends Entity {
 		setLocation(point, false);
 	}
 
+	@Override
+	public void updateRegion() {
+		super.updateRegion();
+		updateOccupiedTile();
+	}
+
+	@Override
+	public void remove() {
+		super.remove();
+		updateOccupiedTile();
+	}
+
+	/**
+	 * Moves us in the tile occupancy to our current location, or out of it if we have been removed.
+	 */
+	private void updateOccupiedTile() {
+		final TileOccupancy occupancy = getWorld().getRegionManager().getOccupancy(this);
+		synchronized (occupancy) {
+			final Point tile = isRemoved() || getRegion() == null ? null : getLocation();
+			if (tile == occupiedTile || (tile != null && tile.equals(occupiedTile))) {
+				return;
+			}
+			if (occupiedTile != null) {
+				occupancy.remove(this, occupiedTile.getX(), occupiedTile.getY());
+			}
+			if (tile != null) {
+				occupancy.add(this, tile.getX(), tile.getY());
+			}
+			occupiedTile = tile;
+		}
+	}
+
 	public void setWarnedToMove(final boolean moved) {
 		warnedToMove = moved;
 	}
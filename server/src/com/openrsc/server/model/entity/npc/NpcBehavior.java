@@ -4,6 +4,7 @@ import com.openrsc.server.constants.ItemId;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.constants.Skills;
 import com.openrsc.server.event.rsc.impl.combat.AggroEvent;
+import com.openrsc.server.model.PathfindingService;
 import com.openrsc.server.model.Point;
 import com.openrsc.server.model.container.Item;
 import com.openrsc.server.model.entity.Mob;
@@ -23,6 +24,10 @@ public class NpcBehavior {
 	private long lastMovement;
 	private long lastTackleAttempt;
 	private static final int[] TACKLING_XP = {7, 10, 15, 20};
+	/**
+	 * The deepest search for the way back to the spawn point of an npc that chased too far.
+	 */
+	private static final int MAX_LEASH_DEPTH = 64;
 
 	protected Npc npc;
 
@@ -93,15 +98,9 @@ public class NpcBehavior {
 		if (checkCombatTimer(npc.getCombatTimer(), 5)) {
 			if ((npc.getDef().isAggressive() && !draynorManorSkeleton) || npc.getLocation().inWilderness() || (blackKnightsFortress)) {
 
-				// We loop through all players in view.
-				for (Player player : npc.getViewArea().getPlayersInView()) {
-
-					if (!player.withinRange(npc, aggroRadius)) continue;
-
-					// Player is a new target AND can't aggro.
-					if (!canAggro(player)) {
-						continue;
-					}
+				// We look for the first player in view that is in range and can be aggroed.
+				final Player player = npc.getViewArea().findPlayerInView(p -> p.withinRange(npc, aggroRadius) && canAggro(p));
+				if (player != null) {
 
 					// Remove the opponent if the player has not been engaged in > 10 seconds
 					if (npc.getLastOpponent() == player && checkCombatTimer(npc.getLastOpponent().getCombatTimer(), 200)) {
@@ -127,12 +126,11 @@ public class NpcBehavior {
 		if (System.currentTimeMillis() - lastTackleAttempt > npc.getConfig().GAME_TICK * 5 &&
 			npc.getDef().getName().toLowerCase().equals("gnome baller")
 			&& !(npc.getID() == NpcId.GNOME_BALLER_TEAMNORTH.id() || npc.getID() == NpcId.GNOME_BALLER_TEAMSOUTH.id())) {
-			for (Player player : npc.getViewArea().getPlayersInView()) {
-				int range = 1;
-				if (!player.withinRange(npc, range) || !player.getCarriedItems().hasCatalogID(ItemId.GNOME_BALL.id(), Optional.of(false))
-					|| !inArray(player.getAttribute("gnomeball_npc", -1), -1, 0))
-					continue; // Not in range, does not have a gnome ball or a gnome baller already has ball.
-
+			// Look for a player next to us holding a gnome ball that no gnome baller has yet.
+			final Player player = npc.getViewArea().findPlayerInView(p -> p.withinRange(npc, 1)
+				&& p.getCarriedItems().hasCatalogID(ItemId.GNOME_BALL.id(), Optional.of(false))
+				&& inArray(p.getAttribute("gnomeball_npc", -1), -1, 0));
+			if (player != null) {
 				//set tackle
 				state = State.TACKLE;
 				target = player;
@@ -169,7 +167,9 @@ public class NpcBehavior {
 			// Send the NPC back to its original spawn point.
 			if (npc.getConfig().WANT_IMPROVED_PATHFINDING) {
 				Point origin = new Point(npc.getLoc().startX(), npc.getLoc().startY());
-				npc.walkToEntityAStar(origin.getX(), origin.getY());
+				// Search far enough to find the way back from wherever the chase led.
+				final int distance = Math.max(Math.abs(npc.getX() - origin.getX()), Math.abs(npc.getY() - origin.getY()));
+				walkToEntityAStar(null, origin.getX(), origin.getY(), Math.max(20, Math.min(distance + 4, MAX_LEASH_DEPTH)));
 				npc.getSkills().normalize();
 				npc.cure();
 			}
@@ -189,7 +189,7 @@ public class NpcBehavior {
 		int numTicks = target.getCombatState() == CombatState.RUNNING ? 5 : 1;
 		if (checkCombatTimer(target.getCombatTimer(), numTicks)) {
 			if (npc.getWorld().getServer().getConfig().WANT_IMPROVED_PATHFINDING)
-				npc.walkToEntityAStar(target.getX(), target.getY());
+				walkToEntityAStar(target, target.getX(), target.getY(), 20);
 			else
 				npc.walkToEntity(target.getX(), target.getY());
 
@@ -202,6 +202,20 @@ public class NpcBehavior {
 		}
 	}
 
+	/**
+	 * Sends the npc along a searched path, found on the pathfinding service when it is enabled.
+	 *
+	 * @param chased The mob the path leads to, or null if it leads to a fixed point
+	 */
+	private void walkToEntityAStar(final Mob chased, final int x, final int y, final int depth) {
+		final PathfindingService pathfinding = npc.getWorld().getServer().getGameUpdater().getPathfindingService();
+		if (pathfinding != null) {
+			pathfinding.request(npc, chased, x, y, depth);
+		} else {
+			npc.walkToEntityAStar(x, y, depth);
+		}
+	}
+
 	private void handleCombat() {
 
 		// No target, return to roaming.
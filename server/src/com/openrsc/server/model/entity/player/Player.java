@@ -106,6 +106,7 @@ public final class Player extends Mob {
 	private long lastSaveTime = System.currentTimeMillis();
 	private int appearanceID;
 	private HashMap<Long, Integer> knownPlayersAppearanceIDs = new HashMap<Long, Integer>();
+	private volatile EncodedAppearance encodedAppearance;
 	private long lastCommand;
 	private LinkedHashSet<Player> localPlayers = new LinkedHashSet<Player>();
 	private LinkedHashSet<Npc> localNpcs = new LinkedHashSet<Npc>();
@@ -457,6 +458,22 @@ public final class Player extends Mob {
 		appearanceID++;
 	}
 
+	/**
+	 * @return This player's appearance update entry if it was encoded for the current appearance during the given
+	 * update cycle, otherwise null.
+	 */
+	public byte[] getEncodedAppearance(final long updateCycle) {
+		final EncodedAppearance encoded = encodedAppearance;
+		if (encoded == null || encoded.appearanceID != getAppearanceID() || encoded.updateCycle != updateCycle) {
+			return null;
+		}
+		return encoded.data;
+	}
+
+	public void setEncodedAppearance(final byte[] data, final long updateCycle) {
+		encodedAppearance = new EncodedAppearance(getAppearanceID(), updateCycle, data);
+	}
+
 	public long getLastCommand() {
 		return lastCommand;
 	}
@@ -1890,6 +1907,7 @@ public final class Player extends Mob {
 				&& packetID != OpcodeIn.PRAYER_ACTIVATED.getOpcode()
 				&& packetID != OpcodeIn.PRAYER_DEACTIVATED.getOpcode())
 			&& activePackets.contains(packetID)) {
+			packet.release();
 			return;
 		}
 		if (incomingPackets.size() <= getWorld().getServer().getConfig().PACKET_LIMIT) {
@@ -1897,6 +1915,8 @@ public final class Player extends Mob {
 				incomingPackets.add(packet);
 				activePackets.add(packetID);
 			}
+		} else {
+			packet.release();
 		}
 	}
 
@@ -1940,6 +1960,7 @@ public final class Player extends Mob {
 
 	public void processIncomingPackets() {
 		if (!channel.isOpen() && !channel.isWritable()) {
+			releaseIncomingPackets();
 			return;
 		}
 		synchronized (incomingPackets) {
@@ -1949,15 +1970,19 @@ public final class Player extends Mob {
 				final Packet curPacket = packet;
 				final long packetTime = getWorld().getServer().bench(
 					() -> {
-						activePackets.remove(activePackets.indexOf(curPacket.getID()));
-						final PacketHandler ph = PacketHandlerLookup.get(curPacket.getID());
-						if (ph != null && curPacket.getBuffer().readableBytes() >= 0) {
-							try {
-								ph.handlePacket(curPacket, this);
-							} catch (final Exception e) {
-								LOGGER.catching(e);
-								unregister(false, "Malformed packet!");
+						try {
+							activePackets.remove(activePackets.indexOf(curPacket.getID()));
+							final PacketHandler ph = PacketHandlerLookup.get(curPacket.getID());
+							if (ph != null && curPacket.getBuffer().readableBytes() >= 0) {
+								try {
+									ph.handlePacket(curPacket, this);
+								} catch (final Exception e) {
+									LOGGER.catching(e);
+									unregister(false, "Malformed packet!");
+								}
 							}
+						} finally {
+							curPacket.release();
 						}
 					}
 				);
@@ -1971,6 +1996,15 @@ public final class Player extends Mob {
 		}
 	}
 
+	private void releaseIncomingPackets() {
+		synchronized (incomingPackets) {
+			for (final Packet packet : incomingPackets) {
+				packet.release();
+			}
+			incomingPackets.clear();
+		}
+	}
+
 	public void processOutgoingPackets() {
 		// Unsure if we want to clear right now. Probably OK not to since the player should be cleaned up when the channel is no longer open.
 		/*if(!channel.isOpen() || !isLoggedIn()) {
@@ -1981,20 +2015,22 @@ public final class Player extends Mob {
 			return;
 		}
 		synchronized (outgoingPackets) {
+			if (outgoingPackets.isEmpty()) {
+				return;
+			}
 			try {
+				// Queue every packet on the channel and flush once, so the player costs a single socket write per tick.
 				for (final Packet outgoing : outgoingPackets) {
-					final long packetTime = getWorld().getServer().bench(
-						() -> {
-							channel.writeAndFlush(outgoing);
-						}
-					);
-					getWorld().getServer().addOutgoingPacketDuration(outgoing.getID(), packetTime);
+					final long start = System.nanoTime();
+					channel.write(outgoing);
+					getWorld().getServer().addOutgoingPacketDuration(outgoing.getID(), System.nanoTime() - start);
 					getWorld().getServer().incrementOutgoingPacketCount(outgoing.getID());
 				}
 			} catch (final Exception e) {
 				LOGGER.catching(e);
+			} finally {
+				channel.flush();
 			}
-			//channel.flush();
 			outgoingPackets.clear();
 		}
 	}
@@ -2151,6 +2187,7 @@ public final class Player extends Mob {
 	public void logoutSaveSuccess() {
 
 		setLoggedIn(false);
+		releaseIncomingPackets();
 
 		/* IP Tracking in wilderness removal */
 		/*if(player.getLocation().inWilderness())
@@ -3177,4 +3214,16 @@ public final class Player extends Mob {
 	public void setLastExchangeTime() {
 		this.lastExchangeTime = System.currentTimeMillis();
 	}
+
+	private static final class EncodedAppearance {
+		private final int appearanceID;
+		private final long updateCycle;
+		private final byte[] data;
+
+		private EncodedAppearance(final int appearanceID, final long updateCycle, final byte[] data) {
+			this.appearanceID = appearanceID;
+			this.updateCycle = updateCycle;
+			this.data = data;
+		}
+	}
 }
@@ -23,6 +23,7 @@ import com.openrsc.server.model.entity.GroundItem;
 import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.snapshot.Snapshot;
+import com.openrsc.server.model.world.region.CollisionMap;
 import com.openrsc.server.model.world.region.RegionManager;
 import com.openrsc.server.model.world.region.TileValue;
 import com.openrsc.server.net.rsc.ActionSender;
@@ -40,6 +41,7 @@ import org.apache.logging.log4j.Logger;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 
@@ -70,11 +72,14 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 
 	private final RegionManager regionManager;
 	private final EntityList<Npc> npcs;
-	private HashMap<String, ArrayList<Npc>> npcPositions;
 	private final EntityList<Player> players;
-	private final List<QuestInterface> quests;
-	private final List<MiniGameInterface> minigames;
-	private final List<Shop> shops;
+	/**
+	 * The quests, minigames and shops of the loaded plugins. Read without locking, a plugin reload replaces each list
+	 * as a whole.
+	 */
+	private volatile List<QuestInterface> quests;
+	private volatile List<MiniGameInterface> minigames;
+	private volatile List<Shop> shops;
 	private final ConcurrentMap<TrawlerBoat, FishingTrawler> fishingTrawler;
 	private final PartyManager partyManager;
 	private final ClanManager clanManager;
@@ -98,12 +103,11 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	public World(final Server server) {
 		this.server = server;
 		this.npcs = new EntityList<>(4000);
-		this.npcPositions = new HashMap<>();
 		this.npcDrops = new NpcDrops(this);
 		this.players = new EntityList<>(2000);
-		this.quests = Collections.synchronizedList( new LinkedList<>() );
-		this.minigames = Collections.synchronizedList( new LinkedList<>() );
-		this.shops = Collections.synchronizedList( new ArrayList<>() );
+		this.quests = new CopyOnWriteArrayList<>();
+		this.minigames = new CopyOnWriteArrayList<>();
+		this.shops = new CopyOnWriteArrayList<>();
 		this.wildernessIPTracker = new ThreadSafeIPTracker<>();
 		this.playerUnderAttackMap = new ConcurrentHashMap<>();
 		this.npcUnderAttackMap = new ConcurrentHashMap<>();
@@ -155,7 +159,7 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 			public void action() {
 				registerGameObject(new GameObject(getWorld(), loc));
 				if (forceFullBlock) {
-					getTile(loc.getX(), loc.getY()).traversalMask |= 64;
+					getCollisionMap().addTraversalFlags(loc.getX(), loc.getY(), 64);
 				}
 			}
 		});
@@ -338,6 +342,14 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 		return false;
 	}
 
+	/**
+	 * Decodes the landscape into the regions. Only needs the entity definitions, so the server loads it alongside
+	 * its plugins before calling {@link #load()}.
+	 */
+	public void loadLandscape() {
+		getRegionManager().load();
+	}
+
 	public void load() {
 		try {
 			getClanManager().initialize();
@@ -345,7 +357,6 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 			if (getMarket() != null) {
 				getMarket().start();
 			}
-			getRegionManager().load();
 			getWorldLoader().getWorldPopulator().populateWorld();
 			getNpcDrops().load();
 		} catch (final Exception e) {
@@ -378,7 +389,6 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 		getRegionManager().unload();
 		getNpcDrops().unload();
 		npcs.clear();
-		npcPositions.clear();
 		players.clear();
 		snapshots.clear();
 		wildernessIPTracker.clear();
@@ -433,23 +443,23 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 							handleProjectileClipAllowance(x, y, dir, o.getType(), o.getGameObjectDef().getType(), -1);
 						}
 						if (o.getGameObjectDef().getType() == 1) {
-							getTile(x, y).traversalMask |= CollisionFlag.FULL_BLOCK_C;
+							getCollisionMap().addTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_C);
 						} else if (dir == 0) {
-							getTile(x, y).traversalMask |= CollisionFlag.WALL_EAST;
-							if (getTile(x - 1, y) != null)
-								getTile(x - 1, y).traversalMask |= CollisionFlag.WALL_WEST;
+							getCollisionMap().addTraversalFlags(x, y, CollisionFlag.WALL_EAST);
+							if (withinWorld(x - 1, y))
+								getCollisionMap().addTraversalFlags(x - 1, y, CollisionFlag.WALL_WEST);
 						} else if (dir == 2) {
-							getTile(x, y).traversalMask |= CollisionFlag.WALL_SOUTH;
-							if (getTile(x, y + 1) != null)
-								getTile(x, y + 1).traversalMask |= CollisionFlag.WALL_NORTH;
+							getCollisionMap().addTraversalFlags(x, y, CollisionFlag.WALL_SOUTH);
+							if (withinWorld(x, y + 1))
+								getCollisionMap().addTraversalFlags(x, y + 1, CollisionFlag.WALL_NORTH);
 						} else if (dir == 4) {
-							getTile(x, y).traversalMask |= CollisionFlag.WALL_WEST;
-							if (getTile(x + 1, y) != null)
-								getTile(x + 1, y).traversalMask |= CollisionFlag.WALL_EAST;
+							getCollisionMap().addTraversalFlags(x, y, CollisionFlag.WALL_WEST);
+							if (withinWorld(x + 1, y))
+								getCollisionMap().addTraversalFlags(x + 1, y, CollisionFlag.WALL_EAST);
 						} else if (dir == 6) {
-							getTile(x, y).traversalMask |= CollisionFlag.WALL_NORTH;
-							if (getTile(x, y - 1) != null)
-								getTile(x, y - 1).traversalMask |= CollisionFlag.WALL_SOUTH;
+							getCollisionMap().addTraversalFlags(x, y, CollisionFlag.WALL_NORTH);
+							if (withinWorld(x, y - 1))
+								getCollisionMap().addTraversalFlags(x, y - 1, CollisionFlag.WALL_SOUTH);
 						}
 					}
 				}
@@ -465,17 +475,17 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 				}
 				if (dir == 0) {
 
-					getTile(x, y).traversalMask |= CollisionFlag.WALL_NORTH;
-					if (getTile(x, y - 1) != null)
-						getTile(x, y - 1).traversalMask |= CollisionFlag.WALL_SOUTH;
+					getCollisionMap().addTraversalFlags(x, y, CollisionFlag.WALL_NORTH);
+					if (withinWorld(x, y - 1))
+						getCollisionMap().addTraversalFlags(x, y - 1, CollisionFlag.WALL_SOUTH);
 				} else if (dir == 1) {
-					getTile(x, y).traversalMask |= CollisionFlag.WALL_EAST;
-					if (getTile(x - 1, y) != null)
-						getTile(x - 1, y).traversalMask |= CollisionFlag.WALL_WEST;
+					getCollisionMap().addTraversalFlags(x, y, CollisionFlag.WALL_EAST);
+					if (withinWorld(x - 1, y))
+						getCollisionMap().addTraversalFlags(x - 1, y, CollisionFlag.WALL_WEST);
 				} else if (dir == 2) {
-					getTile(x, y).traversalMask |= CollisionFlag.FULL_BLOCK_A;
+					getCollisionMap().addTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_A);
 				} else if (dir == 3) {
-					getTile(x, y).traversalMask |= CollisionFlag.FULL_BLOCK_B;
+					getCollisionMap().addTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_B);
 				}
 				break;
 		}
@@ -505,24 +515,24 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	private void handleProjectileClipAllowance(final int x, final int y, final int dir, final int type, final int objectType, final int doorType) {
 
 		// Always give the current tile a clip mask.
-		getTile(x, y).projectileAllowed = true;
+		getCollisionMap().setProjectileAllowed(x, y, true);
 
 		if ((type == 0 && objectType == 1) || (type == 1 && doorType != 1)) return;
 
-		if (dir == 0 && getTile(x - 1, y) != null) {
-			getTile(x - 1, y).projectileAllowed = true;
+		if (dir == 0 && withinWorld(x - 1, y)) {
+			getCollisionMap().setProjectileAllowed(x - 1, y, true);
 		}
 
-		else if (dir == 2 && getTile(x, y + 1) != null) {
-			getTile(x, y + 1).projectileAllowed = true;
+		else if (dir == 2 && withinWorld(x, y + 1)) {
+			getCollisionMap().setProjectileAllowed(x, y + 1, true);
 		}
 
-		else if (dir == 4 && getTile(x + 1, y) != null) {
-			getTile(x + 1, y).projectileAllowed = true;
+		else if (dir == 4 && withinWorld(x + 1, y)) {
+			getCollisionMap().setProjectileAllowed(x + 1, y, true);
 		}
 
-		else if (dir == 6 && getTile(x, y - 1) != null) {
-			getTile(x, y - 1).projectileAllowed = true;
+		else if (dir == 6 && withinWorld(x, y - 1)) {
+			getCollisionMap().setProjectileAllowed(x, y - 1, true);
 		}
 	}
 
@@ -548,13 +558,12 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	public Npc registerNpc(final Npc n) {
 		final NPCLoc npc = n.getLoc();
 		if (npc.startX < npc.minX || npc.startX > npc.maxX || npc.startY < npc.minY || npc.startY > npc.maxY
-			|| (getTile(npc.startX, npc.startY).overlay & 64) != 0) {
+			|| (getCollisionMap().getOverlay(npc.startX, npc.startY) & 64) != 0) {
 			LOGGER.error("Broken Npc: <id>" + npc.id + "</id><startX>" + npc.startX + "</startX><startY>"
 				+ npc.startY + "</startY>");
 		}
 
 		getNpcs().add(n);
-		setNpcPosition(n);
 		return n;
 	}
 
@@ -596,37 +605,81 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	}
 
 	public void registerQuest(final QuestInterface quest) {
+		if (acceptQuest(quest, getQuests())) {
+			getQuests().add(quest);
+		}
+	}
+
+	/**
+	 * @return False if custom quests are disabled and the quest is one
+	 * @throws IllegalArgumentException when the quest is invalid or its ID is already used by one of the quests
+	 */
+	private boolean acceptQuest(final QuestInterface quest, final List<QuestInterface> quests) throws IllegalArgumentException {
 		if (quest.getQuestName() == null) {
 			throw new IllegalArgumentException("Quest name cannot be null");
 		} else if (quest.getQuestName().length() > 40) {
 			throw new IllegalArgumentException("Quest name cannot be longer then 40 characters");
 		}
-		for (final QuestInterface q : getQuests()) {
+		for (final QuestInterface q : quests) {
 			if (q.getQuestId() == quest.getQuestId()) {
 				throw new IllegalArgumentException("Quest ID must be unique");
 			}
 		}
 
-		if (!getServer().getConfig().WANT_CUSTOM_QUESTS
-		&& quest.getQuestId() > Quests.LEGENDS_QUEST)
-			return;
-
-		getQuests().add(quest);
+		return getServer().getConfig().WANT_CUSTOM_QUESTS
+			|| quest.getQuestId() <= Quests.LEGENDS_QUEST;
 	}
 
 	public void registerMiniGame(final MiniGameInterface minigame) {
+		validateMiniGame(minigame, getMiniGames());
+		getMiniGames().add(minigame);
+	}
+
+	/**
+	 * @throws IllegalArgumentException when the minigame is invalid or its ID is already used by one of the minigames
+	 */
+	private void validateMiniGame(final MiniGameInterface minigame, final List<MiniGameInterface> minigames) throws IllegalArgumentException {
 		if (minigame.getMiniGameName() == null) {
 			throw new IllegalArgumentException("Minigame name cannot be null");
 		} else if (minigame.getMiniGameName().length() > 40) {
 			throw new IllegalArgumentException("Minigame name cannot be longer then 40 characters");
 		}
-		for (final MiniGameInterface m : getMiniGames()) {
+		for (final MiniGameInterface m : minigames) {
 			if (m.getMiniGameId() == minigame.getMiniGameId()) {
 				System.out.println(minigame.getMiniGameId());
 				throw new IllegalArgumentException("MiniGame ID must be unique");
 			}
 		}
-		getMiniGames().add(minigame);
+	}
+
+	/**
+	 * Replaces the quests, minigames and shops with those of newly loaded plugins. Each list is built aside and swapped
+	 * in as a whole, so a reader iterating one sees either all of the old entries or all of the new ones. Invalid
+	 * quests and minigames are logged and left out, as they are by registerQuest and registerMiniGame.
+	 */
+	public void replacePluginContent(final List<QuestInterface> quests, final List<MiniGameInterface> minigames, final List<Shop> shops) {
+		final List<QuestInterface> newQuests = new ArrayList<>();
+		for (final QuestInterface quest : quests) {
+			try {
+				if (acceptQuest(quest, newQuests)) {
+					newQuests.add(quest);
+				}
+			} catch (final IllegalArgumentException e) {
+				LOGGER.catching(e);
+			}
+		}
+		final List<MiniGameInterface> newMiniGames = new ArrayList<>();
+		for (final MiniGameInterface minigame : minigames) {
+			try {
+				validateMiniGame(minigame, newMiniGames);
+				newMiniGames.add(minigame);
+			} catch (final IllegalArgumentException e) {
+				LOGGER.catching(e);
+			}
+		}
+		this.quests = new CopyOnWriteArrayList<>(newQuests);
+		this.minigames = new CopyOnWriteArrayList<>(newMiniGames);
+		this.shops = new CopyOnWriteArrayList<>(shops);
 	}
 
 	public void registerShop(final Shop shop) {
@@ -692,19 +745,19 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 				for (int x = o.getX(); x < o.getX() + width; ++x) {
 					for (int y = o.getY(); y < o.getY() + height; ++y) {
 						if (o.getGameObjectDef().getType() == 1) {
-							getTile(x, y).traversalMask &= 0xffbf;
+							getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_C);
 						} else if (dir == 0) {
-							getTile(x, y).traversalMask &= 0xfffd;
-							getTile(x - 1, y).traversalMask &= 65535 - 8;
+							getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.WALL_EAST);
+							getCollisionMap().removeTraversalFlags(x - 1, y, CollisionFlag.WALL_WEST);
 						} else if (dir == 2) {
-							getTile(x, y).traversalMask &= 0xfffb;
-							getTile(x, y + 1).traversalMask &= 65535 - 1;
+							getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.WALL_SOUTH);
+							getCollisionMap().removeTraversalFlags(x, y + 1, CollisionFlag.WALL_NORTH);
 						} else if (dir == 4) {
-							getTile(x, y).traversalMask &= 0xfff7;
-							getTile(x + 1, y).traversalMask &= 65535 - 2;
+							getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.WALL_WEST);
+							getCollisionMap().removeTraversalFlags(x + 1, y, CollisionFlag.WALL_EAST);
 						} else if (dir == 6) {
-							getTile(x, y).traversalMask &= 0xfffe;
-							getTile(x, y - 1).traversalMask &= 65535 - 4;
+							getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.WALL_NORTH);
+							getCollisionMap().removeTraversalFlags(x, y - 1, CollisionFlag.WALL_SOUTH);
 						}
 					}
 				}
@@ -715,15 +768,15 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 				}
 				int x = o.getX(), y = o.getY();
 				if (dir == 0) {
-					getTile(x, y).traversalMask &= 0xfffe;
-					getTile(x, y - 1).traversalMask &= 65535 - 4;
+					getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.WALL_NORTH);
+					getCollisionMap().removeTraversalFlags(x, y - 1, CollisionFlag.WALL_SOUTH);
 				} else if (dir == 1) {
-					getTile(x, y).traversalMask &= 0xfffd;
-					getTile(x - 1, y).traversalMask &= 65535 - 8;
+					getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.WALL_EAST);
+					getCollisionMap().removeTraversalFlags(x - 1, y, CollisionFlag.WALL_WEST);
 				} else if (dir == 2) {
-					getTile(x, y).traversalMask &= 0xffef;
+					getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_A);
 				} else if (dir == 3) {
-					getTile(x, y).traversalMask &= 0xffdf;
+					getCollisionMap().removeTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_B);
 				}
 				break;
 		}
@@ -792,6 +845,10 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 		return getRegionManager().withinWorld(x, y);
 	}
 
+	public CollisionMap getCollisionMap() {
+		return getRegionManager().getCollisionMap();
+	}
+
 	public TileValue getTile(final int x, final int y) {
 		return getRegionManager().getTile(x, y);
 	}
@@ -907,34 +964,6 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 		return globalMessageQueue;
 	}
 
-	public HashMap<String, ArrayList<Npc>> getNpcPositions() {
-		return npcPositions;
-	}
-
-	public void setNpcPosition(final Npc n) {
-		final String key = n.getX() + "," + n.getY();
-		npcPositions.putIfAbsent(key, new ArrayList<>());
-		npcPositions.get(key).add(n);
-	}
-
-	public void removeNpcPosition(final Npc n) {
-		final String key = n.getX() + "," + n.getY();
-		if (npcPositions.containsKey(key)) {
-			final ArrayList<Npc> ar = npcPositions.get(key);
-			if (ar.size() > 1) {
-				for (int i = 0; i < ar.size(); i++) {
-					if (n.getUUID().equals(ar.get(i).getUUID())) {
-						ar.remove(i);
-						break;
-					}
-				}
-			}
-			else {
-				npcPositions.remove(key);
-			}
-		}
-	}
-
 	@Override
 	public void run() {
 	}
@@ -0,0 +1,377 @@
+package com.openrsc.server.model.world.region;
+
+import com.openrsc.server.constants.Constants;
+import com.openrsc.server.util.rsc.CollisionFlag;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Landscape and collision values for every tile in the world, stored as one primitive array per value and indexed by
+ * x * height + y so neighbouring tiles in a column sit next to each other in memory.
+ *
+ * Coordinates outside of the map read as fully blocked with no walls, and writes to them are ignored.
+ *
+ * The walls, overlays and elevations only change while the landscape is decoded. Maps loaded with
+ * {@link #copyFrom(CollisionMap)} share them with the decoded landscape until they first change them.
+ *
+ * Once the world is loaded, {@link #computeReachability()} labels the connected areas of the map so path searches
+ * can skip targets they cannot reach, see {@link #isReachable(int, int, int, int)}.
+ */
+public final class CollisionMap {
+	private static final byte OUTSIDE_TRAVERSAL_MASK = (byte) CollisionFlag.FULL_BLOCK;
+
+	/**
+	 * The size of the squares whose traversal masks and projectile flags are versioned together.
+	 */
+	static final int REGION_SIZE = Constants.REGION_SIZE;
+
+	private final int width;
+	private final int height;
+
+	private final byte[] traversalMask;
+	private short[] diagWallVal;
+	private byte[] horizontalWallVal;
+	private byte[] verticalWallVal;
+	private byte[] overlay;
+	private byte[] elevation;
+	/**
+	 * One bit per tile. Atomic as objects are registered from several event threads at once, and the tiles sharing a
+	 * word lie in the same column.
+	 */
+	private final AtomicLongArray projectileAllowed;
+
+	/**
+	 * If the wall, overlay and elevation arrays belong to another map.
+	 */
+	private boolean terrainShared = false;
+
+	/**
+	 * The connected areas of the map, null until they are computed.
+	 */
+	private volatile ReachabilityMap reachability;
+
+	/**
+	 * Increased whenever a traversal mask changes, so copies of the masks can tell when they are out of date.
+	 */
+	private final AtomicInteger traversalVersion;
+
+	/**
+	 * The version of each region, increased whenever a traversal mask or projectile flag in it changes. Changes can
+	 * come from several threads at once, and are increased after the value changes so a reader seeing the new
+	 * version also sees the new value.
+	 */
+	private final AtomicIntegerArray regionVersions;
+	private final int heightInRegions;
+	private final LineOfSightCache lineOfSightCache;
+
+	public CollisionMap(final int width, final int height) {
+		this.width = width;
+		this.height = height;
+
+		final int size = width * height;
+		this.traversalMask = new byte[size];
+		this.diagWallVal = new short[size];
+		this.horizontalWallVal = new byte[size];
+		this.verticalWallVal = new byte[size];
+		this.overlay = new byte[size];
+		this.elevation = new byte[size];
+		this.projectileAllowed = new AtomicLongArray((size + 63) >>> 6);
+		this.heightInRegions = (height + REGION_SIZE - 1) / REGION_SIZE;
+		this.regionVersions = new AtomicIntegerArray(((width + REGION_SIZE - 1) / REGION_SIZE) * heightInRegions);
+		for (int region = 0; region < regionVersions.length(); region++) {
+			regionVersions.lazySet(region, 1);
+		}
+		this.traversalVersion = new AtomicInteger();
+		this.lineOfSightCache = new LineOfSightCache(this);
+	}
+
+	/**
+	 * Copies the traversal masks and projectile flags of a map and shares its other values, see {@link #copyTraversal()}.
+	 */
+	private CollisionMap(final CollisionMap map) {
+		this.width = map.width;
+		this.height = map.height;
+		this.traversalMask = map.traversalMask.clone();
+		this.diagWallVal = map.diagWallVal;
+		this.horizontalWallVal = map.horizontalWallVal;
+		this.verticalWallVal = map.verticalWallVal;
+		this.overlay = map.overlay;
+		this.elevation = map.elevation;
+		this.projectileAllowed = new AtomicLongArray(map.projectileAllowed.length());
+		copyProjectileFlags(map.projectileAllowed, projectileAllowed);
+		this.terrainShared = true;
+		this.traversalVersion = new AtomicInteger(map.traversalVersion.get());
+		this.heightInRegions = map.heightInRegions;
+		this.regionVersions = new AtomicIntegerArray(map.regionVersions.length());
+		copyVersions(map.regionVersions, regionVersions);
+		this.lineOfSightCache = new LineOfSightCache(this);
+	}
+
+	/**
+	 * @return A map holding a copy of the current traversal masks, for path searches that run off the game thread
+	 * while this map changes. It has no connected areas computed.
+	 */
+	public CollisionMap copyTraversal() {
+		return new CollisionMap(this);
+	}
+
+	/**
+	 * Brings a copy made by {@link #copyTraversal()} up to date with the current traversal masks.
+	 */
+	public void updateTraversalCopy(final CollisionMap copy) {
+		if (copy.traversalMask.length != traversalMask.length) {
+			throw new IllegalArgumentException("Copy is " + copy.width + "x" + copy.height + ", expected " + width + "x" + height);
+		}
+		System.arraycopy(traversalMask, 0, copy.traversalMask, 0, traversalMask.length);
+		copyProjectileFlags(projectileAllowed, copy.projectileAllowed);
+		copyVersions(regionVersions, copy.regionVersions);
+		copy.traversalVersion.set(traversalVersion.get());
+	}
+
+	public int getTraversalVersion() {
+		return traversalVersion.get();
+	}
+
+	/**
+	 * Replaces every value of this map with those of a decoded landscape of the same size. The landscape must not
+	 * change afterwards, its walls, overlays and elevations are shared rather than copied.
+	 */
+	public void copyFrom(final CollisionMap landscape) {
+		if (landscape.width != width || landscape.height != height) {
+			throw new IllegalArgumentException("Landscape is " + landscape.width + "x" + landscape.height + ", expected " + width + "x" + height);
+		}
+		System.arraycopy(landscape.traversalMask, 0, traversalMask, 0, traversalMask.length);
+		copyProjectileFlags(landscape.projectileAllowed, projectileAllowed);
+		diagWallVal = landscape.diagWallVal;
+		horizontalWallVal = landscape.horizontalWallVal;
+		verticalWallVal = landscape.verticalWallVal;
+		overlay = landscape.overlay;
+		elevation = landscape.elevation;
+		terrainShared = true;
+		reachability = null;
+		traversalVersion.incrementAndGet();
+		for (int region = 0; region < regionVersions.length(); region++) {
+			regionVersions.incrementAndGet(region);
+		}
+	}
+
+	private static void copyProjectileFlags(final AtomicLongArray from, final AtomicLongArray to) {
+		for (int word = 0; word < from.length(); word++) {
+			to.lazySet(word, from.get(word));
+		}
+	}
+
+	private static void copyVersions(final AtomicIntegerArray from, final AtomicIntegerArray to) {
+		for (int region = 0; region < from.length(); region++) {
+			to.lazySet(region, from.get(region));
+		}
+	}
+
+	private void ownTerrain() {
+		if (!terrainShared) {
+			return;
+		}
+		diagWallVal = diagWallVal.clone();
+		horizontalWallVal = horizontalWallVal.clone();
+		verticalWallVal = verticalWallVal.clone();
+		overlay = overlay.clone();
+		elevation = elevation.clone();
+		terrainShared = false;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public boolean contains(final int x, final int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	/**
+	 * @return The index of the tile in the value arrays, or -1 if it is outside of the map.
+	 */
+	public int indexOf(final int x, final int y) {
+		return contains(x, y) ? x * height + y : -1;
+	}
+
+	public byte getTraversalMask(final int x, final int y) {
+		final int index = indexOf(x, y);
+		return index < 0 ? OUTSIDE_TRAVERSAL_MASK : traversalMask[index];
+	}
+
+	public byte getTraversalMask(final int index) {
+		return traversalMask[index];
+	}
+
+	public void setTraversalMask(final int x, final int y, final int mask) {
+		final int index = indexOf(x, y);
+		if (index >= 0) {
+			traversalMask[index] = (byte) mask;
+			traversalVersion.incrementAndGet();
+			regionChanged(x, y);
+			tileOpened(x, y);
+		}
+	}
+
+	public void addTraversalFlags(final int x, final int y, final int flags) {
+		final int index = indexOf(x, y);
+		if (index >= 0) {
+			traversalMask[index] |= flags;
+			traversalVersion.incrementAndGet();
+			regionChanged(x, y);
+		}
+	}
+
+	public void removeTraversalFlags(final int x, final int y, final int flags) {
+		final int index = indexOf(x, y);
+		if (index >= 0) {
+			traversalMask[index] &= ~flags;
+			traversalVersion.incrementAndGet();
+			regionChanged(x, y);
+			tileOpened(x, y);
+		}
+	}
+
+	private void tileOpened(final int x, final int y) {
+		final ReachabilityMap reachability = this.reachability;
+		if (reachability != null) {
+			reachability.tileOpened(x, y);
+		}
+	}
+
+	/**
+	 * Labels the connected areas of the map as they are now. Flags removed afterwards connect areas, flags added
+	 * afterwards never disconnect them.
+	 *
+	 * @return The number of connected areas
+	 */
+	public int computeReachability() {
+		final ReachabilityMap reachability = new ReachabilityMap(this);
+		this.reachability = reachability;
+		return reachability.getComponentCount();
+	}
+
+	/**
+	 * @return False if a mob could never walk from the first tile to the second, true if it might. Always true
+	 * before {@link #computeReachability()} and for tiles outside of the map.
+	 */
+	public boolean isReachable(final int fromX, final int fromY, final int toX, final int toY) {
+		final ReachabilityMap reachability = this.reachability;
+		final int from = indexOf(fromX, fromY);
+		final int to = indexOf(toX, toY);
+		return reachability == null || from < 0 || to < 0 || reachability.isReachable(from, to);
+	}
+
+	public short getDiagWallVal(final int x, final int y) {
+		final int index = indexOf(x, y);
+		return index < 0 ? 0 : diagWallVal[index];
+	}
+
+	public void setDiagWallVal(final int x, final int y, final int value) {
+		final int index = indexOf(x, y);
+		if (index >= 0) {
+			ownTerrain();
+			diagWallVal[index] = (short) value;
+		}
+	}
+
+	public byte getHorizontalWallVal(final int x, final int y) {
+		final int index = indexOf(x, y);
+		return index < 0 ? 0 : horizontalWallVal[index];
+	}
+
+	public void setHorizontalWallVal(final int x, final int y, final int value) {
+		final int index = indexOf(x, y);
+		if (index >= 0) {
+			ownTerrain();
+			horizontalWallVal[index] = (byte) value;
+		}
+	}
+
+	public byte getVerticalWallVal(final int x, final int y) {
+		final int index = indexOf(x, y);
+		return index < 0 ? 0 : verticalWallVal[index];
+	}
+
+	public void setVerticalWallVal(final int x, final int y, final int value) {
+		final int index = indexOf(x, y);
+		if (index >= 0) {
+			ownTerrain();
+			verticalWallVal[index] = (byte) value;
+		}
+	}
+
+	public byte getOverlay(final int x, final int y) {
+		final int index = indexOf(x, y);
+		return index < 0 ? 0 : overlay[index];
+	}
+
+	public void setOverlay(final int x, final int y, final int value) {
+		final int index = indexOf(x, y);
+		if (index >= 0) {
+			ownTerrain();
+			overlay[index] = (byte) value;
+		}
+	}
+
+	public byte getElevation(final int x, final int y) {
+		final int index = indexOf(x, y);
+		return index < 0 ? 0 : elevation[index];
+	}
+
+	public void setElevation(final int x, final int y, final int value) {
+		final int index = indexOf(x, y);
+		if (index >= 0) {
+			ownTerrain();
+			elevation[index] = (byte) value;
+		}
+	}
+
+	public boolean isProjectileAllowed(final int x, final int y) {
+		final int index = indexOf(x, y);
+		return index >= 0 && isProjectileAllowed(index);
+	}
+
+	public boolean isProjectileAllowed(final int index) {
+		return (projectileAllowed.get(index >>> 6) & (1L << index)) != 0;
+	}
+
+	public void setProjectileAllowed(final int x, final int y, final boolean allowed) {
+		final int index = indexOf(x, y);
+		if (index < 0) {
+			return;
+		}
+		final int word = index >>> 6;
+		final long bit = 1L << index;
+		long flags;
+		do {
+			flags = projectileAllowed.get(word);
+		} while (!projectileAllowed.compareAndSet(word, flags, allowed ? flags | bit : flags & ~bit));
+		regionChanged(x, y);
+	}
+
+	private void regionChanged(final int x, final int y) {
+		regionVersions.incrementAndGet((x / REGION_SIZE) * heightInRegions + y / REGION_SIZE);
+	}
+
+	/**
+	 * @return The version of the region holding the tile, which changes whenever a traversal mask or projectile flag
+	 * in the region does
+	 */
+	public int getRegionVersion(final int x, final int y) {
+		return regionVersions.get((x / REGION_SIZE) * heightInRegions + y / REGION_SIZE);
+	}
+
+	/**
+	 * @return The lines of sight found between tiles of this map, see {@link com.openrsc.server.model.PathValidation}
+	 */
+	public LineOfSightCache getLineOfSightCache() {
+		return lineOfSightCache;
+	}
+}
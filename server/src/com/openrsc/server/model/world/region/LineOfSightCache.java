@@ -0,0 +1,121 @@
+package com.openrsc.server.model.world.region;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers whether projectiles could pass between pairs of nearby tiles, so the mobs firing at each other every tick
+ * do not walk the same line of tiles again each time.
+ *
+ * Each slot packs one answer into a single long: the index of the source tile, the offset of the destination, the
+ * answer and a stamp of the collision map's region versions around the line. An answer is only used while the
+ * versions still match, so changing a tile's traversal mask or projectile flag forgets every answer near it. Slots
+ * are overwritten when another pair hashes to them, and can be read and written from several event threads at once.
+ */
+public final class LineOfSightCache {
+	private static final int SLOT_BITS = 13;
+
+	/**
+	 * The furthest apart the tiles of a cached pair may be on either axis. The lines then cross at most two regions
+	 * on each axis, so the regions of the corners of their bounding box cover the whole line.
+	 */
+	public static final int MAX_DISTANCE = CollisionMap.REGION_SIZE - 1;
+
+	private static final int INDEX_BITS = 22;
+	private static final int OFFSET_BITS = 7;
+	private static final int KEY_BITS = INDEX_BITS + 2 * OFFSET_BITS;
+	private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+	private static final long CLEAR = 1L << KEY_BITS;
+	private static final int STAMP_SHIFT = KEY_BITS + 1;
+	private static final long STAMP_MASK = (1L << (Long.SIZE - STAMP_SHIFT)) - 1;
+
+	/**
+	 * The answer to a lookup that is not cached.
+	 */
+	public static final int UNKNOWN = -1;
+
+	private final CollisionMap collisionMap;
+	private final AtomicLongArray slots = new AtomicLongArray(1 << SLOT_BITS);
+
+	LineOfSightCache(final CollisionMap collisionMap) {
+		this.collisionMap = collisionMap;
+		if (collisionMap.getWidth() * collisionMap.getHeight() > 1 << INDEX_BITS) {
+			throw new IllegalArgumentException("Map is too large to cache lines of sight for");
+		}
+	}
+
+	/**
+	 * @param stamp The stamp of the pair, see {@link #stamp(int, int, int, int)}
+	 * @return 1 if projectiles can pass between the tiles, 0 if they can not, or {@link #UNKNOWN} if that is not cached
+	 */
+	public int lookup(final int srcX, final int srcY, final int destX, final int destY, final long stamp) {
+		final long key = key(srcX, srcY, destX, destY);
+		if (key < 0) {
+			return UNKNOWN;
+		}
+		final long entry = slots.get(slot(key));
+		if ((entry & KEY_MASK) != key || (entry >>> STAMP_SHIFT) != stamp) {
+			return UNKNOWN;
+		}
+		return (entry & CLEAR) != 0 ? 1 : 0;
+	}
+
+	/**
+	 * Remembers if projectiles can pass between the tiles, as long as the collision values around them don't change.
+	 *
+	 * @param stamp The stamp of the pair taken before walking the line, so a change made while it was walked makes
+	 * the answer out of date rather than being stamped as already seen
+	 */
+	public void store(final int srcX, final int srcY, final int destX, final int destY, final long stamp, final boolean clear) {
+		final long key = key(srcX, srcY, destX, destY);
+		if (key < 0) {
+			return;
+		}
+		slots.lazySet(slot(key), key | (clear ? CLEAR : 0) | (stamp << STAMP_SHIFT));
+	}
+
+	/**
+	 * @return The key of the pair, or -1 if it can't be cached
+	 */
+	private long key(final int srcX, final int srcY, final int destX, final int destY) {
+		final int dx = destX - srcX;
+		final int dy = destY - srcY;
+		final int index = collisionMap.indexOf(srcX, srcY);
+		if (index < 0 || !collisionMap.contains(destX, destY)
+			|| Math.abs(dx) > MAX_DISTANCE || Math.abs(dy) > MAX_DISTANCE) {
+			return -1;
+		}
+		final int offsetMask = (1 << OFFSET_BITS) - 1;
+		return index | (long) (dx & offsetMask) << INDEX_BITS | (long) (dy & offsetMask) << (INDEX_BITS + OFFSET_BITS);
+	}
+
+	private static int slot(final long key) {
+		final long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash >>> (Long.SIZE - SLOT_BITS));
+	}
+
+	/**
+	 * The versions start at 1 and only ever increase, so their sum changes whenever any of them does and is never
+	 * the 0 of an empty slot.
+	 *
+	 * @return A stamp of the versions of the regions the line between the tiles crosses, which must both be on the map
+	 */
+	public long stamp(final int srcX, final int srcY, final int destX, final int destY) {
+		final int minX = Math.min(srcX, destX);
+		final int maxX = Math.max(srcX, destX);
+		final int minY = Math.min(srcY, destY);
+		final int maxY = Math.max(srcY, destY);
+		long stamp = collisionMap.getRegionVersion(minX, minY);
+		final boolean crossesX = minX / CollisionMap.REGION_SIZE != maxX / CollisionMap.REGION_SIZE;
+		final boolean crossesY = minY / CollisionMap.REGION_SIZE != maxY / CollisionMap.REGION_SIZE;
+		if (crossesX) {
+			stamp += collisionMap.getRegionVersion(maxX, minY);
+		}
+		if (crossesY) {
+			stamp += collisionMap.getRegionVersion(minX, maxY);
+		}
+		if (crossesX && crossesY) {
+			stamp += collisionMap.getRegionVersion(maxX, maxY);
+		}
+		return stamp & STAMP_MASK;
+	}
+}
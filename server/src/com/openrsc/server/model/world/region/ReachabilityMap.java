@@ -0,0 +1,178 @@
+package com.openrsc.server.model.world.region;
+
+import com.openrsc.server.util.rsc.CollisionFlag;
+
+/**
+ * The connected components of a collision map, so a path search can reject a target it can never reach without
+ * searching for it.
+ *
+ * Two neighbouring tiles are connected if a mob could step from either one onto the other, by the rules of
+ * {@link com.openrsc.server.model.AStarPathfinder}. Diagonal steps are left out as they only connect tiles that are
+ * already connected through one of their corners. Tiles on the edge of the map are connected to each other, as the
+ * path searches treat the tiles outside of the map as walkable.
+ *
+ * Each tile holds the label of the component it started in. Tiles that become connected later, for example when a
+ * door opens, merge their labels. Tiles that become disconnected are not split apart, as that would need the
+ * components to be labelled again. The map may therefore claim a target is reachable when it no longer is, which
+ * only costs the search it would have made anyway, but it never claims a reachable target is not.
+ *
+ * Game objects can be registered from several threads at once, so the merges and the lookups of the merged labels
+ * are synchronized. Unsynchronized merges could lose a merge or link two labels into each other.
+ */
+final class ReachabilityMap {
+	private final CollisionMap collisionMap;
+	private final int width;
+	private final int height;
+
+	/**
+	 * The label of every tile's original component.
+	 */
+	private final int[] labels;
+	/**
+	 * The label each label was merged into, or itself if it has not been merged.
+	 */
+	private int[] merged;
+	/**
+	 * The number of labels merged into each label, used to keep the chains of merged labels short.
+	 */
+	private int[] mergedSizes;
+	private int components;
+
+	ReachabilityMap(final CollisionMap collisionMap) {
+		this.collisionMap = collisionMap;
+		this.width = collisionMap.getWidth();
+		this.height = collisionMap.getHeight();
+		this.labels = new int[width * height];
+		label();
+	}
+
+	/**
+	 * Labels every tile with its component. The tiles are first linked into a tree per component, where every tile's
+	 * parent is a lower tile, so relabelling the tiles in order meets each parent before its children.
+	 */
+	private void label() {
+		final int[] parent = labels;
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+		}
+
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				final int index = x * height + y;
+				if (x + 1 < width && isConnected(index, index + height, CollisionFlag.WALL_WEST, CollisionFlag.WALL_EAST)) {
+					link(parent, index, index + height);
+				}
+				if (y + 1 < height && isConnected(index, index + 1, CollisionFlag.WALL_SOUTH, CollisionFlag.WALL_NORTH)) {
+					link(parent, index, index + 1);
+				}
+				if (x == 0 || y == 0 || x == width - 1 || y == height - 1) {
+					// Every edge tile is connected through the tiles outside of the map, linked through the first tile.
+					link(parent, index, 0);
+				}
+			}
+		}
+
+		int next = 0;
+		for (int i = 0; i < labels.length; i++) {
+			final int lower = parent[i];
+			labels[i] = lower == i ? next++ : labels[lower];
+		}
+
+		components = next;
+		merged = new int[next];
+		mergedSizes = new int[next];
+		for (int label = 0; label < next; label++) {
+			merged[label] = label;
+			mergedSizes[label] = 1;
+		}
+	}
+
+	private static int find(final int[] parent, int index) {
+		while (parent[index] != index) {
+			parent[index] = parent[parent[index]];
+			index = parent[index];
+		}
+		return index;
+	}
+
+	private static void link(final int[] parent, final int first, final int second) {
+		final int firstRoot = find(parent, first);
+		final int secondRoot = find(parent, second);
+		if (firstRoot < secondRoot) {
+			parent[secondRoot] = firstRoot;
+		} else if (secondRoot < firstRoot) {
+			parent[firstRoot] = secondRoot;
+		}
+	}
+
+	/**
+	 * @param towardsSecond The wall flag of the first tile blocking steps onto the second
+	 * @param towardsFirst The wall flag of the second tile blocking steps onto the first
+	 */
+	private boolean isConnected(final int first, final int second, final int towardsSecond, final int towardsFirst) {
+		final int firstMask = collisionMap.getTraversalMask(first);
+		final int secondMask = collisionMap.getTraversalMask(second);
+		final boolean firstBlocked = (firstMask & CollisionFlag.FULL_BLOCK) != 0;
+		final boolean secondBlocked = (secondMask & CollisionFlag.FULL_BLOCK) != 0;
+		final boolean firstToSecond = !secondBlocked && (firstBlocked || (firstMask & towardsSecond) == 0);
+		final boolean secondToFirst = !firstBlocked && (secondBlocked || (secondMask & towardsFirst) == 0);
+		return firstToSecond || secondToFirst;
+	}
+
+	/**
+	 * Merges the component of the tile with those of its neighbours it is now connected to. Called whenever
+	 * traversal flags are removed from the tile.
+	 */
+	synchronized void tileOpened(final int x, final int y) {
+		final int index = x * height + y;
+		if (x > 0 && isConnected(index - height, index, CollisionFlag.WALL_WEST, CollisionFlag.WALL_EAST)) {
+			merge(labels[index - height], labels[index]);
+		}
+		if (x + 1 < width && isConnected(index, index + height, CollisionFlag.WALL_WEST, CollisionFlag.WALL_EAST)) {
+			merge(labels[index], labels[index + height]);
+		}
+		if (y > 0 && isConnected(index - 1, index, CollisionFlag.WALL_SOUTH, CollisionFlag.WALL_NORTH)) {
+			merge(labels[index - 1], labels[index]);
+		}
+		if (y + 1 < height && isConnected(index, index + 1, CollisionFlag.WALL_SOUTH, CollisionFlag.WALL_NORTH)) {
+			merge(labels[index], labels[index + 1]);
+		}
+	}
+
+	private void merge(final int first, final int second) {
+		final int firstRoot = resolve(first);
+		final int secondRoot = resolve(second);
+		if (firstRoot == secondRoot) {
+			return;
+		}
+		if (mergedSizes[firstRoot] < mergedSizes[secondRoot]) {
+			merged[firstRoot] = secondRoot;
+			mergedSizes[secondRoot] += mergedSizes[firstRoot];
+		} else {
+			merged[secondRoot] = firstRoot;
+			mergedSizes[firstRoot] += mergedSizes[secondRoot];
+		}
+		components--;
+	}
+
+	private int resolve(int label) {
+		while (merged[label] != label) {
+			label = merged[label];
+		}
+		return label;
+	}
+
+	/**
+	 * @return False if no path can lead from the first tile to the second, true if one might
+	 */
+	synchronized boolean isReachable(final int firstIndex, final int secondIndex) {
+		return resolve(labels[firstIndex]) == resolve(labels[secondIndex]);
+	}
+
+	/**
+	 * @return The number of components left after the merges so far
+	 */
+	synchronized int getComponentCount() {
+		return components;
+	}
+}
@@ -10,6 +10,7 @@ import com.openrsc.server.model.entity.player.Player;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 
@@ -19,6 +20,9 @@ public class Region {
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
+	private static final GameObject[] NO_OBJECTS = new GameObject[0];
+	private static final GroundItem[] NO_ITEMS = new GroundItem[0];
+
 	/**
 	 * The RegionManager this Region belongs to
 	 */
@@ -44,14 +48,13 @@ public class Region {
 	final private HashSet<GroundItem> items = new HashSet<>();
 
 	/**
-	 * A list of tiles in this region.
-	 */
-	private volatile TileValue[][] tiles;
-
-	/**
-	 * The constant tile value used for this region.
+	 * The scenery, boundaries and ground items on each tile of this region, indexed by {@link #tileIndex(int, int)}
+	 * and allocated once the first of each kind is added. Each tile holds them in the order they were added. The
+	 * object tables are guarded by the lock of objects and the item table by the lock of items.
 	 */
-	private volatile TileValue tile;
+	private GameObject[][] sceneryByTile;
+	private GameObject[][] boundariesByTile;
+	private GroundItem[][] itemsByTile;
 
 	/**
 	 * The X index of this region
@@ -73,24 +76,103 @@ public class Region {
 		this.regionManager = regionManager;
 		this.regionX = regionX;
 		this.regionY = regionY;
+	}
+
+	public void unload() {
+		players.clear();
+		npcs.clear();
+		synchronized (objects) {
+			objects.clear();
+			sceneryByTile = null;
+			boundariesByTile = null;
+		}
+		synchronized (items) {
+			items.clear();
+			itemsByTile = null;
+		}
+	}
+
+	/**
+	 * @return The index of the tile in the tables of this region, or -1 if the tile is in another region
+	 */
+	private int tileIndex(final int x, final int y) {
+		final int localX = x - regionX * Constants.REGION_SIZE;
+		final int localY = y - regionY * Constants.REGION_SIZE;
+		if (localX < 0 || localX >= Constants.REGION_SIZE || localY < 0 || localY >= Constants.REGION_SIZE) {
+			return -1;
+		}
+		return localX * Constants.REGION_SIZE + localY;
+	}
+
+	private static <T> T[] with(final T[] entities, final T[] none, final T entity) {
+		final T[] grown = Arrays.copyOf(entities == null ? none : entities, entities == null ? 1 : entities.length + 1);
+		grown[grown.length - 1] = entity;
+		return grown;
+	}
 
-		this.tiles = new TileValue[Constants.REGION_SIZE][Constants.REGION_SIZE];
-		this.tile = null;
+	/**
+	 * @return The entities without the entity, or null if none are left
+	 */
+	private static <T> T[] without(final T[] entities, final T entity) {
+		if (entities == null) {
+			return null;
+		}
+		for (int i = 0; i < entities.length; i++) {
+			if (entities[i] != entity) {
+				continue;
+			}
+			if (entities.length == 1) {
+				return null;
+			}
+			final T[] shrunk = Arrays.copyOf(entities, entities.length - 1);
+			System.arraycopy(entities, i + 1, shrunk, i, entities.length - i - 1);
+			return shrunk;
+		}
+		return entities;
+	}
 
-		for (int i = 0; i < Constants.REGION_SIZE; i++) {
-			for (int j = 0; j < Constants.REGION_SIZE; j++) {
-				tiles[i][j] = new TileValue();
+	private void indexObject(final GameObject object) {
+		final int tile = tileIndex(object.getX(), object.getY());
+		if (tile < 0) {
+			return;
+		}
+		if (object.getType() == 1) {
+			if (boundariesByTile == null) {
+				boundariesByTile = new GameObject[Constants.REGION_SIZE * Constants.REGION_SIZE][];
 			}
+			boundariesByTile[tile] = with(boundariesByTile[tile], NO_OBJECTS, object);
+		} else {
+			if (sceneryByTile == null) {
+				sceneryByTile = new GameObject[Constants.REGION_SIZE * Constants.REGION_SIZE][];
+			}
+			sceneryByTile[tile] = with(sceneryByTile[tile], NO_OBJECTS, object);
 		}
 	}
 
-	public void unload() {
-		players.clear();
-		npcs.clear();
-		objects.clear();
-		items.clear();
-		tiles = null;
-		tile = null;
+	private void unindexObject(final GameObject object) {
+		final int tile = tileIndex(object.getX(), object.getY());
+		if (tile < 0) {
+			return;
+		}
+		final GameObject[][] table = object.getType() == 1 ? boundariesByTile : sceneryByTile;
+		if (table != null) {
+			table[tile] = without(table[tile], object);
+		}
+	}
+
+	private GameObject[] getScenery(final int x, final int y) {
+		final int tile = tileIndex(x, y);
+		return tile < 0 || sceneryByTile == null ? null : sceneryByTile[tile];
+	}
+
+	private GameObject[] getBoundaries(final int x, final int y) {
+		final int tile = tileIndex(x, y);
+		return tile < 0 || boundariesByTile == null ? null : boundariesByTile[tile];
+	}
+
+	private GroundItem[] getItems(final int x, final int y) {
+		final int tile = tileIndex(x, y);
+		return tile < 0 || itemsByTile == null ? null : itemsByTile[tile];
 	}
 
 	/**
@@ -143,11 +225,18 @@ public class Region {
 			}
 		} else if (e instanceof GameObject) {
 			synchronized (objects) {
-				objects.remove(e);
+				if (objects.remove(e)) {
+					unindexObject((GameObject) e);
+				}
 			}
 		} else if (e instanceof GroundItem) {
 			synchronized (items) {
-				items.remove(e);
+				if (items.remove(e)) {
+					final int tile = tileIndex(e.getX(), e.getY());
+					if (tile >= 0 && itemsByTile != null) {
+						itemsByTile[tile] = without(itemsByTile[tile], (GroundItem) e);
+					}
+				}
 			}
 		}
 	}
@@ -166,11 +255,21 @@ public class Region {
 			}
 		} else if (e instanceof GameObject) {
 			synchronized (objects) {
-				objects.add((GameObject) e);
+				if (objects.add((GameObject) e)) {
+					indexObject((GameObject) e);
+				}
 			}
 		} else if (e instanceof GroundItem) {
 			synchronized (items) {
-				items.add((GroundItem) e);
+				if (items.add((GroundItem) e)) {
+					final int tile = tileIndex(e.getX(), e.getY());
+					if (tile >= 0) {
+						if (itemsByTile == null) {
+							itemsByTile = new GroundItem[Constants.REGION_SIZE * Constants.REGION_SIZE][];
+						}
+						itemsByTile[tile] = with(itemsByTile[tile], NO_ITEMS, (GroundItem) e);
+					}
+				}
 			}
 		}
 	}
@@ -230,85 +329,93 @@ public class Region {
 		return sb.toString();
 	}
 
+	/**
+	 * @param e Only objects visible to the entity are considered, or every object if null.
+	 * @return The first scenery or else boundary added on the tile, or null.
+	 */
 	public GameObject getGameObject(final int x, final int y, final Entity e) {
 		synchronized (objects) {
-			for (final GameObject o : objects) {
-				if (o.getX() == x && o.getY() == y && (e == null || !o.isInvisibleTo(e))) {
-					return o;
-				}
-			}
+			final GameObject scenery = firstVisible(getScenery(x, y), -1, -1, e);
+			return scenery != null ? scenery : firstVisible(getBoundaries(x, y), -1, -1, e);
+		}
+	}
+
+	/**
+	 * @return The first object with the id added on the tile, scenery before boundaries, or null.
+	 */
+	public GameObject getGameObject(final int id, final int x, final int y, final Entity e) {
+		synchronized (objects) {
+			final GameObject scenery = firstVisible(getScenery(x, y), id, -1, e);
+			return scenery != null ? scenery : firstVisible(getBoundaries(x, y), id, -1, e);
 		}
-		return null;
 	}
 
 	public GameObject getGameObject(final Point point, final Entity e) {
 		synchronized (objects) {
-			for (final GameObject o : objects) {
-				if (o.getLocation().getX() == point.getX() && o.getLocation().getY() == point.getY() && o.getType() == 0 && (e == null || !o.isInvisibleTo(e))) {
-					return o;
-				}
-			}
+			return firstVisible(getScenery(point.getX(), point.getY()), -1, -1, e);
 		}
-		return null;
 	}
 
 	public GameObject getWallGameObject(final Point point, final int direction, final Entity e) {
 		synchronized (objects) {
-			for (final GameObject o : objects) {
-				if (o.getLocation().getX() == point.getX() && o.getLocation().getY() == point.getY() && o.getType() == 1 && o.getDirection() == direction && (e == null || !o.isInvisibleTo(e))) {
-					return o;
-				}
-			}
+			return firstVisible(getBoundaries(point.getX(), point.getY()), -1, direction, e);
 		}
-		return null;
 	}
 
 	public GameObject getWallGameObject(final Point point, final Entity e) {
 		synchronized (objects) {
-			for (final GameObject o : objects) {
-				if (o.getLocation().getX() == point.getX() && o.getLocation().getY() == point.getY() && o.getType() == 1 && (e == null || !o.isInvisibleTo(e))) {
-					return o;
-				}
-			}
+			return firstVisible(getBoundaries(point.getX(), point.getY()), -1, -1, e);
 		}
-		return null;
 	}
 
-	public Npc getNpc(final int x, final int y, final Entity e) {
-		synchronized (npcs) {
-			for (final Npc n : npcs) {
-				if (n.getLocation().getX() == x && n.getLocation().getY() == y && (e == null || !n.isInvisibleTo(e))) {
-					return n;
-				}
+	/**
+	 * @param id The id to match, or -1 for any
+	 * @param direction The direction to match, or -1 for any
+	 */
+	private static GameObject firstVisible(final GameObject[] onTile, final int id, final int direction, final Entity e) {
+		if (onTile == null) {
+			return null;
+		}
+		for (final GameObject o : onTile) {
+			if ((id < 0 || o.getID() == id) && (direction < 0 || o.getDirection() == direction)
+				&& (e == null || !o.isInvisibleTo(e))) {
+				return o;
 			}
 		}
 		return null;
 	}
 
+	public Npc getNpc(final int x, final int y, final Entity e) {
+		return getRegionManager().getNpc(x, y, e);
+	}
+
 	public Player getPlayer(final int x, final int y, final Entity e) {
-		synchronized (players) {
-			for (final Player p : players) {
-				if (p.getX() == x && p.getY() == y && (e == null || !p.isInvisibleTo(e))) {
-					return p;
-				}
-			}
-		}
-		return null;
+		return getRegionManager().getPlayer(x, y, e);
 	}
 
 	public GroundItem getItem(final int id, final Point location, final Entity e) {
-		final int x = location.getX();
-		final int y = location.getY();
-		for (final GroundItem i : getGroundItems()) {
-			if (i.getID() == id && i.getX() == x && i.getY() == y && (e == null || !i.isInvisibleTo(e))) {
-				return i;
+		synchronized (items) {
+			final GroundItem[] onTile = getItems(location.getX(), location.getY());
+			if (onTile != null) {
+				for (final GroundItem i : onTile) {
+					if ((id < 0 || i.getID() == id) && (e == null || !i.isInvisibleTo(e))) {
+						return i;
+					}
+				}
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * @return The first item of any id added on the tile, or null.
+	 */
+	public GroundItem getItem(final Point location, final Entity e) {
+		return getItem(-1, location, e);
+	}
+
 	public TileValue getTileValue(final int regionX, final int regionY) {
-		return tile != null ? tile : tiles[regionX][regionY];
+		return getRegionManager().getTile(this.regionX * Constants.REGION_SIZE + regionX, this.regionY * Constants.REGION_SIZE + regionY);
 	}
 
 	public TileValue getTileValue(final Point regionPoint) {
@@ -326,19 +433,4 @@ public class Region {
 	public int getRegionY() {
 		return regionY;
 	}
-
-	public void checkRegionValues() {
-		boolean allTilesEqual = true;
-		final TileValue firstTile = tiles[0][0];
-		for (int i = 0; i < Constants.REGION_SIZE && allTilesEqual; i++) {
-			for (int j = 0; j < Constants.REGION_SIZE && allTilesEqual; j++) {
-				allTilesEqual = allTilesEqual && firstTile.equals(tiles[i][j]);
-			}
-		}
-
-		if (allTilesEqual) {
-			tile = tiles[0][0];
-			tiles = null;
-		}
-	}
 }
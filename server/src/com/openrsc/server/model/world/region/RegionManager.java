@@ -10,33 +10,72 @@ import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.world.World;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class RegionManager {
-	private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, Region>> regions;
+	public static final int WIDTH_IN_REGIONS = Constants.MAX_WIDTH / Constants.REGION_SIZE;
+	public static final int HEIGHT_IN_REGIONS = Constants.MAX_HEIGHT / Constants.REGION_SIZE;
+
+	private static final int[] SURROUNDING_X = {-1, +1, -1, 0, +1, 0, -1, +1};
+	private static final int[] SURROUNDING_Y = {-1, +1, 0, -1, 0, +1, +1, -1};
+
+	/**
+	 * Every region in the world, indexed by regionX * HEIGHT_IN_REGIONS + regionY. Filled in by the WorldLoader.
+	 */
+	private final Region[] regions;
+
+	/**
+	 * The region at each index followed by the regions around it, built once the world has been loaded.
+	 */
+	private final Region[][] neighbourhoods;
+
+	private final CollisionMap collisionMap;
+
+	/**
+	 * The npcs and players on each tile, mirroring the region each mob is in.
+	 */
+	private final TileOccupancy npcOccupancy = new TileOccupancy();
+	private final TileOccupancy playerOccupancy = new TileOccupancy();
 
 	private final World world;
 
 	public RegionManager(final World world) {
 		this.world = world;
-		this.regions = new ConcurrentHashMap<>();
+		this.regions = new Region[WIDTH_IN_REGIONS * HEIGHT_IN_REGIONS];
+		this.neighbourhoods = new Region[WIDTH_IN_REGIONS * HEIGHT_IN_REGIONS][];
+		this.collisionMap = new CollisionMap(Constants.MAX_WIDTH, Constants.MAX_HEIGHT);
 	}
 
 	public void load() {
-		// TODO: The WorldLoader.loadWorld() should accept a RegionManager as an argument and place regions there.
-		getWorld().getWorldLoader().loadWorld();
+		getWorld().getWorldLoader().loadWorld(this);
+		for (int regionX = 0; regionX < WIDTH_IN_REGIONS; regionX++) {
+			for (int regionY = 0; regionY < HEIGHT_IN_REGIONS; regionY++) {
+				neighbourhoods[regionX * HEIGHT_IN_REGIONS + regionY] = buildNeighbourhood(regionX, regionY);
+			}
+		}
 	}
 
 	public void unload() {
-		for (final ConcurrentHashMap<Integer, Region> yRegionList : regions.values()) {
-			for (final Region region : yRegionList.values()) {
+		for (final Region region : regions) {
+			if (region != null) {
 				region.unload();
 			}
 		}
-		regions.clear();
+		Arrays.fill(regions, null);
+		Arrays.fill(neighbourhoods, null);
+		npcOccupancy.clear();
+		playerOccupancy.clear();
+	}
+
+	/**
+	 * Places a region in the world, replacing any region already at its coordinates.
+	 */
+	public void setRegion(final Region region) {
+		regions[region.getRegionX() * HEIGHT_IN_REGIONS + region.getRegionY()] = region;
 	}
 
 	/**
@@ -46,8 +85,16 @@ public class RegionManager {
 	 * @return The collection of local players.
 	 */
 	public Collection<Player> getLocalPlayers(final Entity entity) {
-		final LinkedHashSet<Player> localPlayers = new LinkedHashSet<Player>();
-		for (final Region region : getSurroundingRegions(entity.getLocation())) {
+		return getLocalPlayers(entity, new LinkedHashSet<Player>());
+	}
+
+	/**
+	 * Adds the local players around an entity to the given collection.
+	 *
+	 * @return The given collection.
+	 */
+	public <C extends Collection<? super Player>> C getLocalPlayers(final Entity entity, final C localPlayers) {
+		for (final Region region : getNeighbourhood(entity.getLocation())) {
 			for (final Player player : region.getPlayers()) {
 				if (player.withinRange(entity)) {
 					localPlayers.add(player);
@@ -57,6 +104,30 @@ public class RegionManager {
 		return localPlayers;
 	}
 
+	public void forEachPlayerInView(final Entity entity, final Consumer<? super Player> action) {
+		for (final Region region : getNeighbourhood(entity.getLocation())) {
+			for (final Player player : region.getPlayers()) {
+				if (player.withinRange(entity)) {
+					action.accept(player);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The first local player around the entity matching the condition, or null.
+	 */
+	public Player findPlayerInView(final Entity entity, final Predicate<? super Player> condition) {
+		for (final Region region : getNeighbourhood(entity.getLocation())) {
+			for (final Player player : region.getPlayers()) {
+				if (player.withinRange(entity) && condition.test(player)) {
+					return player;
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Gets the local NPCs around an entity.
 	 *
@@ -64,8 +135,16 @@ public class RegionManager {
 	 * @return The collection of local NPCs.
 	 */
 	public Collection<Npc> getLocalNpcs(final Entity entity) {
-		final LinkedHashSet<Npc> localNpcs = new LinkedHashSet<>();
-		for (final Region region : getSurroundingRegions(entity.getLocation())) {
+		return getLocalNpcs(entity, new LinkedHashSet<Npc>());
+	}
+
+	/**
+	 * Adds the local NPCs around an entity to the given collection.
+	 *
+	 * @return The given collection.
+	 */
+	public <C extends Collection<? super Npc>> C getLocalNpcs(final Entity entity, final C localNpcs) {
+		for (final Region region : getNeighbourhood(entity.getLocation())) {
 			for (final Npc npc : region.getNpcs()) {
 				if (npc.withinRange(entity)) {
 					localNpcs.add(npc);
@@ -75,33 +154,86 @@ public class RegionManager {
 		return localNpcs;
 	}
 
+	public void forEachNpcInView(final Entity entity, final Consumer<? super Npc> action) {
+		for (final Region region : getNeighbourhood(entity.getLocation())) {
+			for (final Npc npc : region.getNpcs()) {
+				if (npc.withinRange(entity)) {
+					action.accept(npc);
+				}
+			}
+		}
+	}
+
 	public Collection<GameObject> getLocalObjects(final Mob entity) {
-		LinkedHashSet<GameObject> localObjects = new LinkedHashSet<GameObject>();
-		for (final Iterator<Region> region = getSurroundingRegions(entity.getLocation()).iterator(); region.hasNext(); ) {
-			Collection<GameObject> objects = region.next().getGameObjects();
+		return getLocalObjects(entity, new LinkedHashSet<GameObject>());
+	}
+
+	/**
+	 * Adds the objects within view distance of a mob to the given collection.
+	 *
+	 * @return The given collection.
+	 */
+	public <C extends Collection<? super GameObject>> C getLocalObjects(final Mob entity, final C localObjects) {
+		forEachObjectInView(entity, localObjects::add);
+		return localObjects;
+	}
+
+	public void forEachObjectInView(final Mob entity, final Consumer<? super GameObject> action) {
+		final Point location = entity.getLocation();
+		final int viewDistance = getWorld().getServer().getConfig().VIEW_DISTANCE;
+		for (final Region region : getNeighbourhood(location)) {
+			final Collection<GameObject> objects = region.getGameObjects();
 			synchronized (objects) {
-				for (final Iterator<GameObject> o = objects.iterator(); o.hasNext(); ) {
-					if (o == null) continue;
-					final GameObject gameObject = o.next();
-					if (gameObject.getLocation().withinGridRange(entity.getLocation(), getWorld().getServer().getConfig().VIEW_DISTANCE)) {
-						localObjects.add(gameObject);
+				for (final GameObject gameObject : objects) {
+					if (gameObject.getLocation().withinGridRange(location, viewDistance)) {
+						action.accept(gameObject);
 					}
 				}
 			}
 		}
-		return localObjects;
 	}
 
 	public Collection<GroundItem> getLocalGroundItems(final Mob entity) {
-		final LinkedHashSet<GroundItem> localItems = new LinkedHashSet<GroundItem>();
-		for (final Region region : getSurroundingRegions(entity.getLocation())) {
-			for (final GroundItem o : region.getGroundItems()) {
-				if (o.getLocation().withinGridRange(entity.getLocation(), getWorld().getServer().getConfig().VIEW_DISTANCE)) {
-					localItems.add(o);
+		return getLocalGroundItems(entity, new LinkedHashSet<GroundItem>());
+	}
+
+	/**
+	 * Adds the ground items within view distance of a mob to the given collection.
+	 *
+	 * @return The given collection.
+	 */
+	public <C extends Collection<? super GroundItem>> C getLocalGroundItems(final Mob entity, final C localItems) {
+		forEachGroundItemInView(entity, localItems::add);
+		return localItems;
+	}
+
+	public void forEachGroundItemInView(final Mob entity, final Consumer<? super GroundItem> action) {
+		final Point location = entity.getLocation();
+		final int viewDistance = getWorld().getServer().getConfig().VIEW_DISTANCE;
+		for (final Region region : getNeighbourhood(location)) {
+			for (final GroundItem item : region.getGroundItems()) {
+				if (item.getLocation().withinGridRange(location, viewDistance)) {
+					action.accept(item);
 				}
 			}
 		}
-		return localItems;
+	}
+
+	/**
+	 * @return The region holding the tile if the tile is within view distance of the mob, or null. The tile is in
+	 * view under the same rules as {@link #forEachObjectInView} and {@link #forEachGroundItemInView}.
+	 */
+	public Region getRegionInView(final Mob entity, final int x, final int y) {
+		final Point location = entity.getLocation();
+		final int viewDistance = getWorld().getServer().getConfig().VIEW_DISTANCE;
+		// The neighbourhood of the mob's region, then Point#withinGridRange without making a point of the tile.
+		if (Math.abs(x / Constants.REGION_SIZE - location.getX() / Constants.REGION_SIZE) > 1
+			|| Math.abs(y / Constants.REGION_SIZE - location.getY() / Constants.REGION_SIZE) > 1
+			|| Math.abs((x >> 3) - (location.getX() >> 3)) > viewDistance
+			|| Math.abs((y >> 3) - (location.getY() >> 3)) > viewDistance) {
+			return null;
+		}
+		return getRegion(x, y);
 	}
 
 	/**
@@ -111,33 +243,48 @@ public class RegionManager {
 	 * @return The regions surrounding the location.
 	 */
 	public LinkedHashSet<Region> getSurroundingRegions(final Point location) {
+		return new LinkedHashSet<Region>(Arrays.asList(getNeighbourhood(location)));
+	}
+
+	/**
+	 * @return The region containing the location followed by the regions around it.
+	 */
+	private Region[] getNeighbourhood(final Point location) {
 		final int regionX = location.getX() / Constants.REGION_SIZE;
 		final int regionY = location.getY() / Constants.REGION_SIZE;
-
-		final LinkedHashSet<Region> surrounding = new LinkedHashSet<Region>();
-		surrounding.add(getRegionFromSectorCoordinates(regionX, regionY));
-		final int[] xMod = {-1, +1, -1, 0, +1, 0, -1, +1};
-		final int[] yMod = {-1, +1, 0, -1, 0, +1, +1, -1};
-		for (int i = 0; i < xMod.length; i++) {
-			final Region tmpRegion = getRegionFromSectorCoordinates(regionX + xMod[i], regionY + yMod[i]);
-			if (tmpRegion != null) {
-				surrounding.add(tmpRegion);
+		if (regionX >= 0 && regionX < WIDTH_IN_REGIONS && regionY >= 0 && regionY < HEIGHT_IN_REGIONS) {
+			final Region[] neighbourhood = neighbourhoods[regionX * HEIGHT_IN_REGIONS + regionY];
+			if (neighbourhood != null) {
+				return neighbourhood;
 			}
 		}
-		return surrounding;
+		return buildNeighbourhood(regionX, regionY);
 	}
 
-	private Region getRegionFromSectorCoordinates(final int regionX, final int regionY) {
-		// Create a new HashMap if it doesn't exist.
-		if (!getRegions().containsKey(regionX)) {
-			getRegions().put(regionX, new ConcurrentHashMap<>());
+	private Region[] buildNeighbourhood(final int regionX, final int regionY) {
+		final Region[] neighbourhood = new Region[SURROUNDING_X.length + 1];
+		int size = 0;
+		final Region region = getRegionFromSectorCoordinates(regionX, regionY);
+		if (region != null) {
+			neighbourhood[size++] = region;
 		}
-
-		if (!getRegions().get(regionX).containsKey(regionY)) {
-			getRegions().get(regionX).put(regionY, new Region(this, regionX, regionY));
+		for (int i = 0; i < SURROUNDING_X.length; i++) {
+			final Region tmpRegion = getRegionFromSectorCoordinates(regionX + SURROUNDING_X[i], regionY + SURROUNDING_Y[i]);
+			if (tmpRegion != null) {
+				neighbourhood[size++] = tmpRegion;
+			}
 		}
+		return Arrays.copyOf(neighbourhood, size);
+	}
 
-		return getRegions().get(regionX).get(regionY);
+	/**
+	 * @return The region at the given region coordinates, or null if they are outside of the world.
+	 */
+	public Region getRegionFromSectorCoordinates(final int regionX, final int regionY) {
+		if (regionX < 0 || regionX >= WIDTH_IN_REGIONS || regionY < 0 || regionY >= HEIGHT_IN_REGIONS) {
+			return null;
+		}
+		return regions[regionX * HEIGHT_IN_REGIONS + regionY];
 	}
 
 	public Region getRegion(final int x, final int y) {
@@ -162,15 +309,35 @@ public class RegionManager {
 			return null;
 		}
 
-		return getRegion(x, y).getTileValue(x % Constants.REGION_SIZE, y % Constants.REGION_SIZE);
+		return new TileValue(collisionMap, x, y);
 	}
 
 	public TileValue getTile(final Point point) {
 		return getTile(point.getX(), point.getY());
 	}
 
-	private ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, Region>> getRegions() {
-		return regions;
+	public CollisionMap getCollisionMap() {
+		return collisionMap;
+	}
+
+	public TileOccupancy getOccupancy(final Mob mob) {
+		return mob.isPlayer() ? playerOccupancy : npcOccupancy;
+	}
+
+	/**
+	 * @param observer Only npcs visible to the observer are considered, or every npc if null.
+	 * @return The first npc that moved onto the tile, or null.
+	 */
+	public Npc getNpc(final int x, final int y, final Entity observer) {
+		return (Npc) npcOccupancy.get(x, y, observer);
+	}
+
+	/**
+	 * @param observer Only players visible to the observer are considered, or every player if null.
+	 * @return The first player that moved onto the tile, or null.
+	 */
+	public Player getPlayer(final int x, final int y, final Entity observer) {
+		return (Player) playerOccupancy.get(x, y, observer);
 	}
 
 	public World getWorld() {
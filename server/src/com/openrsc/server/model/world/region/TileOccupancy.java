@@ -0,0 +1,201 @@
+package com.openrsc.server.model.world.region;
+
+import com.openrsc.server.model.entity.Entity;
+import com.openrsc.server.model.entity.Mob;
+
+import java.util.Arrays;
+
+/**
+ * The mobs standing on each occupied tile, kept in an open addressing map keyed by the packed tile coordinates.
+ *
+ * Mobs on the same tile are kept in the order they arrived. Emptied slots keep their occupant arrays so mobs
+ * walking around do not allocate once the map has grown to the number of occupied tiles.
+ *
+ * All access is synchronized as mobs are moved by plugin threads as well as the game thread.
+ */
+public final class TileOccupancy {
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int INITIAL_OCCUPANTS = 2;
+
+	/**
+	 * Never produced by {@link #key(int, int)} for a tile inside of the world.
+	 */
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] keys;
+	private Mob[][] occupants;
+	private int[] counts;
+	private int size = 0;
+
+	public TileOccupancy() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	private static long key(final int x, final int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	private static int hash(final long key) {
+		final long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Adds a mob to a tile, unless it is already there.
+	 */
+	public synchronized void add(final Mob mob, final int x, final int y) {
+		final long key = key(x, y);
+		int slot = indexOf(key);
+		if (slot < 0) {
+			if ((size + 1) * 2 > keys.length) {
+				rehash(keys.length * 2);
+			}
+			slot = hash(key) & (keys.length - 1);
+			while (keys[slot] != EMPTY) {
+				slot = (slot + 1) & (keys.length - 1);
+			}
+			keys[slot] = key;
+			size++;
+		}
+
+		Mob[] onTile = occupants[slot];
+		final int count = counts[slot];
+		for (int i = 0; i < count; i++) {
+			if (onTile[i] == mob) {
+				return;
+			}
+		}
+		if (onTile == null) {
+			onTile = occupants[slot] = new Mob[INITIAL_OCCUPANTS];
+		} else if (count == onTile.length) {
+			onTile = occupants[slot] = Arrays.copyOf(onTile, count * 2);
+		}
+		onTile[count] = mob;
+		counts[slot] = count + 1;
+	}
+
+	/**
+	 * @return If the mob was on the tile.
+	 */
+	public synchronized boolean remove(final Mob mob, final int x, final int y) {
+		final int slot = indexOf(key(x, y));
+		if (slot < 0) {
+			return false;
+		}
+
+		final Mob[] onTile = occupants[slot];
+		final int count = counts[slot];
+		for (int i = 0; i < count; i++) {
+			if (onTile[i] != mob) {
+				continue;
+			}
+			System.arraycopy(onTile, i + 1, onTile, i, count - i - 1);
+			onTile[count - 1] = null;
+			counts[slot] = count - 1;
+			if (count == 1) {
+				delete(slot);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param observer Only mobs visible to the observer are considered, or every mob if null.
+	 * @return The first mob that arrived on the tile, or null.
+	 */
+	public synchronized Mob get(final int x, final int y, final Entity observer) {
+		final int slot = indexOf(key(x, y));
+		if (slot < 0) {
+			return null;
+		}
+
+		final Mob[] onTile = occupants[slot];
+		final int count = counts[slot];
+		for (int i = 0; i < count; i++) {
+			if (observer == null || !onTile[i].isInvisibleTo(observer)) {
+				return onTile[i];
+			}
+		}
+		return null;
+	}
+
+	public synchronized boolean isOccupied(final int x, final int y) {
+		return indexOf(key(x, y)) >= 0;
+	}
+
+	public synchronized void clear() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	private int indexOf(final long key) {
+		final int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (keys[slot] != EMPTY) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Frees a slot, shifting back later entries of the same probe run. The emptied occupant array stays behind
+	 * to be reused by the next tile that lands in the slot.
+	 */
+	private void delete(int slot) {
+		final int mask = keys.length - 1;
+		size--;
+		int next = slot;
+		while (true) {
+			next = (next + 1) & mask;
+			if (keys[next] == EMPTY) {
+				break;
+			}
+			final int home = hash(keys[next]) & mask;
+			// Shift the entry back unless its home lies cyclically in (slot, next].
+			if (slot <= next ? (slot < home && home <= next) : (slot < home || home <= next)) {
+				continue;
+			}
+			keys[slot] = keys[next];
+			counts[slot] = counts[next];
+			final Mob[] spare = occupants[slot];
+			occupants[slot] = occupants[next];
+			occupants[next] = spare;
+			slot = next;
+		}
+		keys[slot] = EMPTY;
+		counts[slot] = 0;
+	}
+
+	private void rehash(final int capacity) {
+		final long[] oldKeys = keys;
+		final Mob[][] oldOccupants = occupants;
+		final int[] oldCounts = counts;
+		allocate(capacity);
+
+		final int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == EMPTY) {
+				continue;
+			}
+			int slot = hash(oldKeys[i]) & mask;
+			while (keys[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = oldKeys[i];
+			occupants[slot] = oldOccupants[i];
+			counts[slot] = oldCounts[i];
+			size++;
+		}
+	}
+
+	private void allocate(final int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		occupants = new Mob[capacity][];
+		counts = new int[capacity];
+		size = 0;
+	}
+}
@@ -1,34 +1,103 @@
 package com.openrsc.server.model.world.region;
 
+/**
+ * A view of a single tile in the world's {@link CollisionMap}. Reads and writes go straight through to the map.
+ */
 public class TileValue {
-	public byte traversalMask = 0;
-	public short diagWallVal = 0;
-	public byte horizontalWallVal = 0;
-	public byte overlay = 0;
-	public byte verticalWallVal = 0;
-	public byte elevation = 0;
-	public boolean projectileAllowed = false;
+	private final CollisionMap collisionMap;
+	private final int x;
+	private final int y;
+
+	public TileValue(final CollisionMap collisionMap, final int x, final int y) {
+		this.collisionMap = collisionMap;
+		this.x = x;
+		this.y = y;
+	}
+
+	public byte getTraversalMask() {
+		return collisionMap.getTraversalMask(x, y);
+	}
+
+	public void setTraversalMask(final int traversalMask) {
+		collisionMap.setTraversalMask(x, y, traversalMask);
+	}
+
+	public void addTraversalFlags(final int flags) {
+		collisionMap.addTraversalFlags(x, y, flags);
+	}
+
+	public void removeTraversalFlags(final int flags) {
+		collisionMap.removeTraversalFlags(x, y, flags);
+	}
+
+	public short getDiagWallVal() {
+		return collisionMap.getDiagWallVal(x, y);
+	}
+
+	public void setDiagWallVal(final int diagWallVal) {
+		collisionMap.setDiagWallVal(x, y, diagWallVal);
+	}
+
+	public byte getHorizontalWallVal() {
+		return collisionMap.getHorizontalWallVal(x, y);
+	}
+
+	public void setHorizontalWallVal(final int horizontalWallVal) {
+		collisionMap.setHorizontalWallVal(x, y, horizontalWallVal);
+	}
+
+	public byte getOverlay() {
+		return collisionMap.getOverlay(x, y);
+	}
+
+	public void setOverlay(final int overlay) {
+		collisionMap.setOverlay(x, y, overlay);
+	}
+
+	public byte getVerticalWallVal() {
+		return collisionMap.getVerticalWallVal(x, y);
+	}
+
+	public void setVerticalWallVal(final int verticalWallVal) {
+		collisionMap.setVerticalWallVal(x, y, verticalWallVal);
+	}
+
+	public byte getElevation() {
+		return collisionMap.getElevation(x, y);
+	}
+
+	public void setElevation(final int elevation) {
+		collisionMap.setElevation(x, y, elevation);
+	}
+
+	public boolean isProjectileAllowed() {
+		return collisionMap.isProjectileAllowed(x, y);
+	}
+
+	public void setProjectileAllowed(final boolean projectileAllowed) {
+		collisionMap.setProjectileAllowed(x, y, projectileAllowed);
+	}
 
 	@Override
 	public String toString() {
 		return "TileValue{" +
-			"traversalMask=" + traversalMask +
-			", diagWallVal=" + diagWallVal +
-			", horizontalWallVal=" + horizontalWallVal +
-			", overlay=" + overlay +
-			", verticalWallVal=" + verticalWallVal +
-			", elevation=" + elevation +
-			", projectileAllowed=" + projectileAllowed +
+			"traversalMask=" + getTraversalMask() +
+			", diagWallVal=" + getDiagWallVal() +
+			", horizontalWallVal=" + getHorizontalWallVal() +
+			", overlay=" + getOverlay() +
+			", verticalWallVal=" + getVerticalWallVal() +
+			", elevation=" + getElevation() +
+			", projectileAllowed=" + isProjectileAllowed() +
 			'}';
 	}
 
 	public boolean equals(final TileValue other) {
-		return 	this.traversalMask == other.traversalMask &&
-				this.diagWallVal == other.diagWallVal &&
-				this.horizontalWallVal == other.horizontalWallVal &&
-				this.overlay == other.overlay &&
-				this.verticalWallVal == other.verticalWallVal &&
-				this.elevation == other.elevation &&
-				this.projectileAllowed == other.projectileAllowed;
+		return 	this.getTraversalMask() == other.getTraversalMask() &&
+				this.getDiagWallVal() == other.getDiagWallVal() &&
+				this.getHorizontalWallVal() == other.getHorizontalWallVal() &&
+				this.getOverlay() == other.getOverlay() &&
+				this.getVerticalWallVal() == other.getVerticalWallVal() &&
+				this.getElevation() == other.getElevation() &&
+				this.isProjectileAllowed() == other.isProjectileAllowed();
 	}
 }
@@ -1,6 +1,7 @@
 package com.openrsc.server.net;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
 
 public class Packet {
 	/**
@@ -95,7 +96,9 @@ public class Packet {
 
 
 	public byte[] readBytes(int length) {
-		return payload.readBytes(length).array();
+		final byte[] data = new byte[length];
+		payload.readBytes(data);
+		return data;
 	}
 
 	/**
@@ -188,6 +191,13 @@ public class Packet {
 		return var2 < 128 ? getBuffer().readUnsignedByte() : getBuffer().readShort() - '\u8000';
 	}
 
+	/**
+	 * Releases the payload. Inbound packets share the decoder's pooled buffer and must be released once handled.
+	 */
+	public void release() {
+		ReferenceCountUtil.release(payload);
+	}
+
 	public long getPacketNumber() {
 		return packetNumber;
 	}
@@ -26,7 +26,8 @@ public class PacketBuilder {
 	private int opcode;
 
 	/**
-	 * The payload.
+	 * The payload. Kept on the heap rather than in the channel's pool as builders are regularly
+	 * discarded without being written, which would leak pooled memory.
 	 */
 	private ByteBuf payload = Unpooled.buffer();
 
@@ -51,26 +51,33 @@ public class RSCConnectionHandler extends ChannelInboundHandlerAdapter implement
 				player = att.player.get();
 			}
 			if (player == null) {
-				if (packet.getID() == 19) {
-					if (!getServer().getPacketFilter().shouldAllowPacket(ctx.channel(), false)) {
-						ctx.channel().close();
+				try {
+					if (packet.getID() == 19) {
+						if (!getServer().getPacketFilter().shouldAllowPacket(ctx.channel(), false)) {
+							ctx.channel().close();
 
-						return;
-					}
+							return;
+						}
 
-					ActionSender.sendInitialServerConfigs(getServer(), channel);
-				} else {
-					loginHandler.processLogin(packet, channel, getServer());
+						ActionSender.sendInitialServerConfigs(getServer(), channel);
+					} else {
+						loginHandler.processLogin(packet, channel, getServer());
+					}
+				} finally {
+					packet.release();
 				}
 			} else {
 				if (!getServer().getPacketFilter().shouldAllowPacket(ctx.channel(), true)) {
+					packet.release();
 					ctx.channel().close();
 
 					return;
 				}
 
+				// The player releases the packet once it has been handled.
 				player.addToPacketQueue(packet);
 			}
+			return;
 		}
 
 		ReferenceCountUtil.release(message);
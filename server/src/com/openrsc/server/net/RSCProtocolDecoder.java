@@ -1,7 +1,6 @@
 package com.openrsc.server.net;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.util.Attribute;
@@ -20,8 +19,8 @@ public final class RSCProtocolDecoder extends ByteToMessageDecoder implements At
 			if (buffer.readableBytes() >= length && length > 0) {
 				int opcode = (buffer.readByte()) & 0xFF;
 				length -= 1;
-				ByteBuf data = Unpooled.buffer(length);
-				buffer.readBytes(data, length);
+				// Shares the cumulation buffer rather than copying it. Whoever consumes the packet must release it.
+				ByteBuf data = buffer.readRetainedSlice(length);
 				Packet packet = new Packet(opcode, data);
 				out.add(packet);
 			} else {
@@ -128,7 +128,7 @@ public final class NpcTalkTo implements PacketHandler {
 						return true;
 					}
 				}
-				return isBlocking(t.traversalMask, (byte) bit);
+				return isBlocking(t.getTraversalMask(), (byte) bit);
 			}
 
 			private boolean isBlocking(int objectValue, byte bit) {
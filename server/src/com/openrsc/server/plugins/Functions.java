@@ -881,7 +881,7 @@ public class Functions {
 				return true;
 			}
 		}
-		return isBlocking(t.traversalMask, (byte) bit);
+		return isBlocking(t.getTraversalMask(), (byte) bit);
 	}
 
 	private static boolean isBlocking(int objectValue, byte bit) {
@@ -0,0 +1,78 @@
+package com.openrsc.server.plugins;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of non negative values with power of two buckets, recorded from any number of plugin threads.
+ *
+ * Bucket 0 counts zeros and bucket b counts values in [2^(b-1), 2^b). Percentiles are reported as the upper bound of
+ * their bucket, capped at the largest value recorded.
+ */
+final class LatencyHistogram {
+	private static final int BUCKETS = 64;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong(0);
+
+	void record(final long value) {
+		final long clamped = Math.max(0, value);
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(clamped));
+		count.increment();
+		total.add(clamped);
+		long previous;
+		while (clamped > (previous = max.get())) {
+			if (max.compareAndSet(previous, clamped)) {
+				break;
+			}
+		}
+	}
+
+	long getCount() {
+		return count.sum();
+	}
+
+	long getTotal() {
+		return total.sum();
+	}
+
+	long getMax() {
+		return max.get();
+	}
+
+	long getMean() {
+		final long recorded = getCount();
+		return recorded == 0 ? 0 : getTotal() / recorded;
+	}
+
+	/**
+	 * @param percentile Between 0 and 1
+	 */
+	long getPercentile(final double percentile) {
+		final long recorded = getCount();
+		if (recorded == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(recorded * percentile));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += buckets.get(bucket);
+			if (seen >= rank) {
+				return bucket == 0 ? 0 : Math.min(getMax(), bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1);
+			}
+		}
+		return getMax();
+	}
+
+	void reset() {
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			buckets.set(bucket, 0);
+		}
+		count.reset();
+		total.reset();
+		max.set(0);
+	}
+}
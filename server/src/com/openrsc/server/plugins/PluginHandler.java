@@ -15,16 +15,18 @@ import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLDecoder;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.stream.IntStream;
 
 import static org.apache.logging.log4j.util.Unbox.box;
 
@@ -39,41 +41,69 @@ public final class PluginHandler {
 	private ThreadPoolExecutor executor;
 	private final ThreadFactory threadFactory;
 
-	private URLClassLoader urlClassLoader;
-	private boolean reloading = true;
-	private ArrayList<Class<?>> loadedClassFiles;
-
-	private Object defaultHandler = null;
-	private List<Class<?>> knownInterfaces;
-	private Map<String, Set<Object>> plugins;
+	/**
+	 * The active plugins, null while unloaded. Dispatch reads it without locking, reloads replace it as a whole.
+	 */
+	private volatile PluginRegistry registry;
+	private final AtomicBoolean reloadPending = new AtomicBoolean(false);
+	/**
+	 * A reloaded snapshot waiting for the end of the events phase of a tick to become the active one.
+	 */
+	private final AtomicReference<PluginRegistry> pendingRegistry = new AtomicReference<>();
+	/**
+	 * Replaced snapshots whose class loader is still in use. Only touched by the game thread.
+	 */
+	private final List<PluginRegistry> retiredRegistries = new ArrayList<>();
+	private final PluginProfiler profiler;
 
 	public PluginHandler (final Server server) {
 		this.server = server;
 		this.threadFactory = new NamedThreadFactory(getServer().getName()+" : PluginThread");
-		this.knownInterfaces = new ArrayList<>();
-		this.plugins = new HashMap<>();
-		this.loadedClassFiles = new ArrayList<>();
+		this.profiler = new PluginProfiler(getServer().getConfig().PLUGIN_TRACE_SAMPLE_RATE, getServer().getConfig().GAME_TICK / 2);
 	}
 
-	public void loadJar() throws Exception {
+	/**
+	 * Opens plugins.jar with a new class loader.
+	 *
+	 * @return The class loader, or null if there is no plugins.jar
+	 */
+	private URLClassLoader openJar() throws IOException {
 		final String pathToJar = "./plugins.jar";
 		final boolean jarExists = new File(pathToJar).isFile();
-		if (jarExists) {
-			final JarFile jarFile = new JarFile(pathToJar);
-			final URL[] urls = {new URL("jar:file:" + pathToJar + "!/")};
-			urlClassLoader = URLClassLoader.newInstance(urls, getClass().getClassLoader());
+		if (!jarExists) {
+			return null;
+		}
+		final URL[] urls = {new URL("jar:file:" + pathToJar + "!/")};
+		return URLClassLoader.newInstance(urls, getClass().getClassLoader());
+	}
+
+	/**
+	 * Lists the top level classes of plugins.jar with the interfaces they implement, from the index written by
+	 * the compile_plugins target. Jars built without it are scanned instead, loading every class.
+	 */
+	private Map<String, Set<String>> indexJar(final URLClassLoader urlClassLoader) throws Exception {
+		final Map<String, Set<String>> classes = new LinkedHashMap<>();
+		final PluginIndex index = PluginIndex.read(urlClassLoader.findResource(PluginIndex.PLUGINS_INDEX));
+		if (index != null) {
+			for (final String className : index.getClassNames()) {
+				classes.put(className, index.getInterfaces(className));
+			}
+			return classes;
+		}
 
+		LOGGER.warn("plugins.jar has no " + PluginIndex.PLUGINS_INDEX + ", scanning it instead");
+		try (final JarFile jarFile = new JarFile("./plugins.jar")) {
 			final Enumeration<JarEntry> enumeration = jarFile.entries();
 			while (enumeration.hasMoreElements()) {
 				final JarEntry je = enumeration.nextElement();
 				if (je.getName().endsWith(".class") && !je.getName().contains("$")) {
 					final String className = je.getName().substring(0, je.getName().length() - 6).replace('/', '.');
 					final Class<?> c = urlClassLoader.loadClass(className);
-					loadedClassFiles.add(c);
+					classes.put(className, PluginIndex.interfacesOf(c));
 				}
 			}
-			jarFile.close();
 		}
+		return classes;
 	}
 
 	public List<Class<?>> loadClasses(final String pckgname) throws ClassNotFoundException {
@@ -84,6 +114,14 @@ public final class PluginHandler {
 			if (cld == null) {
 				throw new ClassNotFoundException("Can't get class loader.");
 			}
+			// Use the index written by the compile_core target when it covers the package.
+			final PluginIndex index = PluginIndex.read(cld.getResource(PluginIndex.CORE_INDEX));
+			if (index != null && index.covers(pckgname)) {
+				for (final String className : index.getClassNames(pckgname)) {
+					classes.add(Class.forName(className));
+				}
+				return classes;
+			}
 			final Enumeration<URL> resources = cld.getResources(pckgname.replace('.', '/'));
 			while (resources.hasMoreElements()) {
 				final URL res = resources.nextElement();
@@ -135,86 +173,147 @@ public final class PluginHandler {
 		return classes;
 	}
 
-	public void initPlugins() throws Exception {
-		int countPlugins = 0;
+	/**
+	 * Loads plugins.jar and instantiates its plugins without touching the world, so it can run off the game thread.
+	 */
+	private PluginRegistry buildRegistry() throws Exception {
+		final URLClassLoader urlClassLoader = openJar();
+		try {
+			final Map<String, Set<String>> classes = urlClassLoader == null ? Collections.emptyMap() : indexJar(urlClassLoader);
+			return initPlugins(urlClassLoader, classes);
+		} catch (final Exception e) {
+			if (urlClassLoader != null) {
+				urlClassLoader.close();
+			}
+			throw e;
+		}
+	}
 
-		HashMap<Class<?>, Object> pluginInstances = new HashMap<>();
-		for (final Class<?> interfce : loadInterfaces("com.openrsc.server.plugins.triggers")) {
-			knownInterfaces.add(interfce);
-			for (final Class<?> plugin : loadedClassFiles) {
-				if (!interfce.isAssignableFrom(plugin)) {
-					continue;
-				}
+	private PluginRegistry initPlugins(final URLClassLoader urlClassLoader, final Map<String, Set<String>> classes) throws Exception {
+		final List<Class<?>> knownInterfaces = loadInterfaces("com.openrsc.server.plugins.triggers");
+		final List<Shop> shops = new ArrayList<>();
+		final List<QuestInterface> quests = new ArrayList<>();
+		final List<MiniGameInterface> miniGames = new ArrayList<>();
+		Object defaultHandler = null;
+
+		// Only the classes implementing a trigger, quest or minigame are plugins.
+		final Set<String> pluginInterfaces = new HashSet<>();
+		for (final Class<?> interfce : knownInterfaces) {
+			pluginInterfaces.add(interfce.getName());
+		}
+		pluginInterfaces.add(QuestInterface.class.getName());
+		pluginInterfaces.add(MiniGameInterface.class.getName());
+
+		final List<String> pluginNames = new ArrayList<>();
+		for (final Map.Entry<String, Set<String>> entry : classes.entrySet()) {
+			if (!Collections.disjoint(entry.getValue(), pluginInterfaces)) {
+				pluginNames.add(entry.getKey());
+			}
+		}
+		final Object[] pluginInstances = instantiate(urlClassLoader, pluginNames);
 
-				if (!pluginInstances.containsKey(plugin)) {
-					pluginInstances.put(plugin, plugin.getConstructor().newInstance());
+		final Map<Class<?>, List<Object>> plugins = new LinkedHashMap<>();
+		for (final Class<?> interfce : knownInterfaces) {
+			final String interfceName = interfce.getSimpleName();
+			for (int i = 0; i < pluginNames.size(); i++) {
+				if (!classes.get(pluginNames.get(i)).contains(interfce.getName())) {
+					continue;
 				}
 
-				final Object instance = pluginInstances.get(plugin);
-				final String interfceName = interfce.getSimpleName();
+				final Object instance = pluginInstances[i];
 
-				if (!plugins.containsKey(interfceName)) {
-					plugins.put(interfceName, new HashSet<>());
+				if (!plugins.containsKey(interfce)) {
+					plugins.put(interfce, new ArrayList<>());
 				}
 
-				if (!plugins.get(interfceName).contains(instance)) {
+				if (!plugins.get(interfce).contains(instance)) {
 
-					if (instance instanceof DefaultHandler && defaultHandler == null) {
-						defaultHandler = instance;
+					if (instance instanceof DefaultHandler) {
+						if (defaultHandler == null) {
+							defaultHandler = instance;
+						}
 						continue;
 					}
 
-					plugins.get(interfceName).add(instance);
+					plugins.get(interfce).add(instance);
 
 					if (instance instanceof AbstractShop && interfceName.equals("TalkNpcTrigger")) {
 						final AbstractShop it = (AbstractShop) instance;
-
-						for (final Shop s : it.getShops(getServer().getWorld())) {
-							getServer().getWorld().getShops().add(s);
-							getServer().getGameEventHandler().add(new ShopRestockEvent(getServer().getWorld(), s));
-						}
+						shops.addAll(Arrays.asList(it.getShops(getServer().getWorld())));
 					}
 				}
 			}
 		}
 
-		//Look for quests/minigames specifically
-		final Class<?>[] interfces = {QuestInterface.class, MiniGameInterface.class};
-		for (final Class<?> interfce : interfces) {
-			for (final Class<?> plugin : loadedClassFiles) {
-				if (!interfce.isAssignableFrom(plugin)) {
-					continue;
-				}
+		final Map<String, TriggerHandlers> triggers = new HashMap<>();
+		for (final Map.Entry<Class<?>, List<Object>> entry : plugins.entrySet()) {
+			final TriggerHandlers handlers = new TriggerHandlers(entry.getKey(), entry.getValue(), defaultHandler);
+			triggers.put(handlers.getName(), handlers);
+		}
 
-				if (!pluginInstances.containsKey(plugin)) {
-					pluginInstances.put(plugin, plugin.getConstructor().newInstance());
-				}
+		//Look for quests/minigames specifically
+		for (final Object instance : pluginInstances) {
+			if (Arrays.asList(instance.getClass().getInterfaces()).contains(QuestInterface.class)) {
+				quests.add((QuestInterface) instance);
+			} else if (Arrays.asList(instance.getClass().getInterfaces()).contains(MiniGameInterface.class)) {
+				miniGames.add((MiniGameInterface) instance);
+			}
+		}
 
-				final Object instance = pluginInstances.get(plugin);
+		return new PluginRegistry(urlClassLoader, knownInterfaces, triggers, quests, miniGames, shops, pluginInstances.length);
+	}
 
-				if (Arrays.asList(instance.getClass().getInterfaces()).contains(QuestInterface.class)) {
-					final QuestInterface q = (QuestInterface) instance;
-					try {
-						getServer().getWorld().registerQuest(q);
-					} catch (final Exception e) {
-						LOGGER.catching(e);
-						continue;
-					}
-				} else if (Arrays.asList(instance.getClass().getInterfaces()).contains(MiniGameInterface.class)) {
-					final MiniGameInterface m = (MiniGameInterface) instance;
-					try {
-						getServer().getWorld().registerMiniGame(m);
-					} catch (final Exception e) {
-						LOGGER.catching(e);
-						continue;
-					}
+	/**
+	 * Loads and constructs the plugins in parallel.
+	 *
+	 * @return The plugin instances, in the order of their names
+	 */
+	private static Object[] instantiate(final ClassLoader classLoader, final List<String> classNames) throws ReflectiveOperationException {
+		final Object[] instances = new Object[classNames.size()];
+		try {
+			IntStream.range(0, instances.length).parallel().forEach(i -> {
+				try {
+					instances[i] = Class.forName(classNames.get(i), true, classLoader).getConstructor().newInstance();
+				} catch (final ReflectiveOperationException e) {
+					throw new IllegalStateException("Could not instantiate plugin " + classNames.get(i), e);
 				}
+			});
+		} catch (final IllegalStateException e) {
+			if (e.getCause() instanceof ReflectiveOperationException) {
+				throw (ReflectiveOperationException) e.getCause();
+			}
+			throw e;
+		}
+		return instances;
+	}
+
+	/**
+	 * Makes a snapshot the active one, replacing the quests, minigames and shops of the previous snapshot in the world.
+	 */
+	private void activate(final PluginRegistry next) {
+		final World world = getServer().getWorld();
+		final PluginRegistry previous = registry;
+		if (previous != null) {
+			for (final ShopRestockEvent restockEvent : previous.getRestockEvents()) {
+				restockEvent.stop();
 			}
 		}
 
-		LOGGER.info("Loaded {}", box(getServer().getWorld().getQuests().size()) + " Quests.");
-		LOGGER.info("Loaded {}", box(getServer().getWorld().getMiniGames().size()) + " MiniGames.");
-		LOGGER.info("Loaded total of {}", pluginInstances.size() + " plugin handlers.");
+		world.replacePluginContent(next.getQuests(), next.getMiniGames(), next.getShops());
+		for (final Shop s : next.getShops()) {
+			final ShopRestockEvent restockEvent = new ShopRestockEvent(world, s);
+			next.getRestockEvents().add(restockEvent);
+			getServer().getGameEventHandler().add(restockEvent);
+		}
+
+		registry = next;
+		if (previous != null) {
+			retiredRegistries.add(previous);
+		}
+
+		LOGGER.info("Loaded {}", box(world.getQuests().size()) + " Quests.");
+		LOGGER.info("Loaded {}", box(world.getMiniGames().size()) + " MiniGames.");
+		LOGGER.info("Loaded total of {}", next.getPluginCount() + " plugin handlers.");
 	}
 
 	private List<Class<?>> loadInterfaces(final String thePackage) throws ClassNotFoundException {
@@ -229,19 +328,60 @@ public final class PluginHandler {
 
 	public void load() throws Exception {
 		// TODO: Separate static loading from class based loading.
-		reloading = false;
-
-		defaultHandler = null;
 		executor = (ThreadPoolExecutor) Executors.newCachedThreadPool(threadFactory);
 
-		loadJar();
-		initPlugins();
+		activate(buildRegistry());
+	}
+
+	/**
+	 * Loads plugins.jar again in the background. The new plugins are swapped in by applyPendingReload once they are
+	 * ready, plugin tasks that are already running finish with the plugins they were started from.
+	 *
+	 * @return False if a reload is already in progress
+	 */
+	public boolean reload() {
+		if (registry == null || !reloadPending.compareAndSet(false, true)) {
+			return false;
+		}
+		final Thread loader = new Thread(() -> {
+			try {
+				pendingRegistry.set(buildRegistry());
+			} catch (final Exception e) {
+				LOGGER.catching(e);
+				reloadPending.set(false);
+			}
+		}, getServer().getName() + " : PluginReload");
+		loader.setDaemon(true);
+		loader.start();
+		return true;
+	}
+
+	/**
+	 * Makes a reloaded snapshot the active one, and closes the class loaders of replaced snapshots nothing uses anymore.
+	 * Called by the game thread between the events and the updates of a tick, while no event or plugin script runs.
+	 */
+	public void applyPendingReload() {
+		final PluginRegistry next = pendingRegistry.getAndSet(null);
+		if (next != null) {
+			try {
+				if (registry == null) {
+					next.close();
+				} else {
+					activate(next);
+				}
+			} finally {
+				reloadPending.set(false);
+			}
+		}
+		if (!retiredRegistries.isEmpty()) {
+			retiredRegistries.removeIf(retired -> retired.closeIfUnused(getServer().getGameEventHandler()));
+		}
 	}
 
 	public void unload() throws IOException {
-		reloading = true;
+		final PluginRegistry previous = registry;
+		registry = null;
 
-		urlClassLoader.close();
 		getExecutor().shutdown();
 		try {
 			final boolean terminationResult = getExecutor().awaitTermination(1, TimeUnit.MINUTES);
@@ -251,17 +391,24 @@ public final class PluginHandler {
 		} catch (final InterruptedException e) {
 			LOGGER.catching(e);
 		}
+		if (previous != null) {
+			previous.close();
+		}
+		final PluginRegistry pending = pendingRegistry.getAndSet(null);
+		if (pending != null) {
+			pending.close();
+		}
+		reloadPending.set(false);
+		for (final PluginRegistry retired : retiredRegistries) {
+			retired.close();
+		}
+		retiredRegistries.clear();
 
 		getServer().getWorld().getQuests().clear();
 		getServer().getWorld().getMiniGames().clear();
 		getServer().getWorld().getShops().clear();
 
-		knownInterfaces.clear();
-		plugins.clear();
-		loadedClassFiles.clear();
-
 		executor = null;
-		defaultHandler = null;
 	}
 
 	public boolean handlePlugin(final World world, final String interfce, final Object[] data) {
@@ -277,98 +424,85 @@ public final class PluginHandler {
 	}
 
 	public boolean handlePlugin(final Player owner, final World world, final String interfce, final Object[] data, final WalkToAction walkToAction) {
-		synchronized(plugins) {
-			if (reloading) {
-				for (Object o : data) {
-					if (o instanceof Player) {
-						((Player) o).message("Plugins are being updated, please wait.");
-					}
-				}
-				return false;
-			}
-			boolean shouldBlockDefault = false;
+		final PluginRegistry registry = this.registry;
+		if (registry == null) {
+			return false;
+		}
 
-			if (plugins.containsKey(interfce + "Trigger")) {
-				for (final Object c : plugins.get(interfce + "Trigger")) {
-					try {
-						final Class<?>[] dataClasses = new Class<?>[data.length];
-						int i = 0;
-						for (final Object o : data) {
-							dataClasses[i++] = o.getClass();
-						}
-						final Method m = c.getClass().getMethod("block" + interfce, dataClasses);
-						final boolean shouldBlock = (Boolean) m.invoke(c, data);
-						if (shouldBlock) {
-							shouldBlockDefault = true;
-							invokePluginAction(owner, world, interfce, c, data, walkToAction);
-						}
-					} catch (final Exception e) {
-						LOGGER.catching(e);
-					}
-				}
-			}
+		final TriggerHandlers handlers = registry.getTriggerHandlers(interfce);
+		if (handlers == null) {
+			return false;
+		}
 
+		boolean shouldBlockDefault = false;
+		for (final int i : handlers.getCandidates(data)) {
 			try {
-				if (!shouldBlockDefault) {
-					invokePluginAction(owner, world, interfce, defaultHandler, data, walkToAction);
+				final boolean shouldBlock = (boolean) handlers.getBlockHandle(i).invokeExact(data);
+				if (shouldBlock) {
+					shouldBlockDefault = true;
+					invokePluginAction(registry, owner, world, interfce, handlers.getOnHandle(i), handlers.getOnName(i), data, walkToAction);
 				}
-			} catch (final Exception e) {
+			} catch (final Throwable e) {
 				LOGGER.catching(e);
 			}
+		}
 
-			return shouldBlockDefault;
+		if (!shouldBlockDefault && handlers.getDefaultOnHandle() != null) {
+			invokePluginAction(registry, owner, world, interfce, handlers.getDefaultOnHandle(), handlers.getDefaultOnName(), data, walkToAction);
 		}
+
+		return shouldBlockDefault;
 	}
 
-	private void invokePluginAction(final Player owner, final World world, final String interfce, final Object cls, final Object[] data, final WalkToAction walkToAction) {
-		if (reloading) {
+	private void invokePluginAction(final PluginRegistry registry, final Player owner, final World world, final String interfce, final MethodHandle onHandle, final String pluginName, final Object[] data, final WalkToAction walkToAction) {
+		if (!registry.taskStarted()) {
 			return;
 		}
-		if (plugins.containsKey(interfce + "Trigger")) {
-			try {
-				final Class<?>[] dataClasses = new Class<?>[data.length];
-				int i = 0;
-				for (final Object o : data) {
-					dataClasses[i++] = o.getClass();
+		try {
+			final PluginTickEvent e = new PluginTickEvent(world, owner, pluginName, walkToAction, new PluginTask(world, owner, interfce, data) {
+				private final AtomicBoolean released = new AtomicBoolean(false);
+
+				@Override
+				public synchronized void stop() {
+					super.stop();
+					// Stopped once when the script ends, and again by the tick event or if the script never started.
+					if (released.compareAndSet(false, true)) {
+						registry.taskFinished();
+					}
 				}
 
-				try {
-					final Method m = cls.getClass().getMethod("on" + interfce, dataClasses);
-					final String pluginName = cls.getClass().getSimpleName() + "." + m.getName();
-					final PluginTickEvent e = new PluginTickEvent(world, owner, pluginName, walkToAction, new PluginTask(world, owner, interfce, data) {
-						@Override
-						public int action() {
-							try {
-								LOGGER.info("Tick " + getWorld().getServer().getCurrentTick() + " : " + pluginName + " : " + Arrays.deepToString(data));
-								m.invoke(cls, data);
-								return 1;
-							} catch (final InvocationTargetException ex) {
-								if (ex.getCause() instanceof PluginInterruptedException) {
-									// PluginTask.call() will do stop() after this which will correctly shut down the Plugin.
-									//LOGGER.info("Plugin Interrupted: " + ex.getMessage());
-									return 1;
-								} else {
-									LOGGER.catching(ex);
-									return 0;
-								}
-							} catch (final Exception ex) {
-								LOGGER.catching(ex);
-								return 0;
-							}
-						}
-					});
-
-					getServer().getGameEventHandler().add(e);
-				} catch (final NoSuchMethodException ex) {
-					LOGGER.info(ex.getMessage());
-					LOGGER.info(cls.getClass().getSimpleName() + ".on" + interfce + " : " + Arrays.deepToString(data));
-					// getClass().getMethod() failed because there is an executive listener, but NOT a corresponding action listener, OR
-					// there is no action listener defined in Default plugin
+				@Override
+				protected void sliceCompleted(final long nanos) {
+					profiler.recordSlice(pluginName, nanos);
 				}
-			} catch (final Exception e) {
-				System.err.println("Exception at plugin handling: ");
-				LOGGER.catching(e);
-			}
+
+				@Override
+				protected void scriptCompleted(final int pauses, final long lifetimeNanos) {
+					profiler.recordScript(pluginName, pauses, lifetimeNanos);
+				}
+
+				@Override
+				public int action() {
+					try {
+						profiler.invoked(getWorld().getServer().getCurrentTick(), pluginName, data);
+						onHandle.invokeExact(data);
+						return 1;
+					} catch (final PluginInterruptedException ex) {
+						// PluginTask.call() will do stop() after this which will correctly shut down the Plugin.
+						//LOGGER.info("Plugin Interrupted: " + ex.getMessage());
+						return 1;
+					} catch (final Throwable ex) {
+						LOGGER.catching(ex);
+						return 0;
+					}
+				}
+			});
+
+			getServer().getGameEventHandler().add(e);
+		} catch (final Exception e) {
+			registry.taskFinished();
+			System.err.println("Exception at plugin handling: ");
+			LOGGER.catching(e);
 		}
 	}
 
@@ -377,7 +511,12 @@ public final class PluginHandler {
 	}
 
 	public List<Class<?>> getKnownInterfaces() {
-		return knownInterfaces;
+		final PluginRegistry registry = this.registry;
+		return registry == null ? Collections.emptyList() : registry.getKnownInterfaces();
+	}
+
+	public PluginProfiler getProfiler() {
+		return profiler;
 	}
 
 	public final Server getServer() {
@@ -0,0 +1,192 @@
+package com.openrsc.server.plugins;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The top level classes of a jar and the interfaces each of them implements, generated by the ant build so the
+ * server does not have to scan jars and directories and load every class to find its plugins.
+ *
+ * The index is a text file with one line per class, "class" followed by the class name and the names of every
+ * interface it implements directly or through its superclasses. An index limited to some packages starts with a
+ * "package" line for each of them.
+ */
+public final class PluginIndex {
+	/**
+	 * The index of the packages of core.jar scanned at startup.
+	 */
+	public static final String CORE_INDEX = "META-INF/openrsc/core.idx";
+	/**
+	 * The index of every class in plugins.jar.
+	 */
+	public static final String PLUGINS_INDEX = "META-INF/openrsc/plugins.idx";
+
+	private final Set<String> packages;
+	private final Map<String, Set<String>> classes;
+
+	private PluginIndex(final Set<String> packages, final Map<String, Set<String>> classes) {
+		this.packages = packages;
+		this.classes = classes;
+	}
+
+	/**
+	 * @return The index at the given url, or null if there is none
+	 */
+	public static PluginIndex read(final URL url) throws IOException {
+		if (url == null) {
+			return null;
+		}
+		try (final InputStream in = url.openStream()) {
+			return read(in);
+		}
+	}
+
+	private static PluginIndex read(final InputStream in) throws IOException {
+		final Set<String> packages = new LinkedHashSet<>();
+		final Map<String, Set<String>> classes = new LinkedHashMap<>();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			final String[] parts = line.trim().split("\\s+");
+			if (parts.length < 2 || parts[0].startsWith("#")) {
+				continue;
+			}
+			if (parts[0].equals("package")) {
+				packages.add(parts[1]);
+			} else if (parts[0].equals("class")) {
+				classes.put(parts[1], new LinkedHashSet<>(Arrays.asList(parts).subList(2, parts.length)));
+			}
+		}
+		return new PluginIndex(packages, classes);
+	}
+
+	/**
+	 * @return If the index lists every class of the package, or of the whole jar if it names no packages
+	 */
+	public boolean covers(final String pckgname) {
+		if (packages.isEmpty()) {
+			return true;
+		}
+		for (final String indexed : packages) {
+			if (pckgname.equals(indexed) || pckgname.startsWith(indexed + ".")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The names of the indexed classes in the package and its subpackages, sorted by name
+	 */
+	public List<String> getClassNames(final String pckgname) {
+		final List<String> names = new ArrayList<>();
+		for (final String className : classes.keySet()) {
+			if (className.startsWith(pckgname + ".")) {
+				names.add(className);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * @return The names of every indexed class, sorted by name
+	 */
+	public List<String> getClassNames() {
+		return new ArrayList<>(classes.keySet());
+	}
+
+	/**
+	 * @return The names of every interface the class implements, or an empty set if it is not indexed
+	 */
+	public Set<String> getInterfaces(final String className) {
+		final Set<String> interfaces = classes.get(className);
+		return interfaces == null ? Collections.emptySet() : interfaces;
+	}
+
+	/**
+	 * @return The names of every interface the class implements, directly or through its superclasses
+	 */
+	static Set<String> interfacesOf(final Class<?> type) {
+		final Set<String> interfaces = new LinkedHashSet<>();
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			addInterfaces(c, interfaces);
+		}
+		return interfaces;
+	}
+
+	private static void addInterfaces(final Class<?> type, final Set<String> interfaces) {
+		for (final Class<?> interfce : type.getInterfaces()) {
+			if (interfaces.add(interfce.getName())) {
+				addInterfaces(interfce, interfaces);
+			}
+		}
+	}
+
+	/**
+	 * Writes the index of a directory of compiled classes, run by the ant build once they are compiled.
+	 *
+	 * Usage: PluginIndex [classes directory] [index file] [package]...
+	 * Without packages, every class in the directory is indexed.
+	 */
+	public static void main(final String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: PluginIndex [classes directory] [index file] [package]...");
+			System.exit(1);
+		}
+		final Path root = Paths.get(args[0]);
+		final List<String> packages = Arrays.asList(args).subList(2, args.length);
+
+		final List<String> classNames;
+		try (final Stream<Path> files = Files.walk(root)) {
+			classNames = files
+				.map(path -> root.relativize(path).toString().replace(File.separatorChar, '/'))
+				.filter(name -> name.endsWith(".class") && !name.contains("$"))
+				.map(name -> name.substring(0, name.length() - 6).replace('/', '.'))
+				.filter(name -> packages.isEmpty() || packages.stream().anyMatch(pckg -> name.startsWith(pckg + ".")))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+
+		final Path indexFile = Paths.get(args[1]);
+		if (indexFile.getParent() != null) {
+			Files.createDirectories(indexFile.getParent());
+		}
+		try (final URLClassLoader loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, PluginIndex.class.getClassLoader());
+			 final PrintWriter out = new PrintWriter(Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8))) {
+			out.println("# Generated by the ant build, do not edit.");
+			for (final String pckg : packages) {
+				out.println("package " + pckg);
+			}
+			for (final String className : classNames) {
+				// Do not initialize the classes, their static initializers may expect a running server.
+				final Class<?> type = Class.forName(className, false, loader);
+				final StringBuilder line = new StringBuilder("class ").append(className);
+				for (final String interfce : interfacesOf(type)) {
+					line.append(' ').append(interfce);
+				}
+				out.println(line);
+			}
+		}
+		System.out.println("Indexed " + classNames.size() + " classes into " + indexFile);
+	}
+}
@@ -0,0 +1,112 @@
+package com.openrsc.server.plugins;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings of the plugin scripts started by the PluginHandler, keyed by the plugin method they run, for example
+ * Bankers.onTalkNpc.
+ *
+ * A slice is the wall time a script runs between being resumed and its next pause or its end, which the game tick
+ * waits on. For each script the profiler records its slices, how often it paused and its lifetime from start to end.
+ */
+public final class PluginProfiler {
+	/**
+	 * The asynchronous logger.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private final ConcurrentHashMap<String, ScriptStats> scripts = new ConcurrentHashMap<>();
+	private final AtomicLong invocations = new AtomicLong(0);
+
+	/**
+	 * Log 1 in this many invocations with their arguments, 0 to log none.
+	 */
+	private final int traceSampleRate;
+	/**
+	 * Slices longer than this are logged as they happen.
+	 */
+	private final long slowSliceNanos;
+
+	public PluginProfiler(final int traceSampleRate, final long slowSliceMillis) {
+		this.traceSampleRate = traceSampleRate;
+		this.slowSliceNanos = TimeUnit.MILLISECONDS.toNanos(slowSliceMillis);
+	}
+
+	/**
+	 * Counts an invocation of a plugin method, logging it if it is sampled for tracing.
+	 */
+	void invoked(final long tick, final String pluginName, final Object[] data) {
+		final long invocation = invocations.incrementAndGet();
+		if (traceSampleRate > 0 && invocation % traceSampleRate == 0) {
+			LOGGER.info("Tick " + tick + " : " + pluginName + " : " + Arrays.deepToString(data));
+		}
+	}
+
+	void recordSlice(final String pluginName, final long nanos) {
+		getStats(pluginName).slices.record(nanos);
+		if (nanos > slowSliceNanos) {
+			LOGGER.warn("Plugin " + pluginName + " held the game tick for " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms");
+		}
+	}
+
+	void recordScript(final String pluginName, final int pauses, final long lifetimeNanos) {
+		final ScriptStats stats = getStats(pluginName);
+		stats.pauses.record(pauses);
+		stats.lifetimes.record(lifetimeNanos);
+	}
+
+	private ScriptStats getStats(final String pluginName) {
+		final ScriptStats stats = scripts.get(pluginName);
+		return stats != null ? stats : scripts.computeIfAbsent(pluginName, name -> new ScriptStats());
+	}
+
+	public void reset() {
+		scripts.clear();
+		invocations.set(0);
+	}
+
+	/**
+	 * Lists the scripts that spent the most time in their slices, most first.
+	 *
+	 * @param newLine The line separator, % for in game message boxes
+	 */
+	public String buildSlowScripts(final int count, final String newLine) {
+		final List<Map.Entry<String, ScriptStats>> entries = new ArrayList<>(scripts.entrySet());
+		entries.sort((prev, next) -> Long.compare(next.getValue().slices.getTotal(), prev.getValue().slices.getTotal()));
+
+		final StringBuilder s = new StringBuilder();
+		for (int i = 0; i < Math.min(count, entries.size()); i++) {
+			final String name = entries.get(i).getKey();
+			final ScriptStats stats = entries.get(i).getValue();
+			s.append(name).append(" : ");
+			s.append(stats.lifetimes.getCount()).append(" runs : ");
+			s.append("slice ").append(micros(stats.slices.getMean())).append("/");
+			s.append(micros(stats.slices.getPercentile(0.99))).append("/");
+			s.append(micros(stats.slices.getMax())).append("us : ");
+			s.append("total ").append(TimeUnit.NANOSECONDS.toMillis(stats.slices.getTotal())).append("ms : ");
+			s.append("pauses ").append(stats.pauses.getMean()).append("/").append(stats.pauses.getMax()).append(" : ");
+			s.append("life ").append(TimeUnit.NANOSECONDS.toMillis(stats.lifetimes.getMean())).append("ms");
+			s.append(newLine);
+		}
+		return s.toString();
+	}
+
+	private static long micros(final long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	private static final class ScriptStats {
+		private final LatencyHistogram slices = new LatencyHistogram();
+		private final LatencyHistogram pauses = new LatencyHistogram();
+		private final LatencyHistogram lifetimes = new LatencyHistogram();
+	}
+}
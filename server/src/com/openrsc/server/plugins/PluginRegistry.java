@@ -0,0 +1,148 @@
+package com.openrsc.server.plugins;
+
+import com.openrsc.server.GameEventHandler;
+import com.openrsc.server.event.custom.ShopRestockEvent;
+import com.openrsc.server.model.Shop;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An immutable snapshot of the plugins loaded from one plugins.jar, built off the game thread and swapped into the
+ * PluginHandler as a whole.
+ *
+ * Plugin tasks started from a snapshot hold on to it until they finish, as do the game events whose classes its
+ * class loader defined. A snapshot that has been replaced closes its class loader once none of them are left.
+ */
+final class PluginRegistry {
+	/**
+	 * The asynchronous logger.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	/**
+	 * Value of runningTasks once the class loader has been closed.
+	 */
+	private static final int CLOSED = -1;
+
+	private final URLClassLoader classLoader;
+	private final List<Class<?>> knownInterfaces;
+	private final Map<String, TriggerHandlers> triggers;
+	private final List<QuestInterface> quests;
+	private final List<MiniGameInterface> miniGames;
+	private final List<Shop> shops;
+	private final int pluginCount;
+
+	/**
+	 * The restock events of this snapshot's shops, added while it is the active snapshot.
+	 */
+	private final List<ShopRestockEvent> restockEvents = new ArrayList<>();
+
+	private final AtomicInteger runningTasks = new AtomicInteger(0);
+
+	PluginRegistry(final URLClassLoader classLoader, final List<Class<?>> knownInterfaces, final Map<String, TriggerHandlers> triggers,
+				   final List<QuestInterface> quests, final List<MiniGameInterface> miniGames, final List<Shop> shops, final int pluginCount) {
+		this.classLoader = classLoader;
+		this.knownInterfaces = Collections.unmodifiableList(knownInterfaces);
+		this.triggers = Collections.unmodifiableMap(triggers);
+		this.quests = Collections.unmodifiableList(quests);
+		this.miniGames = Collections.unmodifiableList(miniGames);
+		this.shops = Collections.unmodifiableList(shops);
+		this.pluginCount = pluginCount;
+	}
+
+	/**
+	 * @param name The trigger name without its Trigger suffix
+	 * @return The handlers of the trigger, or null if no plugin implements it
+	 */
+	TriggerHandlers getTriggerHandlers(final String name) {
+		return triggers.get(name);
+	}
+
+	List<Class<?>> getKnownInterfaces() {
+		return knownInterfaces;
+	}
+
+	List<QuestInterface> getQuests() {
+		return quests;
+	}
+
+	List<MiniGameInterface> getMiniGames() {
+		return miniGames;
+	}
+
+	List<Shop> getShops() {
+		return shops;
+	}
+
+	List<ShopRestockEvent> getRestockEvents() {
+		return restockEvents;
+	}
+
+	int getPluginCount() {
+		return pluginCount;
+	}
+
+	/**
+	 * Registers a plugin task started from this snapshot.
+	 *
+	 * @return False if the snapshot has already been closed and the task must not be started
+	 */
+	boolean taskStarted() {
+		while (true) {
+			final int running = runningTasks.get();
+			if (running == CLOSED) {
+				return false;
+			}
+			if (runningTasks.compareAndSet(running, running + 1)) {
+				return true;
+			}
+		}
+	}
+
+	void taskFinished() {
+		runningTasks.decrementAndGet();
+	}
+
+	/**
+	 * Closes the class loader of a replaced snapshot if no plugin task started from it is running and no game event
+	 * of one of its classes is left, those could still load classes through it.
+	 *
+	 * @return True if the snapshot is closed
+	 */
+	boolean closeIfUnused(final GameEventHandler gameEventHandler) {
+		if (runningTasks.get() == CLOSED) {
+			return true;
+		}
+		if (runningTasks.get() != 0 || (classLoader != null && gameEventHandler.hasEventsLoadedBy(classLoader))) {
+			return false;
+		}
+		return close();
+	}
+
+	/**
+	 * Closes the class loader unless a plugin task started from this snapshot is still running.
+	 *
+	 * @return True if the snapshot is closed
+	 */
+	boolean close() {
+		if (!runningTasks.compareAndSet(0, CLOSED)) {
+			return runningTasks.get() == CLOSED;
+		}
+		if (classLoader != null) {
+			try {
+				classLoader.close();
+			} catch (final IOException e) {
+				LOGGER.catching(e);
+			}
+		}
+		return true;
+	}
+}
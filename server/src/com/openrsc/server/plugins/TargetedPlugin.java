@@ -0,0 +1,18 @@
+package com.openrsc.server.plugins;
+
+/**
+ * Implemented by plugins that only handle specific npcs, objects or items, so the PluginHandler only asks them
+ * about those instead of about every target of a trigger.
+ *
+ * The target of a trigger is its npc, game object or ground item argument, or the item for triggers that have a
+ * single item and none of the others (OpInv, DropObj, UsePlayer...). Triggers without a target, such as UseInv,
+ * always ask every plugin.
+ */
+public interface TargetedPlugin {
+	/**
+	 * @param trigger A trigger interface implemented by the plugin, for example TalkNpcTrigger.class
+	 * @return The ids of every target the plugin's block method may return true for, or null to be asked about
+	 * every target of the trigger
+	 */
+	int[] getTargetIds(Class<?> trigger);
+}
@@ -0,0 +1,239 @@
+package com.openrsc.server.plugins;
+
+import com.openrsc.server.model.container.Item;
+import com.openrsc.server.model.entity.GameObject;
+import com.openrsc.server.model.entity.GroundItem;
+import com.openrsc.server.model.entity.npc.Npc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The plugins implementing one trigger interface, with their block and on methods resolved into method handles
+ * when the plugins are loaded.
+ *
+ * Every handle is bound to its plugin and takes the trigger's arguments as an Object[], so
+ * {@code (boolean) getBlockHandle(i).invokeExact(data)} and {@code getOnHandle(i).invokeExact(data)} dispatch
+ * without any reflective lookups.
+ *
+ * Plugins implementing {@link TargetedPlugin} are indexed by the target ids they declare. {@link #getCandidates}
+ * then returns, in load order, the plugins declaring the target's id plus the plugins that declare nothing.
+ */
+final class TriggerHandlers {
+	private static final MethodType BLOCK_TYPE = MethodType.methodType(boolean.class, Object.class, Object[].class);
+	private static final MethodType ON_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+	private final String name;
+	private final Object[] plugins;
+	private final MethodHandle[] blockHandles;
+	private final MethodHandle[] onHandles;
+	private final String[] onNames;
+
+	/**
+	 * The index of the argument holding the trigger's target, -1 if the trigger has none.
+	 */
+	private final int targetArgument;
+	private final int[] allPlugins;
+	private final int[] untargetedPlugins;
+	/**
+	 * The plugins to ask about each target id, null for ids no plugin declared.
+	 */
+	private final int[][] pluginsByTarget;
+
+	private final MethodHandle defaultOnHandle;
+	private final String defaultOnName;
+
+	/**
+	 * @param trigger The trigger interface, for example TalkNpcTrigger
+	 * @param plugins The plugins implementing the trigger, excluding the default handler
+	 * @param defaultHandler The default handler, or null if there is none
+	 */
+	TriggerHandlers(final Class<?> trigger, final List<Object> plugins, final Object defaultHandler) throws ReflectiveOperationException {
+		final String simpleName = trigger.getSimpleName();
+		this.name = simpleName.substring(0, simpleName.length() - "Trigger".length());
+
+		final Method blockMethod = find(trigger, "block" + name);
+		final MethodHandle block = spread(blockMethod, BLOCK_TYPE);
+		final MethodHandle on = spread(find(trigger, "on" + name), ON_TYPE);
+
+		this.plugins = plugins.toArray();
+		this.blockHandles = new MethodHandle[this.plugins.length];
+		this.onHandles = new MethodHandle[this.plugins.length];
+		this.onNames = new String[this.plugins.length];
+		for (int i = 0; i < this.plugins.length; i++) {
+			blockHandles[i] = block.bindTo(this.plugins[i]);
+			onHandles[i] = on.bindTo(this.plugins[i]);
+			onNames[i] = this.plugins[i].getClass().getSimpleName() + ".on" + name;
+		}
+
+		this.targetArgument = findTargetArgument(blockMethod.getParameterTypes());
+		this.allPlugins = new int[this.plugins.length];
+		final List<int[]> declaredIds = new ArrayList<>();
+		int maxId = -1;
+		for (int i = 0; i < this.plugins.length; i++) {
+			allPlugins[i] = i;
+			final int[] ids = targetArgument >= 0 && this.plugins[i] instanceof TargetedPlugin
+				? ((TargetedPlugin) this.plugins[i]).getTargetIds(trigger) : null;
+			declaredIds.add(ids);
+			if (ids != null) {
+				for (final int id : ids) {
+					maxId = Math.max(maxId, id);
+				}
+			}
+		}
+		this.untargetedPlugins = collect(declaredIds, -1);
+		this.pluginsByTarget = new int[maxId + 1][];
+		for (int id = 0; id <= maxId; id++) {
+			if (isDeclared(declaredIds, id)) {
+				pluginsByTarget[id] = collect(declaredIds, id);
+			}
+		}
+
+		if (defaultHandler != null && trigger.isInstance(defaultHandler)) {
+			this.defaultOnHandle = on.bindTo(defaultHandler);
+			this.defaultOnName = defaultHandler.getClass().getSimpleName() + ".on" + name;
+		} else {
+			this.defaultOnHandle = null;
+			this.defaultOnName = null;
+		}
+	}
+
+	private static Method find(final Class<?> trigger, final String methodName) throws NoSuchMethodException {
+		for (final Method method : trigger.getMethods()) {
+			if (method.getName().equals(methodName)) {
+				return method;
+			}
+		}
+		throw new NoSuchMethodException(trigger.getName() + "." + methodName);
+	}
+
+	private static MethodHandle spread(final Method method, final MethodType type) throws IllegalAccessException {
+		return MethodHandles.publicLookup().unreflect(method)
+			.asSpreader(Object[].class, method.getParameterCount())
+			.asType(type);
+	}
+
+	/**
+	 * @return The first npc, game object or ground item parameter, else the only item parameter, else -1.
+	 */
+	private static int findTargetArgument(final Class<?>[] parameters) {
+		int itemArgument = -1;
+		int items = 0;
+		for (int i = 0; i < parameters.length; i++) {
+			if (parameters[i] == Npc.class || parameters[i] == GameObject.class || parameters[i] == GroundItem.class) {
+				return i;
+			}
+			if (parameters[i] == Item.class) {
+				itemArgument = i;
+				items++;
+			}
+		}
+		return items == 1 ? itemArgument : -1;
+	}
+
+	private static int targetIdOf(final Object target) {
+		if (target instanceof Npc) {
+			return ((Npc) target).getID();
+		} else if (target instanceof GameObject) {
+			return ((GameObject) target).getID();
+		} else if (target instanceof GroundItem) {
+			return ((GroundItem) target).getID();
+		} else if (target instanceof Item) {
+			return ((Item) target).getCatalogId();
+		}
+		return -1;
+	}
+
+	private static boolean isDeclared(final List<int[]> declaredIds, final int id) {
+		for (final int[] ids : declaredIds) {
+			if (ids != null && contains(ids, id)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The plugins that declared no ids, plus those that declared the given id.
+	 */
+	private static int[] collect(final List<int[]> declaredIds, final int id) {
+		final int[] collected = new int[declaredIds.size()];
+		int size = 0;
+		for (int i = 0; i < declaredIds.size(); i++) {
+			final int[] ids = declaredIds.get(i);
+			if (ids == null || (id >= 0 && contains(ids, id))) {
+				collected[size++] = i;
+			}
+		}
+		return Arrays.copyOf(collected, size);
+	}
+
+	private static boolean contains(final int[] ids, final int id) {
+		for (final int declared : ids) {
+			if (declared == id) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The indices of the plugins to ask about the trigger's arguments, in load order.
+	 */
+	int[] getCandidates(final Object[] data) {
+		if (targetArgument < 0 || targetArgument >= data.length) {
+			return allPlugins;
+		}
+		final int id = targetIdOf(data[targetArgument]);
+		if (id < 0) {
+			return allPlugins;
+		}
+		if (id < pluginsByTarget.length && pluginsByTarget[id] != null) {
+			return pluginsByTarget[id];
+		}
+		return untargetedPlugins;
+	}
+
+	/**
+	 * @return The trigger name without the Trigger suffix, as passed to PluginHandler.handlePlugin
+	 */
+	String getName() {
+		return name;
+	}
+
+	int size() {
+		return plugins.length;
+	}
+
+	Object getPlugin(final int index) {
+		return plugins[index];
+	}
+
+	MethodHandle getBlockHandle(final int index) {
+		return blockHandles[index];
+	}
+
+	MethodHandle getOnHandle(final int index) {
+		return onHandles[index];
+	}
+
+	/**
+	 * @return The name the plugin's on method is profiled under, for example Bankers.onTalkNpc
+	 */
+	String getOnName(final int index) {
+		return onNames[index];
+	}
+
+	MethodHandle getDefaultOnHandle() {
+		return defaultOnHandle;
+	}
+
+	String getDefaultOnName() {
+		return defaultOnName;
+	}
+}
@@ -22,15 +22,29 @@ public final class PersistenceManager {
 
 	private final Server server;
 
+	private final String configDir;
+
 	public PersistenceManager(Server server) {
+		this(server, server.getConfig().CONFIG_DIR);
+	}
+
+	/**
+	 * Creates a persistence manager for tools running without a server, such as the {@link com.openrsc.server.external.DefinitionCompiler}.
+	 */
+	public PersistenceManager(String configDir) {
+		this(null, configDir);
+	}
+
+	private PersistenceManager(Server server, String configDir) {
 		this.server = server;
+		this.configDir = configDir;
 
 		setupAliases();
 	}
 
 	public Object load(String filename) {
 		try {
-			InputStream is = new FileInputStream(new File(getServer().getConfig().CONFIG_DIR, filename));
+			InputStream is = new FileInputStream(new File(getConfigDir(), filename));
 			if (filename.endsWith(".gz")) {
 				is = new GZIPInputStream(is);
 			}
@@ -45,7 +59,7 @@ public final class PersistenceManager {
 	protected void setupAliases() {
 		try {
 			Properties aliases = new Properties();
-			FileInputStream fis = new FileInputStream(new File(getServer().getConfig().CONFIG_DIR, "aliases.xml"));
+			FileInputStream fis = new FileInputStream(new File(getConfigDir(), "aliases.xml"));
 			aliases.loadFromXML(fis);
 			for (Enumeration<?> e = aliases.propertyNames(); e.hasMoreElements(); ) {
 				String alias = (String) e.nextElement();
@@ -59,7 +73,7 @@ public final class PersistenceManager {
 
 	public void write(String filename, Object o) {
 		try {
-			OutputStream os = new FileOutputStream(new File(getServer().getConfig().CONFIG_DIR, filename));
+			OutputStream os = new FileOutputStream(new File(getConfigDir(), filename));
 			if (filename.endsWith(".gz")) {
 				os = new GZIPOutputStream(os);
 			}
@@ -72,4 +86,8 @@ public final class PersistenceManager {
 	public Server getServer() {
 		return server;
 	}
+
+	public String getConfigDir() {
+		return configDir;
+	}
 }
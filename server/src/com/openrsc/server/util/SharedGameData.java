@@ -0,0 +1,160 @@
+package com.openrsc.server.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Game data shared by every server in the process that loads it from identical files, such as the definitions and
+ * the decoded landscape. Shared data must never be changed once loaded.
+ *
+ * Each piece of data is cached under a name with the content key it was loaded from, usually the hash of its files.
+ * Servers asking for the same name and key get the same instance, and only one of them loads it. A different key
+ * replaces the cached data. Each server releases the data it asked for when it stops, and data no running server
+ * uses anymore is dropped from the cache.
+ */
+public final class SharedGameData {
+	private static final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private static final class Entry {
+		private final String contentKey;
+		private final CompletableFuture<Object> value = new CompletableFuture<>();
+		private final Set<Object> users = new HashSet<>();
+		private boolean released = false;
+
+		private Entry(final String contentKey) {
+			this.contentKey = contentKey;
+		}
+
+		/**
+		 * @return False if the last user released the entry, which is no longer cached
+		 */
+		private synchronized boolean acquire(final Object user) {
+			if (released) {
+				return false;
+			}
+			users.add(user);
+			return true;
+		}
+	}
+
+	private SharedGameData() {
+	}
+
+	/**
+	 * @param user The server using the data, which must {@link #release(Object)} it when it stops
+	 * @param name What the data is, for example the file it is loaded from
+	 * @param contentKey Identifies the content the data is loaded from, see {@link #hashFiles(File...)}
+	 * @param loader Loads the data if no other server has loaded it from the same content
+	 * @return The shared data, or whatever the loader returned if that was null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T get(final Object user, final String name, final String contentKey, final Supplier<T> loader) {
+		while (true) {
+			final Entry current = entries.get(name);
+			if (current != null && current.contentKey.equals(contentKey)) {
+				if (!current.acquire(user)) {
+					// The last server using it just released it, load it again.
+					continue;
+				}
+				try {
+					return (T) current.value.join();
+				} catch (final CompletionException e) {
+					// The server loading it failed and removed the entry, try loading it ourselves.
+					continue;
+				}
+			}
+
+			final Entry loading = new Entry(contentKey);
+			loading.acquire(user);
+			final boolean claimed = current == null
+				? entries.putIfAbsent(name, loading) == null
+				: entries.replace(name, current, loading);
+			if (!claimed) {
+				continue;
+			}
+
+			final T value;
+			try {
+				value = loader.get();
+			} catch (final RuntimeException | Error e) {
+				entries.remove(name, loading);
+				loading.value.completeExceptionally(e);
+				throw e;
+			}
+			if (value == null) {
+				// Failed loads are not shared, the loader has already reported why.
+				entries.remove(name, loading);
+			}
+			loading.value.complete(value);
+			return value;
+		}
+	}
+
+	/**
+	 * Releases all the data the user asked for. Data no other user holds is dropped from the cache, so it can be
+	 * freed once the user lets go of it.
+	 */
+	public static void release(final Object user) {
+		for (final Map.Entry<String, Entry> cached : entries.entrySet()) {
+			final Entry entry = cached.getValue();
+			synchronized (entry) {
+				if (entry.users.remove(user) && entry.users.isEmpty()) {
+					entry.released = true;
+					entries.remove(cached.getKey(), entry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return A SHA-256 hash of the names and contents of the files. Missing files are hashed by name.
+	 */
+	public static String hashFiles(final File... files) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (final File file : files) {
+				digest.update(file.getPath().getBytes("UTF-8"));
+				digest.update((byte) 0);
+				if (file.isFile()) {
+					digest.update(Files.readAllBytes(file.toPath()));
+				}
+				digest.update((byte) 0);
+			}
+			return toHex(digest.digest());
+		} catch (final NoSuchAlgorithmException | IOException e) {
+			throw new IllegalStateException("Could not hash " + java.util.Arrays.toString(files), e);
+		}
+	}
+
+	/**
+	 * @return A SHA-256 hash of the contents of the file, the same wherever the file is, or null if it is missing
+	 */
+	public static String hashContents(final File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			return toHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file.toPath())));
+		} catch (final NoSuchAlgorithmException | IOException e) {
+			throw new IllegalStateException("Could not hash " + file, e);
+		}
+	}
+
+	private static String toHex(final byte[] hash) {
+		final StringBuilder hex = new StringBuilder();
+		for (final byte b : hash) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+}
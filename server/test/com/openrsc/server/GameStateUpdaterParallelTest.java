@@ -0,0 +1,200 @@
+package com.openrsc.server;
+
+import com.openrsc.server.model.Point;
+import com.openrsc.server.model.entity.GameObject;
+import com.openrsc.server.model.entity.GroundItem;
+import com.openrsc.server.model.entity.npc.Npc;
+import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.net.Packet;
+import com.openrsc.server.testing.TestServers;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+import static com.openrsc.server.testing.Assert.assertArrayEquals;
+import static com.openrsc.server.testing.Assert.assertTrue;
+
+/**
+ * Updates the clients of one world with both the serial path and want_parallel_client_updates, and checks every
+ * player is sent exactly the same bytes by both over a number of ticks.
+ *
+ * Each tick, the view state every player keeps between updates is saved, the serial path is run, the view state is
+ * put back and the parallel path is run on the same world.
+ */
+public class GameStateUpdaterParallelTest {
+	private static final int TICKS = 25;
+	/**
+	 * Around region corners near Lumbridge, so players see each other across region borders and are updated by
+	 * different tasks.
+	 */
+	private static final Point[] CENTRES = {Point.location(144, 624), Point.location(120, 650), Point.location(96, 672)};
+	private static final int PLAYERS_PER_CENTRE = 24;
+	private static final int NPCS_PER_CENTRE = 12;
+
+	public static void main(final String[] args) throws IOException {
+		final Server server = TestServers.createServer();
+		server.getConfig().WANT_PARALLEL_CLIENT_UPDATES = false;
+		final GameStateUpdater serial = new GameStateUpdater(server);
+		serial.load();
+		server.getConfig().WANT_PARALLEL_CLIENT_UPDATES = true;
+		final GameStateUpdater parallel = new GameStateUpdater(server);
+		parallel.load();
+
+		final List<Player> players = populate(server);
+		final Random random = new Random(7);
+		long bytesCompared = 0;
+		for (int tick = 0; tick < TICKS; tick++) {
+			move(server, random, tick);
+
+			final List<ViewState> viewStates = new ArrayList<>();
+			for (final Player player : players) {
+				viewStates.add(new ViewState(player));
+			}
+			serial.updateClients();
+			final List<byte[]> expected = new ArrayList<>();
+			for (final Player player : players) {
+				expected.add(drainPackets(player));
+			}
+
+			for (final ViewState viewState : viewStates) {
+				viewState.restore();
+			}
+			parallel.updateClients();
+			for (int i = 0; i < players.size(); i++) {
+				final byte[] actual = drainPackets(players.get(i));
+				assertTrue(expected.get(i).length > 0, "Player " + i + " was sent nothing on tick " + tick);
+				assertArrayEquals(expected.get(i), actual, "Packets of player " + i + " on tick " + tick);
+				bytesCompared += actual.length;
+			}
+
+			serial.doCleanup();
+		}
+		assertTrue(bytesCompared > 0, "No packets were compared");
+
+		serial.unload();
+		parallel.unload();
+	}
+
+	/**
+	 * Adds players, npcs, scenery, boundaries and ground items around each centre.
+	 */
+	private static List<Player> populate(final Server server) {
+		final Random random = new Random(42);
+		final List<Player> players = new ArrayList<>();
+		for (final Point centre : CENTRES) {
+			for (int i = 0; i < NPCS_PER_CENTRE; i++) {
+				final int x = centre.getX() + random.nextInt(21) - 10;
+				final int y = centre.getY() + random.nextInt(21) - 10;
+				server.getWorld().registerNpc(new Npc(server.getWorld(), 11, x, y, x - 5, x + 5, y - 5, y + 5));
+			}
+			for (int i = 0; i < 8; i++) {
+				final Point location = Point.location(centre.getX() + random.nextInt(21) - 10,
+					centre.getY() + random.nextInt(21) - 10);
+				server.getWorld().registerGameObject(new GameObject(server.getWorld(), location, 1, 0, 0));
+				server.getWorld().registerGameObject(new GameObject(server.getWorld(), location, 2, random.nextInt(2), 1));
+				server.getWorld().registerItem(new GroundItem(server.getWorld(), 10, location.getX(), location.getY(), 1 + i));
+			}
+			for (int i = 0; i < PLAYERS_PER_CENTRE; i++) {
+				final Point location = Point.location(centre.getX() + random.nextInt(21) - 10,
+					centre.getY() + random.nextInt(21) - 10);
+				final Player player = TestServers.addPlayer(server, "tester" + players.size(), location);
+				// Keeps updateTimeouts from saving the player to the database.
+				player.setAttribute("dummyplayer", true);
+				players.add(player);
+			}
+		}
+		return players;
+	}
+
+	/**
+	 * Moves some of the players and npcs, turns some players and changes the appearance of a few.
+	 */
+	private static void move(final Server server, final Random random, final int tick) {
+		for (final Player player : server.getWorld().getPlayers()) {
+			final int roll = random.nextInt(10);
+			if (roll < 4) {
+				player.setLocation(Point.location(player.getX() + random.nextInt(3) - 1, player.getY() + random.nextInt(3) - 1));
+			} else if (roll == 4) {
+				player.setSprite(random.nextInt(8));
+			} else if (roll == 5 && tick % 5 == 0) {
+				player.getUpdateFlags().setAppearanceChanged(true);
+			}
+		}
+		for (final Npc npc : server.getWorld().getNpcs()) {
+			if (random.nextInt(3) == 0) {
+				npc.setLocation(Point.location(npc.getX() + random.nextInt(3) - 1, npc.getY() + random.nextInt(3) - 1));
+			}
+		}
+	}
+
+	/**
+	 * @return The opcode, length and payload of every packet the player was sent since the last call
+	 */
+	private static byte[] drainPackets(final Player player) throws IOException {
+		player.processOutgoingPackets();
+		final EmbeddedChannel channel = TestServers.getChannel(player);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		Packet packet;
+		while ((packet = channel.readOutbound()) != null) {
+			final byte[] payload = ByteBufUtil.getBytes(packet.getBuffer());
+			out.writeInt(packet.getID());
+			out.writeInt(payload.length);
+			out.write(payload);
+			packet.getBuffer().release();
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * What a player knows about its surroundings between updates, which each update reads and changes.
+	 */
+	private static final class ViewState {
+		private final Player player;
+		private final List<Player> localPlayers;
+		private final List<Npc> localNpcs;
+		private final List<GameObject> localGameObjects;
+		private final List<GameObject> localWallObjects;
+		private final List<GroundItem> localGroundItems;
+		private final List<Point> locationsToClear;
+		private final HashMap<Long, Integer> knownPlayerAppearanceIDs;
+
+		private ViewState(final Player player) {
+			this.player = player;
+			this.localPlayers = new ArrayList<>(player.getLocalPlayers());
+			this.localNpcs = new ArrayList<>(player.getLocalNpcs());
+			this.localGameObjects = new ArrayList<>(player.getLocalGameObjects());
+			this.localWallObjects = new ArrayList<>(player.getLocalWallObjects());
+			this.localGroundItems = new ArrayList<>(player.getLocalGroundItems());
+			this.locationsToClear = new ArrayList<>(player.getLocationsToClear());
+			this.knownPlayerAppearanceIDs = new HashMap<>(player.getKnownPlayerAppearanceIDs());
+		}
+
+		private void restore() {
+			restore(player.getLocalPlayers(), localPlayers);
+			restore(player.getLocalNpcs(), localNpcs);
+			restore(player.getLocalGameObjects(), localGameObjects);
+			restore(player.getLocalWallObjects(), localWallObjects);
+			restore(player.getLocalGroundItems(), localGroundItems);
+			final ArrayDeque<Point> toClear = player.getLocationsToClear();
+			toClear.clear();
+			toClear.addAll(locationsToClear);
+			player.getKnownPlayerAppearanceIDs().clear();
+			player.getKnownPlayerAppearanceIDs().putAll(knownPlayerAppearanceIDs);
+		}
+
+		private static <T> void restore(final LinkedHashSet<T> live, final List<T> saved) {
+			live.clear();
+			live.addAll(saved);
+		}
+	}
+}
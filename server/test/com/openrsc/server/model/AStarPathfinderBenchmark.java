@@ -0,0 +1,70 @@
+package com.openrsc.server.model;
+
+import com.openrsc.server.Server;
+import com.openrsc.server.model.world.region.CollisionMap;
+import com.openrsc.server.testing.Benchmark;
+import com.openrsc.server.testing.TestServers;
+import com.openrsc.server.util.rsc.CollisionFlag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the AStarPathfinder with the search it replaced, which built a board of node objects for every call and
+ * scanned a list of them for the next one to open, at the depth mobs search with.
+ *
+ * The searches run on the landscape between Lumbridge and Varrock, from walkable tiles to tiles at most the depth
+ * away. Ends the search reaches and ends it can not, which make it open the whole window, are measured apart.
+ */
+public class AStarPathfinderBenchmark {
+	private static final int PAIRS = 128;
+	private static final int DEPTH = AStarPathfinder.MAX_A_STAR_DEPTH;
+
+	public static void main(final String[] args) throws Exception {
+		final Server server = TestServers.createServer();
+		final CollisionMap collisionMap = server.getWorld().getCollisionMap();
+
+		final Random random = new Random(21);
+		final List<Point[]> reachable = new ArrayList<>();
+		final List<Point[]> unreachable = new ArrayList<>();
+		while (reachable.size() < PAIRS || unreachable.size() < PAIRS) {
+			final Point start = new Point(60 + random.nextInt(100), 480 + random.nextInt(200));
+			final Point end = new Point(start.getX() + random.nextInt(2 * DEPTH + 1) - DEPTH,
+				start.getY() + random.nextInt(2 * DEPTH + 1) - DEPTH);
+			if ((collisionMap.getTraversalMask(start.getX(), start.getY()) & CollisionFlag.FULL_BLOCK) != 0) {
+				continue;
+			}
+			final AStarPathfinder pathfinder = new AStarPathfinder(collisionMap, start, end, DEPTH);
+			pathfinder.feedPath(new Path(null, Path.PathType.WALK_TO_POINT));
+			final List<Point[]> pairs = pathfinder.findPath() != null ? reachable : unreachable;
+			if (pairs.size() < PAIRS) {
+				pairs.add(new Point[]{start, end});
+			}
+		}
+
+		for (final String ends : new String[]{"reachable", "unreachable"}) {
+			final List<Point[]> pairs = ends.equals("reachable") ? reachable : unreachable;
+			Benchmark.run("findPath depth " + DEPTH + ", " + ends + " ends, node board (before)", pairs.size(), () -> {
+				long result = 0;
+				for (final Point[] pair : pairs) {
+					final LegacyAStarPathfinder pathfinder = new LegacyAStarPathfinder(collisionMap, pair[0], pair[1], DEPTH);
+					pathfinder.feedPath(new Path(null, Path.PathType.WALK_TO_POINT));
+					final Path path = pathfinder.findPath();
+					result += path == null ? -1 : path.size();
+				}
+				return result;
+			});
+			Benchmark.run("findPath depth " + DEPTH + ", " + ends + " ends, pooled arrays", pairs.size(), () -> {
+				long result = 0;
+				for (final Point[] pair : pairs) {
+					final AStarPathfinder pathfinder = new AStarPathfinder(collisionMap, pair[0], pair[1], DEPTH);
+					pathfinder.feedPath(new Path(null, Path.PathType.WALK_TO_POINT));
+					final Path path = pathfinder.findPath();
+					result += path == null ? -1 : path.size();
+				}
+				return result;
+			});
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.openrsc.server.model;
+
+import com.openrsc.server.model.world.region.CollisionMap;
+import com.openrsc.server.util.rsc.CollisionFlag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.openrsc.server.testing.Assert.assertEquals;
+import static com.openrsc.server.testing.Assert.assertTrue;
+
+/**
+ * Checks the AStarPathfinder finds exactly the paths the search it replaced found, and that its jump point search
+ * finds paths exactly as short, on random collision maps with blocked tiles and walls, including searches reaching
+ * past the edges of the map.
+ */
+public class AStarPathfinderTest {
+	private static final int CASES = 10000;
+	private static final int MAP_SIZE = 64;
+	private static final int MAX_DEPTH = 20;
+	private static final int MAX_JUMP_POINT_DEPTH = 64;
+
+	public static void main(final String[] args) {
+		checkSamePaths();
+		checkJumpPointPathLengths();
+	}
+
+	private static void checkSamePaths() {
+		final Random random = new Random(21);
+		for (int i = 0; i < CASES; i++) {
+			final CollisionMap collisionMap = randomMap(random);
+			final int depth = 1 + random.nextInt(MAX_DEPTH);
+			final Point start = new Point(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE));
+			final Point end = new Point(start.getX() + random.nextInt(2 * depth + 1) - depth,
+				start.getY() + random.nextInt(2 * depth + 1) - depth);
+
+			final LegacyAStarPathfinder legacy = new LegacyAStarPathfinder(collisionMap, start, end, depth);
+			legacy.feedPath(new Path(null, Path.PathType.WALK_TO_POINT));
+			final AStarPathfinder pathfinder = new AStarPathfinder(collisionMap, start, end, depth);
+			pathfinder.feedPath(new Path(null, Path.PathType.WALK_TO_POINT));
+
+			assertEquals(steps(legacy.findPath()), steps(pathfinder.findPath()),
+				"Path from " + start + " to " + end + " at depth " + depth + " in case " + i);
+		}
+	}
+
+	/**
+	 * Compares the cost of the paths found by jump point search with those found by A*, at depths up to the deepest
+	 * search a leashed npc makes. Paths with more steps than a Path holds are cut short differently by the two, so
+	 * for those only whether a path is found is compared.
+	 */
+	private static void checkJumpPointPathLengths() {
+		final Random random = new Random(22);
+		for (int i = 0; i < CASES; i++) {
+			final CollisionMap collisionMap = randomMap(random);
+			final int depth = 1 + random.nextInt(MAX_JUMP_POINT_DEPTH);
+			final Point start = new Point(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE));
+			final Point end = new Point(start.getX() + random.nextInt(2 * depth + 1) - depth,
+				start.getY() + random.nextInt(2 * depth + 1) - depth);
+			final String description = "Path from " + start + " to " + end + " at depth " + depth + " in case " + i;
+
+			final AStarPathfinder aStar = new AStarPathfinder(collisionMap, start, end, depth);
+			aStar.feedPath(new Path(null, Path.PathType.WALK_TO_POINT));
+			final List<Point> aStarSteps = steps(aStar.findPath());
+			final AStarPathfinder jumpPoint = new AStarPathfinder(collisionMap, start, end, depth);
+			jumpPoint.feedPath(new Path(null, Path.PathType.WALK_TO_POINT));
+			final List<Point> jumpPointSteps = steps(jumpPoint.findJumpPointPath());
+
+			assertEquals(aStarSteps == null, jumpPointSteps == null, description + " is found by both");
+			if (aStarSteps != null && aStarSteps.size() < Path.MAXIMUM_SIZE && jumpPointSteps.size() < Path.MAXIMUM_SIZE) {
+				assertEquals(cost(start, aStarSteps, end), cost(start, jumpPointSteps, end), description + " costs the same");
+			}
+		}
+	}
+
+	/**
+	 * @return The cost of walking the steps from the start to the end, which must each be next to the one before
+	 */
+	private static long cost(final Point start, final List<Point> steps, final Point end) {
+		final List<Point> tiles = new ArrayList<>();
+		tiles.add(start);
+		tiles.addAll(steps);
+		tiles.add(end);
+		long cost = 0;
+		for (int i = 1; i < tiles.size(); i++) {
+			final int dx = Math.abs(tiles.get(i).getX() - tiles.get(i - 1).getX());
+			final int dy = Math.abs(tiles.get(i).getY() - tiles.get(i - 1).getY());
+			assertTrue(dx <= 1 && dy <= 1, "Step " + tiles.get(i) + " is next to " + tiles.get(i - 1));
+			cost += dx == 1 && dy == 1 ? AStarPathfinder.diagCost : AStarPathfinder.basicCost;
+		}
+		return cost;
+	}
+
+	/**
+	 * @return A map where about one tile in six is fully blocked and one in six has walls on some of its sides
+	 */
+	static CollisionMap randomMap(final Random random) {
+		final CollisionMap collisionMap = new CollisionMap(MAP_SIZE, MAP_SIZE);
+		for (int x = 0; x < MAP_SIZE; x++) {
+			for (int y = 0; y < MAP_SIZE; y++) {
+				final int roll = random.nextInt(6);
+				if (roll == 0) {
+					collisionMap.setTraversalMask(x, y, CollisionFlag.FULL_BLOCK_A << random.nextInt(3));
+				} else if (roll == 1) {
+					collisionMap.setTraversalMask(x, y, 1 + random.nextInt(15));
+				}
+			}
+		}
+		return collisionMap;
+	}
+
+	/**
+	 * @return The steps of the path, or null if there is none
+	 */
+	static List<Point> steps(final Path path) {
+		if (path == null) {
+			return null;
+		}
+		final List<Point> steps = new ArrayList<>();
+		path.iterator().forEachRemaining(steps::add);
+		return steps;
+	}
+}
@@ -0,0 +1,33 @@
+package com.openrsc.server.model;
+
+import com.openrsc.server.Server;
+import com.openrsc.server.model.world.region.CollisionMap;
+import com.openrsc.server.testing.TestServers;
+
+import static com.openrsc.server.testing.Assert.assertEquals;
+
+/**
+ * Checks lines of sight from entities outside of the map are walked, as the line of sight cache only has versions
+ * for the regions of the map.
+ */
+public class PathValidationTest {
+	public static void main(final String[] args) throws Exception {
+		final Server server = TestServers.createServer();
+		final CollisionMap collisionMap = server.getWorld().getCollisionMap();
+		final int width = collisionMap.getWidth();
+		final int height = collisionMap.getHeight();
+
+		final Point[][] lines = {
+			{new Point(-3, 650), new Point(4, 650)},
+			{new Point(120, 650), new Point(-2, 645)},
+			{new Point(width + 2, 650), new Point(width - 5, 650)},
+			{new Point(120, height + 3), new Point(120, height - 4)},
+			{new Point(120, height - 4), new Point(125, height + 20)},
+		};
+		for (final Point[] line : lines) {
+			final boolean first = PathValidation.checkPath(server.getWorld(), line[0], line[1]);
+			assertEquals(first, PathValidation.checkPath(server.getWorld(), line[0], line[1]),
+				"Line of sight from " + line[0] + " to " + line[1] + " asked again");
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.openrsc.server.model;
+
+import com.openrsc.server.Server;
+import com.openrsc.server.model.entity.npc.Npc;
+import com.openrsc.server.model.world.region.CollisionMap;
+import com.openrsc.server.testing.TestServers;
+import com.openrsc.server.util.rsc.CollisionFlag;
+
+import static com.openrsc.server.testing.Assert.assertNotNull;
+import static com.openrsc.server.testing.Assert.assertTrue;
+
+/**
+ * Checks a search still running for an npc does not replace the walk it was given after asking for a target it can
+ * never reach.
+ */
+public class PathfindingServiceTest {
+	public static void main(final String[] args) throws Exception {
+		final Server server = TestServers.createServer();
+		final CollisionMap collisionMap = server.getWorld().getCollisionMap();
+		// Wall in a tile on all sides so no path leads to it.
+		final Point walledIn = Point.location(126, 656);
+		collisionMap.setTraversalMask(walledIn.getX(), walledIn.getY(), CollisionFlag.WALL_NORTH | CollisionFlag.WALL_EAST
+			| CollisionFlag.WALL_SOUTH | CollisionFlag.WALL_WEST);
+		collisionMap.addTraversalFlags(walledIn.getX() - 1, walledIn.getY(), CollisionFlag.WALL_WEST);
+		collisionMap.addTraversalFlags(walledIn.getX() + 1, walledIn.getY(), CollisionFlag.WALL_EAST);
+		collisionMap.addTraversalFlags(walledIn.getX(), walledIn.getY() - 1, CollisionFlag.WALL_SOUTH);
+		collisionMap.addTraversalFlags(walledIn.getX(), walledIn.getY() + 1, CollisionFlag.WALL_NORTH);
+		collisionMap.computeReachability();
+
+		final Npc npc = new Npc(server.getWorld(), 11, 120, 650);
+		server.getWorld().registerNpc(npc);
+		final PathfindingService service = new PathfindingService(server.getWorld());
+		try {
+			service.request(npc, null, 123, 650, AStarPathfinder.MAX_A_STAR_DEPTH);
+			service.submit();
+
+			service.request(npc, null, walledIn.getX(), walledIn.getY(), AStarPathfinder.MAX_A_STAR_DEPTH);
+			final Path fallback = npc.getWalkingQueue().path;
+			assertNotNull(fallback, "An unreachable target is walked towards straight away");
+
+			service.applyPaths();
+			assertTrue(npc.getWalkingQueue().path == fallback, "The earlier search does not replace the walk");
+		} finally {
+			service.shutdown();
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.openrsc.server.model.entity;
+
+import com.openrsc.server.Server;
+import com.openrsc.server.constants.Constants;
+import com.openrsc.server.model.Point;
+import com.openrsc.server.model.entity.npc.Npc;
+import com.openrsc.server.model.world.region.Region;
+import com.openrsc.server.testing.TestServers;
+
+import static com.openrsc.server.testing.Assert.assertFalse;
+import static com.openrsc.server.testing.Assert.assertNull;
+import static com.openrsc.server.testing.Assert.assertTrue;
+
+/**
+ * Checks an entity can be moved outside of the world, where there are no regions, and back.
+ */
+public class EntityRegionTest {
+	public static void main(final String[] args) throws Exception {
+		final Server server = TestServers.createServer();
+		final Npc npc = new Npc(server.getWorld(), 11, 120, 650);
+		server.getWorld().registerNpc(npc);
+		final Region lumbridge = npc.getRegion();
+		assertTrue(lumbridge.getNpcs().contains(npc), "The npc is in the region of its location");
+
+		npc.setLocation(Point.location(Constants.MAX_WIDTH + 10, 650));
+		assertNull(npc.getRegion(), "Region outside of the world");
+		assertFalse(lumbridge.getNpcs().contains(npc), "The npc left its region");
+
+		npc.setLocation(Point.location(121, 650));
+		assertTrue(npc.getRegion() == lumbridge, "The npc is back in its region");
+		assertTrue(lumbridge.getNpcs().contains(npc), "The region holds the npc again");
+
+		npc.setLocation(Point.location(Constants.MAX_WIDTH + 10, 650));
+		npc.remove();
+		assertTrue(npc.isRemoved(), "An npc outside of the world can be removed");
+	}
+}
@@ -0,0 +1,60 @@
+package com.openrsc.server.model.world.region;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.openrsc.server.testing.Assert.assertEquals;
+
+/**
+ * Checks projectile flags changed from several threads at once, on tiles sharing the same word of the bitset, are
+ * never lost.
+ */
+public class CollisionMapTest {
+	private static final int THREADS = 4;
+	private static final long DURATION_NANOS = 1_000_000_000L;
+
+	public static void main(final String[] args) throws Exception {
+		final CollisionMap map = new CollisionMap(4, 64);
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Callable<Integer>> tasks = new ArrayList<>();
+			for (int thread = 0; thread < THREADS; thread++) {
+				final int first = thread;
+				tasks.add(() -> toggle(map, first));
+			}
+			int lost = 0;
+			for (final Future<Integer> future : executor.invokeAll(tasks)) {
+				lost += future.get();
+			}
+			assertEquals(0, lost, "Projectile flags changed by another thread");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Flips every THREADS-th tile of the first column over and over, checking before each flip that the tile still
+	 * holds the value this thread last gave it. The column is a single word of the bitset.
+	 *
+	 * @return The number of times a tile did not
+	 */
+	private static int toggle(final CollisionMap map, final int first) {
+		final boolean[] expected = new boolean[map.getHeight()];
+		int lost = 0;
+		final long end = System.nanoTime() + DURATION_NANOS;
+		while (System.nanoTime() < end) {
+			for (int y = first; y < map.getHeight(); y += THREADS) {
+				if (map.isProjectileAllowed(0, y) != expected[y]) {
+					lost++;
+				}
+				expected[y] = !expected[y];
+				map.setProjectileAllowed(0, y, expected[y]);
+			}
+		}
+		return lost;
+	}
+}
@@ -0,0 +1,27 @@
+package com.openrsc.server.model.world.region;
+
+import com.openrsc.server.util.rsc.CollisionFlag;
+
+import static com.openrsc.server.testing.Assert.assertEquals;
+
+/**
+ * Checks an answer found while a tile on the line changed is not kept as if it were found after the change.
+ */
+public class LineOfSightCacheTest {
+	public static void main(final String[] args) {
+		final CollisionMap collisionMap = new CollisionMap(96, 96);
+		final LineOfSightCache cache = collisionMap.getLineOfSightCache();
+
+		final long stamp = cache.stamp(40, 40, 56, 50);
+		assertEquals(LineOfSightCache.UNKNOWN, cache.lookup(40, 40, 56, 50, stamp), "Answer before any is stored");
+		cache.store(40, 40, 56, 50, stamp, true);
+		assertEquals(1, cache.lookup(40, 40, 56, 50, cache.stamp(40, 40, 56, 50)), "Answer stored with the current stamp");
+
+		// The line is walked from the stamp taken before a wall went up in another region it crosses.
+		final long before = cache.stamp(40, 40, 56, 50);
+		collisionMap.setTraversalMask(50, 45, CollisionFlag.FULL_BLOCK_A);
+		cache.store(40, 40, 56, 50, before, true);
+		assertEquals(LineOfSightCache.UNKNOWN, cache.lookup(40, 40, 56, 50, cache.stamp(40, 40, 56, 50)),
+			"Answer found while the line changed");
+	}
+}
@@ -0,0 +1,82 @@
+package com.openrsc.server.model.world.region;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.openrsc.server.testing.Assert.assertEquals;
+import static com.openrsc.server.testing.Assert.assertTrue;
+
+/**
+ * Checks tiles opened from two threads at once, as registering game objects in parallel does, merge every component
+ * into a single one, without losing a merge or linking two labels into a cycle.
+ */
+public class ReachabilityMapTest {
+	private static final int SIZE = 512;
+	private static final long DURATION_NANOS = 1_000_000_000L;
+
+	public static void main(final String[] args) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final Random random = new Random(22);
+			final long end = System.nanoTime() + DURATION_NANOS;
+			int rounds = 0;
+			while (System.nanoTime() < end || rounds == 0) {
+				openConcurrently(executor, random);
+				rounds++;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Walls every tile in on all sides, so each tile inside the edges starts as its own component, then has two
+	 * threads open alternate columns in random order.
+	 */
+	private static void openConcurrently(final ExecutorService executor, final Random random) throws Exception {
+		final CollisionMap collisionMap = new CollisionMap(SIZE, SIZE);
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				collisionMap.setTraversalMask(x, y, 15);
+			}
+		}
+		final ReachabilityMap reachability = new ReachabilityMap(collisionMap);
+		assertEquals(1 + (SIZE - 2) * (SIZE - 2), reachability.getComponentCount(), "Components before opening");
+
+		final List<Future<?>> futures = new ArrayList<>();
+		for (int column = 0; column < 2; column++) {
+			final List<Integer> tiles = new ArrayList<>();
+			for (int x = column; x < SIZE; x += 2) {
+				for (int y = 0; y < SIZE; y++) {
+					tiles.add(x * SIZE + y);
+				}
+			}
+			Collections.shuffle(tiles, random);
+			futures.add(executor.submit(() -> {
+				for (final int tile : tiles) {
+					collisionMap.setTraversalMask(tile / SIZE, tile % SIZE, 0);
+					reachability.tileOpened(tile / SIZE, tile % SIZE);
+				}
+			}));
+		}
+		for (final Future<?> future : futures) {
+			try {
+				future.get(10, TimeUnit.SECONDS);
+			} catch (final TimeoutException e) {
+				throw new AssertionError("Opening the tiles never finished, two labels were merged into each other", e);
+			}
+		}
+
+		assertEquals(1, reachability.getComponentCount(), "Components once every tile is open");
+		for (int index = 0; index < SIZE * SIZE; index++) {
+			assertTrue(reachability.isReachable(0, index), "Tile " + index + " is reachable");
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.openrsc.server.model.world.region;
+
+import com.openrsc.server.Server;
+import com.openrsc.server.constants.Constants;
+import com.openrsc.server.testing.Benchmark;
+import com.openrsc.server.testing.TestServers;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares tile lookups through the flat region array and the collision map with the nested map of regions the
+ * RegionManager used to keep, which created each region and its 48x48 tile objects on the first lookup.
+ *
+ * Two access patterns are measured: tiles spread over the whole world, and the tiles of the 41x41 window a path
+ * search at depth 20 reads around a mob in Lumbridge.
+ */
+public class RegionManagerBenchmark {
+	private static final int QUERIES = 4096;
+
+	public static void main(final String[] args) throws Exception {
+		final Server server = TestServers.createServer();
+		final RegionManager regionManager = server.getWorld().getRegionManager();
+		final CollisionMap collisionMap = regionManager.getCollisionMap();
+		final LegacyRegions legacy = new LegacyRegions(collisionMap);
+
+		final Random random = new Random(1);
+		final int[] spreadX = new int[QUERIES];
+		final int[] spreadY = new int[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			spreadX[i] = random.nextInt(Constants.MAX_WIDTH);
+			spreadY[i] = random.nextInt(Constants.MAX_HEIGHT);
+		}
+		final int windowSize = 41;
+		final int[] windowX = new int[windowSize * windowSize];
+		final int[] windowY = new int[windowSize * windowSize];
+		for (int i = 0; i < windowX.length; i++) {
+			windowX[i] = 120 - windowSize / 2 + i / windowSize;
+			windowY[i] = 650 - windowSize / 2 + i % windowSize;
+		}
+
+		for (final String pattern : new String[]{"spread", "window"}) {
+			final int[] xs = pattern.equals("spread") ? spreadX : windowX;
+			final int[] ys = pattern.equals("spread") ? spreadY : windowY;
+			Benchmark.run("getTile " + pattern + ", nested maps (before)", xs.length, () -> {
+				long result = 0;
+				for (int i = 0; i < xs.length; i++) {
+					result += legacy.getTile(xs[i], ys[i]).traversalMask;
+				}
+				return result;
+			});
+			Benchmark.run("getTile " + pattern + ", flat array", xs.length, () -> {
+				long result = 0;
+				for (int i = 0; i < xs.length; i++) {
+					result += regionManager.getTile(xs[i], ys[i]).getTraversalMask();
+				}
+				return result;
+			});
+			Benchmark.run("getTraversalMask " + pattern + ", collision map", xs.length, () -> {
+				long result = 0;
+				for (int i = 0; i < xs.length; i++) {
+					result += collisionMap.getTraversalMask(xs[i], ys[i]);
+				}
+				return result;
+			});
+			Benchmark.run("getRegion " + pattern + ", nested maps (before)", xs.length, () -> {
+				long result = 0;
+				for (int i = 0; i < xs.length; i++) {
+					result += System.identityHashCode(legacy.getRegion(xs[i], ys[i]));
+				}
+				return result;
+			});
+			Benchmark.run("getRegion " + pattern + ", flat array", xs.length, () -> {
+				long result = 0;
+				for (int i = 0; i < xs.length; i++) {
+					result += System.identityHashCode(regionManager.getRegion(xs[i], ys[i]));
+				}
+				return result;
+			});
+		}
+	}
+
+	/**
+	 * The tiles of a region as the RegionManager used to hold them, one object per tile.
+	 */
+	private static final class LegacyTile {
+		private byte traversalMask;
+		private short diagWallVal;
+		private byte horizontalWallVal;
+		private byte overlay;
+		private byte verticalWallVal;
+		private byte elevation;
+		private boolean projectileAllowed;
+	}
+
+	/**
+	 * The lookups of the RegionManager before the flat array, over the same landscape.
+	 */
+	private static final class LegacyRegions {
+		private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, LegacyTile[][]>> regions = new ConcurrentHashMap<>();
+		private final CollisionMap collisionMap;
+
+		private LegacyRegions(final CollisionMap collisionMap) {
+			this.collisionMap = collisionMap;
+		}
+
+		private LegacyTile[][] getRegionFromSectorCoordinates(final int regionX, final int regionY) {
+			if (!regions.containsKey(regionX)) {
+				regions.put(regionX, new ConcurrentHashMap<>());
+			}
+			if (!regions.get(regionX).containsKey(regionY)) {
+				regions.get(regionX).put(regionY, createRegion(regionX, regionY));
+			}
+			return regions.get(regionX).get(regionY);
+		}
+
+		private LegacyTile[][] createRegion(final int regionX, final int regionY) {
+			final LegacyTile[][] tiles = new LegacyTile[Constants.REGION_SIZE][Constants.REGION_SIZE];
+			for (int x = 0; x < Constants.REGION_SIZE; x++) {
+				for (int y = 0; y < Constants.REGION_SIZE; y++) {
+					final int worldX = regionX * Constants.REGION_SIZE + x;
+					final int worldY = regionY * Constants.REGION_SIZE + y;
+					final LegacyTile tile = new LegacyTile();
+					if (worldX < Constants.MAX_WIDTH && worldY < Constants.MAX_HEIGHT) {
+						tile.traversalMask = collisionMap.getTraversalMask(worldX, worldY);
+						tile.diagWallVal = collisionMap.getDiagWallVal(worldX, worldY);
+						tile.horizontalWallVal = collisionMap.getHorizontalWallVal(worldX, worldY);
+						tile.overlay = collisionMap.getOverlay(worldX, worldY);
+						tile.verticalWallVal = collisionMap.getVerticalWallVal(worldX, worldY);
+						tile.elevation = collisionMap.getElevation(worldX, worldY);
+						tile.projectileAllowed = collisionMap.isProjectileAllowed(worldX, worldY);
+					}
+					tiles[x][y] = tile;
+				}
+			}
+			return tiles;
+		}
+
+		private LegacyTile[][] getRegion(final int x, final int y) {
+			return getRegionFromSectorCoordinates(x / Constants.REGION_SIZE, y / Constants.REGION_SIZE);
+		}
+
+		private LegacyTile getTile(final int x, final int y) {
+			if (x < 0 || x >= Constants.MAX_WIDTH || y < 0 || y >= Constants.MAX_HEIGHT) {
+				return null;
+			}
+			return getRegion(x, y)[x % Constants.REGION_SIZE][y % Constants.REGION_SIZE];
+		}
+	}
+}
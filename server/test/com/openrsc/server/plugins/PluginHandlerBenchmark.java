@@ -0,0 +1,122 @@
+package com.openrsc.server.plugins;
+
+import com.openrsc.server.Server;
+import com.openrsc.server.model.Point;
+import com.openrsc.server.model.entity.npc.Npc;
+import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.plugins.triggers.OpNpcTrigger;
+import com.openrsc.server.testing.Benchmark;
+import com.openrsc.server.testing.TestServers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares handlePlugin("OpNpc", ...) through the method handles resolved at load time with the reflective dispatch
+ * it replaced, which looked up and invoked each plugin's block method under a global lock on every call.
+ *
+ * None of the plugins block, the common case of a command most plugins do not handle, and there is no default
+ * handler, so no plugin task is started and only the dispatch itself is timed.
+ */
+public class PluginHandlerBenchmark {
+	private static final int[] PLUGIN_COUNTS = {10, 40};
+
+	public static void main(final String[] args) throws Exception {
+		final Server server = TestServers.createServer();
+		final Player player = TestServers.addPlayer(server, "benchmark", Point.location(120, 650));
+		final Npc npc = new Npc(server.getWorld(), 11, 121, 650);
+		server.getWorld().registerNpc(npc);
+		final Object[] data = {player, npc, "Pickpocket"};
+		final PluginHandler pluginHandler = server.getPluginHandler();
+
+		for (final int count : PLUGIN_COUNTS) {
+			final List<Object> plugins = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				plugins.add(new NpcCommand(i));
+			}
+			final LegacyDispatch legacy = new LegacyDispatch("OpNpcTrigger", plugins);
+			install(pluginHandler, new TriggerHandlers(OpNpcTrigger.class, plugins, null));
+
+			Benchmark.run("handlePlugin OpNpc, " + count + " plugins, reflection (before)", 1,
+				() -> legacy.handlePlugin("OpNpc", data) ? 1 : 0);
+			Benchmark.run("handlePlugin OpNpc, " + count + " plugins, method handles", 1,
+				() -> pluginHandler.handlePlugin(player, "OpNpc", data) ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Makes a registry holding only the given trigger the handler's active one.
+	 */
+	private static void install(final PluginHandler pluginHandler, final TriggerHandlers handlers) throws ReflectiveOperationException {
+		final Map<String, TriggerHandlers> triggers = new HashMap<>();
+		triggers.put(handlers.getName(), handlers);
+		final PluginRegistry registry = new PluginRegistry(null, Collections.singletonList(OpNpcTrigger.class), triggers,
+			Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), 1);
+		final Field field = PluginHandler.class.getDeclaredField("registry");
+		field.setAccessible(true);
+		field.set(pluginHandler, registry);
+	}
+
+	/**
+	 * A plugin handling one npc command that is never used.
+	 */
+	public static final class NpcCommand implements OpNpcTrigger {
+		private final String command;
+
+		NpcCommand(final int id) {
+			this.command = "Command" + id;
+		}
+
+		@Override
+		public void onOpNpc(final Player player, final Npc npc, final String command) {
+		}
+
+		@Override
+		public boolean blockOpNpc(final Player player, final Npc npc, final String command) {
+			return command.equals(this.command);
+		}
+	}
+
+	/**
+	 * The dispatch of handlePlugin before the method handles, for plugins that do not block.
+	 */
+	private static final class LegacyDispatch {
+		private final Map<String, Set<Object>> plugins = new HashMap<>();
+
+		private LegacyDispatch(final String trigger, final List<Object> plugins) {
+			this.plugins.put(trigger, new LinkedHashSet<>(plugins));
+		}
+
+		private boolean handlePlugin(final String interfce, final Object[] data) {
+			synchronized (plugins) {
+				boolean shouldBlockDefault = false;
+				if (plugins.containsKey(interfce + "Trigger")) {
+					for (final Object c : plugins.get(interfce + "Trigger")) {
+						try {
+							final Class<?>[] dataClasses = new Class<?>[data.length];
+							int i = 0;
+							for (final Object o : data) {
+								dataClasses[i++] = o.getClass();
+							}
+							final Method m = c.getClass().getMethod("block" + interfce, dataClasses);
+							final boolean shouldBlock = (Boolean) m.invoke(c, data);
+							if (shouldBlock) {
+								shouldBlockDefault = true;
+							}
+						} catch (final Exception e) {
+							throw new IllegalStateException(e);
+						}
+					}
+				}
+				return shouldBlockDefault;
+			}
+		}
+	}
+}
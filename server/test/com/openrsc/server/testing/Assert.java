@@ -0,0 +1,49 @@
+package com.openrsc.server.testing;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The checks made by the tests, each throwing an AssertionError describing the failure.
+ */
+public final class Assert {
+	private Assert() {
+	}
+
+	public static void assertTrue(final boolean condition, final String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+
+	public static void assertFalse(final boolean condition, final String message) {
+		assertTrue(!condition, message);
+	}
+
+	public static void assertEquals(final Object expected, final Object actual, final String message) {
+		if (!Objects.equals(expected, actual)) {
+			throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+		}
+	}
+
+	public static void assertEquals(final long expected, final long actual, final String message) {
+		if (expected != actual) {
+			throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+		}
+	}
+
+	public static void assertArrayEquals(final byte[] expected, final byte[] actual, final String message) {
+		if (!Arrays.equals(expected, actual)) {
+			throw new AssertionError(message + ": expected " + Arrays.toString(expected) + " but was "
+				+ Arrays.toString(actual));
+		}
+	}
+
+	public static void assertNull(final Object actual, final String message) {
+		assertEquals(null, actual, message);
+	}
+
+	public static void assertNotNull(final Object actual, final String message) {
+		assertTrue(actual != null, message + ": was null");
+	}
+}
@@ -0,0 +1,62 @@
+package com.openrsc.server.testing;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Times code the way the ant benchmark target reports it. Each benchmark is warmed up, then measured over a number
+ * of fixed length iterations, and reported as the average time per operation with the fastest and slowest
+ * iteration.
+ *
+ * The body returns a value derived from its work, which is kept so the JIT can not remove the work as dead code.
+ * The iteration counts and length can be changed with the benchmark.warmups, benchmark.iterations and
+ * benchmark.millis system properties.
+ */
+public final class Benchmark {
+	private static final int WARMUPS = Integer.getInteger("benchmark.warmups", 5);
+	private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+	private static final long ITERATION_NANOS = Long.getLong("benchmark.millis", 1000) * 1_000_000L;
+
+	private static volatile long sink;
+
+	private Benchmark() {
+	}
+
+	/**
+	 * Runs a benchmark and prints its result.
+	 *
+	 * @param operations The number of operations each call of the body makes
+	 * @return The average time per operation in nanoseconds
+	 */
+	public static double run(final String name, final int operations, final LongSupplier body) {
+		for (int i = 0; i < WARMUPS; i++) {
+			iteration(operations, body);
+		}
+		final double[] results = new double[ITERATIONS];
+		for (int i = 0; i < ITERATIONS; i++) {
+			results[i] = iteration(operations, body);
+		}
+		Arrays.sort(results);
+		final double average = Arrays.stream(results).average().orElse(Double.NaN);
+		System.out.println(String.format("%-60s %12.2f ns/op  (min %.2f, max %.2f, %d x %dms)", name, average,
+			results[0], results[results.length - 1], ITERATIONS, ITERATION_NANOS / 1_000_000L));
+		return average;
+	}
+
+	/**
+	 * @return The time per operation in nanoseconds
+	 */
+	private static double iteration(final int operations, final LongSupplier body) {
+		long calls = 0;
+		long result = 0;
+		final long start = System.nanoTime();
+		long elapsed;
+		do {
+			result ^= body.getAsLong();
+			calls++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < ITERATION_NANOS);
+		sink ^= result;
+		return (double) elapsed / (calls * operations);
+	}
+}
@@ -0,0 +1,69 @@
+package com.openrsc.server.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the tests or benchmarks compiled into a directory, run by the ant build through its test and benchmark
+ * targets.
+ *
+ * Each test and benchmark is a class whose name ends with the given suffix and whose main method runs it. A test
+ * fails by throwing, usually an AssertionError from {@link Assert}.
+ */
+public final class TestRunner {
+	private TestRunner() {
+	}
+
+	/**
+	 * Usage: TestRunner [classes directory] [class name suffix] [optional class name filter]
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: TestRunner [classes directory] [class name suffix] [optional class name filter]");
+			System.exit(1);
+		}
+		final Path root = Paths.get(args[0]);
+		final String suffix = args[1];
+		final String filter = args.length > 2 ? args[2] : "";
+
+		final List<String> classNames;
+		try (final Stream<Path> files = Files.walk(root)) {
+			classNames = files
+				.map(file -> root.relativize(file).toString())
+				.filter(name -> name.endsWith(suffix + ".class"))
+				.map(name -> name.substring(0, name.length() - ".class".length()).replace(File.separatorChar, '.'))
+				.filter(name -> name.contains(filter))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+
+		int failures = 0;
+		for (final String className : classNames) {
+			final long start = System.currentTimeMillis();
+			try {
+				final Method main = Class.forName(className).getMethod("main", String[].class);
+				main.invoke(null, (Object) new String[0]);
+				System.out.println("PASS " + className + " (" + (System.currentTimeMillis() - start) + "ms)");
+			} catch (final InvocationTargetException e) {
+				failures++;
+				System.out.println("FAIL " + className + " (" + (System.currentTimeMillis() - start) + "ms)");
+				e.getCause().printStackTrace(System.out);
+			} catch (final ReflectiveOperationException e) {
+				failures++;
+				System.out.println("FAIL " + className + ": " + e);
+			}
+		}
+
+		System.out.println(classNames.size() + " run, " + failures + " failed");
+		// Servers built by the tests leave their executors running.
+		System.exit(failures == 0 ? 0 : 1);
+	}
+}
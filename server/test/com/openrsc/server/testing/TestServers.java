@@ -0,0 +1,74 @@
+package com.openrsc.server.testing;
+
+import com.openrsc.server.Server;
+import com.openrsc.server.login.LoginRequest;
+import com.openrsc.server.model.PlayerAppearance;
+import com.openrsc.server.model.Point;
+import com.openrsc.server.model.entity.player.Player;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Builds servers for the tests from default.conf, with their definitions and landscape loaded but without a
+ * database, network or game thread. Tests are run from the server directory so the config files can be found.
+ */
+public final class TestServers {
+	private TestServers() {
+	}
+
+	/**
+	 * @return A new server whose world has its landscape but no spawns, players or plugins
+	 */
+	public static Server createServer() throws IOException {
+		final Server server = new Server("default.conf");
+		server.getEntityHandler().loadDefinitions();
+		server.getEntityHandler().loadExtras();
+		server.getWorld().loadLandscape();
+		return server;
+	}
+
+	/**
+	 * Logs a player into the world without the database. Everything written to the player can be read back from
+	 * its channel once the player's outgoing packets have been processed.
+	 */
+	public static Player addPlayer(final Server server, final String username, final Point location) {
+		final PlayerChannel channel = new PlayerChannel();
+		final LoginRequest request = new LoginRequest(server, channel, username, "", server.getConfig().CLIENT_VERSION) {
+			@Override
+			public void loginValidated(final int response) {
+			}
+
+			@Override
+			public void loadingComplete(final Player loadedPlayer) {
+			}
+		};
+		final Player player = new Player(server.getWorld(), request);
+		player.getSettings().setAppearance(new PlayerAppearance(2, 8, 14, 0, 1, 2));
+		player.setLoggedIn(true);
+		player.setBusy(false);
+		player.setLocation(location, true);
+		server.getWorld().getPlayers().add(player);
+		player.updateRegion();
+		return player;
+	}
+
+	/**
+	 * @return The channel the player was logged in with by {@link #addPlayer}
+	 */
+	public static EmbeddedChannel getChannel(final Player player) {
+		return (EmbeddedChannel) player.getChannel();
+	}
+
+	/**
+	 * A channel that keeps everything written to it, with the remote address of a real connection.
+	 */
+	private static final class PlayerChannel extends EmbeddedChannel {
+		@Override
+		protected SocketAddress remoteAddress0() {
+			return new InetSocketAddress("127.0.0.1", 43594);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.openrsc.server.util;
+
+import static com.openrsc.server.testing.Assert.assertTrue;
+
+/**
+ * Checks shared data stays cached while a server uses it and is dropped once the last of them releases it.
+ */
+public class SharedGameDataTest {
+	public static void main(final String[] args) {
+		final Object first = new Object();
+		final Object second = new Object();
+
+		final Object loaded = SharedGameData.get(first, "SharedGameDataTest", "key", Object::new);
+		assertTrue(SharedGameData.get(second, "SharedGameDataTest", "key", Object::new) == loaded,
+			"A second server gets the data the first one loaded");
+
+		SharedGameData.release(first);
+		final Object third = new Object();
+		assertTrue(SharedGameData.get(third, "SharedGameDataTest", "key", Object::new) == loaded,
+			"The data stays cached while a server still uses it");
+
+		SharedGameData.release(second);
+		SharedGameData.release(third);
+		assertTrue(SharedGameData.get(first, "SharedGameDataTest", "key", Object::new) != loaded,
+			"The data is loaded again once every server released it");
+		SharedGameData.release(first);
+	}
+}